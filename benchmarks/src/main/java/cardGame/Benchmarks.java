@@ -0,0 +1,44 @@
+package cardGame;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Entry point of the benchmark jar. Accepts the usual JMH command line and
+ * always adds the <code>gc</code> profiler, so every run reports the
+ * allocation rate next to the throughput.<br/>
+ * 
+ * <code>java -jar benchmarks/target/benchmarks.jar [jmh options]</code>
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class Benchmarks {
+    /** Seed used by all benchmarks, so every run plays the same cards. */
+    public static final long SEED = 0x5EED5EEDL;
+
+    /** Empty constructor. */
+    private Benchmarks() {
+    }
+
+    /**
+     * Run the benchmarks.
+     * 
+     * @param args
+     *            JMH command line options
+     * @throws RunnerException
+     *             If running the benchmarks failed
+     * @throws IOException
+     *             If the results could not be written
+     */
+    public static void main(final String[] args) throws RunnerException,
+	    IOException {
+	final String[] jmhArgs = Arrays.copyOf(args, args.length + 2);
+	jmhArgs[args.length] = "-prof";
+	jmhArgs[args.length + 1] = "gc";
+	Main.main(jmhArgs);
+    }
+}
@@ -0,0 +1,52 @@
+package cardGame.card;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Color and type lookups of {@link CardDeck.Card}. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardDeckBenchmark {
+    /** Cards to look at. */
+    private final CardDeck.Card[] cards = CardDeck.Card.values();
+
+    /**
+     * Get the color of every card.
+     * 
+     * @param blackhole
+     *            Consumer of the colors
+     */
+    @Benchmark
+    public final void getColor(final Blackhole blackhole) {
+	for (CardDeck.Card card : this.cards) {
+	    blackhole.consume(card.getColor());
+	}
+    }
+
+    /**
+     * Get the type of every card.
+     * 
+     * @param blackhole
+     *            Consumer of the types
+     */
+    @Benchmark
+    public final void getType(final Blackhole blackhole) {
+	for (CardDeck.Card card : this.cards) {
+	    blackhole.consume(card.getType());
+	}
+    }
+}
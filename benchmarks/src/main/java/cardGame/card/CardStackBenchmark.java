@@ -0,0 +1,69 @@
+package cardGame.card;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cardGame.Benchmarks;
+import cardGame.util.SplitMixRandom;
+
+/** Shuffling and dealing from the dealers {@link CardStack}. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardStackBenchmark {
+    /** Stack to deal from. */
+    private CardStack stack;
+
+    /** Create the stack. */
+    @Setup
+    public final void setup() {
+	this.stack =
+		new CardStack(CardDeck.Deck.SKAT, new SplitMixRandom(
+			Benchmarks.SEED));
+    }
+
+    /** Refill and shuffle the stack. */
+    @Benchmark
+    public final void full() {
+	this.stack.full();
+    }
+
+    /**
+     * Shuffle and deal all cards one by one.
+     * 
+     * @param blackhole
+     *            Consumer of the dealt cards
+     */
+    @Benchmark
+    public final void fullAndDealAll(final Blackhole blackhole) {
+	this.stack.full();
+	while (this.stack.size() > 0) {
+	    blackhole.consume(this.stack.getRandomCard());
+	}
+    }
+
+    /**
+     * Shuffle and deal the hands of a four player game.
+     * 
+     * @return Dealt hands
+     */
+    @Benchmark
+    public final CardDeck.Card[][] fullAndDealHands() {
+	this.stack.full();
+	return this.stack.dealHands(5, 3);
+    }
+}
@@ -0,0 +1,92 @@
+package cardGame.event;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Fan-out of {@link EventBus#fireEvent(CardGameEvent, Object)} to a varying
+ * number of handlers and receivers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBusBenchmark {
+    /** Events fired by this benchmark. */
+    enum Event implements CardGameEvent {
+	/** Event with subscribed handlers. */
+	HANDLED,
+	/** Event with registered receivers. */
+	RECEIVED,
+	/** Event nobody listens to. */
+	IGNORED;
+    }
+
+    /** Number of listeners per event. */
+    @Param({ "1", "4", "16" })
+    private int listeners;
+    /** Bus to fire on. */
+    private EventBus bus;
+    /** Data passed with the events. */
+    private final Object data = new Object();
+
+    /**
+     * Subscribe the listeners.
+     * 
+     * @param blackhole
+     *            Consumer of the event data
+     */
+    @Setup
+    public final void setup(final Blackhole blackhole) {
+	this.bus = new EventBus();
+	final EventHandler<Object> handler = new EventHandler<Object>() {
+	    @Override
+	    public void handle(final Object eventData) {
+		blackhole.consume(eventData);
+	    }
+	};
+	final EventReceiver receiver = new EventReceiver() {
+	    @Override
+	    public void handleEvent(final CardGameEvent event,
+		    final Object eventData) {
+		blackhole.consume(eventData);
+	    }
+	};
+	for (int i = 0; i < this.listeners; i++) {
+	    this.bus.subscribe(Event.HANDLED, handler);
+	    this.bus.registerEventReceiver(receiver, Event.RECEIVED);
+	}
+    }
+
+    /** Fire an event to subscribed handlers. */
+    @Benchmark
+    public final void fireToHandlers() {
+	this.bus.fireEvent(Event.HANDLED, this.data);
+    }
+
+    /** Fire an event to registered receivers. */
+    @Benchmark
+    public final void fireToReceivers() {
+	this.bus.fireEvent(Event.RECEIVED, this.data);
+    }
+
+    /** Fire an event nobody listens to. */
+    @Benchmark
+    public final void fireIgnored() {
+	this.bus.fireEvent(Event.IGNORED, this.data);
+    }
+}
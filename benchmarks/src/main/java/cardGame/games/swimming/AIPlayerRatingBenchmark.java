@@ -0,0 +1,138 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.Benchmarks;
+import cardGame.card.CardDeck.Card;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * The {@link AIPlayerRating} functions used by the {@link AIPlayer} on each
+ * turn. Every invocation rates the next of a fixed set of random deals.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AIPlayerRatingBenchmark {
+    /** Number of prepared deals. */
+    private static final int DEALS = 1024;
+    /** Player hands as card bitmasks. */
+    private final int[] playerHands = new int[DEALS];
+    /** Table cards as card bitmasks. */
+    private final int[] tableHands = new int[DEALS];
+    /** Cards owned by the player. */
+    private final CardStack playerCards = new CardStack();
+    /** Cards wanted by the player. */
+    private final CardStack wantedCards = new CardStack();
+    /** Cards on the table. */
+    private final CardStack tableCards = new CardStack();
+    /** Rating working on the stacks above. */
+    private final AIPlayerRating rating = new AIPlayerRating(
+	    this.playerCards, this.wantedCards, this.tableCards,
+	    new CardStack(), new HandInference());
+    /** Position of the next deal to use. */
+    private int next;
+
+    /** Deal six distinct cards for each prepared deal. */
+    @Setup
+    public final void setup() {
+	final RandomSource random = new SplitMixRandom(Benchmarks.SEED);
+	for (int i = 0; i < DEALS; i++) {
+	    int cards = 0;
+	    int player = 0;
+	    while (Integer.bitCount(cards) < 6) {
+		final int bit = 1 << random.nextInt(CardStack.CARDS.size());
+		if ((cards & bit) == 0) {
+		    if (Integer.bitCount(player) < 3) {
+			player |= bit;
+		    }
+		    cards |= bit;
+		}
+	    }
+	    this.playerHands[i] = player;
+	    this.tableHands[i] = cards & ~player;
+	}
+	this.nextDeal();
+	this.rating.calculateWantedCards();
+    }
+
+    /** Put the next deal into the stacks. */
+    private void nextDeal() {
+	this.next = (this.next + 1) & (DEALS - 1);
+	this.playerCards.setCardMask(this.playerHands[this.next]);
+	this.tableCards.setCardMask(this.tableHands[this.next]);
+    }
+
+    /**
+     * Find the goal nearest to the players hand. The goal uses the card counts
+     * of the rating, so the deal is rated first.
+     * 
+     * @return Packed goal distances
+     */
+    @Benchmark
+    public final int goalDistance() {
+	this.nextDeal();
+	this.rating.calculateWantedCards();
+	return this.rating.goalDistance();
+    }
+
+    /**
+     * Rate all cards by the players hand.
+     * 
+     * @return Wanted cards mask, so the work can't be eliminated
+     */
+    @Benchmark
+    public final int calculateWantedCards() {
+	this.nextDeal();
+	this.rating.calculateWantedCards();
+	return this.wantedCards.getCardMask();
+    }
+
+    /**
+     * Update the ratings after swapping a card with the table, as done on each
+     * turn.
+     * 
+     * @return Wanted cards mask, so the work can't be eliminated
+     */
+    @Benchmark
+    public final int swapCard() {
+	final Card pick =
+		CardStack.card(Integer.numberOfTrailingZeros(this.tableCards
+			.getCardMask()));
+	final Card drop =
+		CardStack.card(Integer.numberOfTrailingZeros(this.playerCards
+			.getCardMask()));
+	this.tableCards.removeCard(pick);
+	this.tableCards.addCard(drop);
+	this.rating.removePlayerCard(drop);
+	this.rating.addPlayerCard(pick);
+	return this.wantedCards.getCardMask();
+    }
+
+    /**
+     * Pick the best card from the table.
+     * 
+     * @return Suggested card
+     */
+    @Benchmark
+    public final Card suggestRandomPick() {
+	this.nextDeal();
+	return this.rating.suggestRandomPick(this.rating
+		.rateTableAvailability());
+    }
+}
@@ -0,0 +1,103 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.Benchmarks;
+import cardGame.card.CardDeck.Card;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/** Card operations of the players {@link CardStack}. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardStackBenchmark {
+    /** Number of prepared hands. */
+    private static final int HANDS = 1024;
+    /** Random three card hands as card bitmasks. */
+    private final int[] hands = new int[HANDS];
+    /** Cards to add and remove, one per hand. */
+    private final Card[] cards = new Card[HANDS];
+    /** Stack to work on. */
+    private final CardStack stack = new CardStack();
+    /** Position of the next hand to use. */
+    private int next;
+
+    /** Prepare the hands. */
+    @Setup
+    public final void setup() {
+	final RandomSource random = new SplitMixRandom(Benchmarks.SEED);
+	for (int i = 0; i < HANDS; i++) {
+	    int hand = 0;
+	    while (Integer.bitCount(hand) < 3) {
+		hand |= 1 << random.nextInt(CardStack.CARDS.size());
+	    }
+	    this.hands[i] = hand;
+	    this.cards[i] =
+		    CardStack.card(random.nextInt(CardStack.CARDS.size()));
+	}
+    }
+
+    /**
+     * Get the index of the next prepared hand.
+     * 
+     * @return Hand index
+     */
+    private int nextHand() {
+	this.next = (this.next + 1) & (HANDS - 1);
+	return this.next;
+    }
+
+    /**
+     * Set a hand, then swap a card in and out again.
+     * 
+     * @return Card mask after the swap
+     */
+    @Benchmark
+    public final int addRemoveCard() {
+	final int hand = this.nextHand();
+	this.stack.setCardMask(this.hands[hand]);
+	this.stack.addCard(this.cards[hand]);
+	this.stack.removeCard(this.cards[hand]);
+	return this.stack.getCardMask();
+    }
+
+    /**
+     * Set a hand and check if it contains a card.
+     * 
+     * @return True if the card is part of the hand
+     */
+    @Benchmark
+    public final boolean containsCard() {
+	final int hand = this.nextHand();
+	this.stack.setCardMask(this.hands[hand]);
+	return this.stack.containsCard(this.cards[hand]);
+    }
+
+    /**
+     * Set a hand and count the cards matching the color and type of a card.
+     * 
+     * @return Sum of both counts
+     */
+    @Benchmark
+    public final int countByColorAndType() {
+	final int hand = this.nextHand();
+	this.stack.setCardMask(this.hands[hand]);
+	return this.stack.countByColor(this.cards[hand].getColor())
+		+ this.stack.countByType(this.cards[hand].getType());
+    }
+}
@@ -0,0 +1,95 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.Benchmarks;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * Lookups in a {@link DecisionCache} keyed by random hands and tables, as
+ * done by {@link AIPlayer}s sharing a cache. Every invocation looks up the
+ * next of a fixed set of keys.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecisionCacheBenchmark {
+    /** Number of prepared keys. */
+    private static final int KEYS = 1 << 16;
+    /** Keys of random hands and tables. */
+    private final long[] keys = new long[KEYS];
+    /** Cache holding all keys. */
+    private final DecisionCache full = new DecisionCache("benchmark.full",
+	    KEYS * 2);
+    /** Cache holding a small part of the keys. */
+    private final DecisionCache small = new DecisionCache(
+	    "benchmark.small", KEYS / 16);
+    /** Position of the next key to use. */
+    private int next;
+
+    /** Deal six distinct cards for each key and fill the full cache. */
+    @Setup
+    public final void setup() {
+	final RandomSource random = new SplitMixRandom(Benchmarks.SEED);
+	for (int i = 0; i < KEYS; i++) {
+	    int cards = 0;
+	    int hand = 0;
+	    while (Integer.bitCount(cards) < 6) {
+		final int bit = 1 << random.nextInt(CardStack.CARDS.size());
+		if ((cards & bit) == 0) {
+		    if (Integer.bitCount(hand) < HandEvaluator.HAND_SIZE) {
+			hand |= bit;
+		    }
+		    cards |= bit;
+		}
+	    }
+	    final int availability =
+		    random.nextInt(1 << (HandEvaluator.HAND_SIZE
+			    * AIPlayerRating.AVAILABILITY_BITS));
+	    this.keys[i] =
+		    AIPlayer.decisionKey(hand, cards & ~hand, availability);
+	    this.full.put(this.keys[i], i & 0xfff);
+	}
+    }
+
+    /**
+     * Look up a cached decision.
+     * 
+     * @return Cached decision
+     */
+    @Benchmark
+    public final int hit() {
+	this.next = (this.next + 1) & (KEYS - 1);
+	return this.full.get(this.keys[this.next]);
+    }
+
+    /**
+     * Look up a decision mostly not cached and cache it, evicting another.
+     * 
+     * @return Cached decision or {@link DecisionCache#MISSING}
+     */
+    @Benchmark
+    public final int missAndPut() {
+	this.next = (this.next + 1) & (KEYS - 1);
+	final int decision = this.small.get(this.keys[this.next]);
+	if (decision == DecisionCache.MISSING) {
+	    this.small.put(this.keys[this.next], this.next & 0xfff);
+	}
+	return decision;
+    }
+}
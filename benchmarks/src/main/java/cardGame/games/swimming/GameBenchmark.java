@@ -0,0 +1,59 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.Benchmarks;
+import cardGame.out.Logger;
+
+/**
+ * Complete games played by {@link AIPlayer}s, including table setup, events
+ * and scoring. Each invocation plays one game on the next table of a
+ * {@link Simulation} with a fixed seed, so every run plays the same games.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    /** Number of players at the table. */
+    @Param({ "2", "4", "9" })
+    private int players;
+    /** Simulation providing the table setup. */
+    private Simulation simulation;
+    /** Number of the next table to play. */
+    private int table;
+
+    /** Create the simulation. */
+    @Setup
+    public final void setup() {
+	Logger.setDefaultLevel(Logger.Level.OFF);
+	this.simulation =
+		new Simulation(new String[] { "--players=" + this.players,
+			"--games=1", "--seed=" + Benchmarks.SEED });
+	this.table = 0;
+    }
+
+    /**
+     * Play a single game.
+     * 
+     * @return Statistics of the game
+     */
+    @Benchmark
+    public final SimulationStats playGame() {
+	return this.simulation.playTable(this.table++);
+    }
+}
@@ -0,0 +1,78 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.Benchmarks;
+import cardGame.card.CardDeck.Card;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * Updates of the {@link HandInference} at a full table, so eight other
+ * players are tracked. Every invocation is one swap of the next player.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandInferenceBenchmark {
+    /** Number of prepared swaps. */
+    private static final int SWAPS = 1024;
+    /** Cards picked, one per swap. */
+    private final Card[] picks = new Card[SWAPS];
+    /** Cards dropped, one per swap. */
+    private final Card[] drops = new Card[SWAPS];
+    /** Inference to update. */
+    private final HandInference inference = new HandInference();
+    /** Position of the next swap to use. */
+    private int next;
+
+    /** Prepare the swaps and start a game. */
+    @Setup
+    public final void setup() {
+	final RandomSource random = new SplitMixRandom(Benchmarks.SEED);
+	for (int i = 0; i < SWAPS; i++) {
+	    this.picks[i] =
+		    CardStack.card(random.nextInt(CardStack.CARDS.size()));
+	    this.drops[i] =
+		    CardStack.card(random.nextInt(CardStack.CARDS.size()));
+	}
+	this.reset();
+    }
+
+    /** Start a new game with fixed cards for the own seat and the table. */
+    private void reset() {
+	this.inference.reset(GameState.MAX_PLAYERS, 0, 0x7, 0x38);
+    }
+
+    /**
+     * Observe a swap of the next player. A new game starts, once all
+     * prepared swaps are used.
+     * 
+     * @return Chance of the first card, so the work can't be eliminated
+     */
+    @Benchmark
+    public final float swap() {
+	this.next = (this.next + 1) & (SWAPS - 1);
+	if (this.next == 0) {
+	    this.reset();
+	}
+	final int seat = 1 + (this.next % (GameState.MAX_PLAYERS - 1));
+	this.inference.pick(seat, this.picks[this.next]);
+	this.inference.drop(seat, this.drops[this.next]);
+	return this.inference.chance(seat, CardStack.card(0));
+    }
+}
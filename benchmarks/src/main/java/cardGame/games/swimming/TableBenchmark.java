@@ -0,0 +1,41 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cardGame.card.CardDeck.Card;
+
+/** Card value lookup of the {@link Table}. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableBenchmark {
+    /** Cards to look at. */
+    private final Card[] cards = Card.values();
+
+    /**
+     * Sum up the values of all cards.
+     * 
+     * @return Sum of all card values
+     */
+    @Benchmark
+    public final int getCardValue() {
+	int sum = 0;
+	for (Card card : this.cards) {
+	    sum += Table.getCardValue(card);
+	}
+	return sum;
+    }
+}
@@ -1,9 +1,12 @@
 package cardGame.card;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class CardDeck {
@@ -28,7 +31,7 @@ public class CardDeck {
 
 	@Override
 	public String toString() {
-	    return new String(this.symbol);
+	    return this.symbol;
 	}
     }
 
@@ -99,9 +102,27 @@ public class CardDeck {
 	CLUB_ACE;
 	// CHECKSTYLE:ON
 
+	/** Color of the card. */
+	private final Color color;
+	/** Type of the card. */
+	private final Type type;
+	/** String representation of the card. */
+	private final String symbol;
+
+	/**
+	 * Constructor. Color and type are derived from the position of the
+	 * card, as cards are ordered by color and then by type.
+	 */
+	private Card() {
+	    final int types = Type.values().length;
+	    this.color = Color.values()[this.ordinal() / types];
+	    this.type = Type.values()[this.ordinal() % types];
+	    this.symbol = String.format("[%s%s]", this.color, this.type);
+	}
+
 	@Override
 	public String toString() {
-	    return String.format("[%s%s]", this.getColor(), this.getType());
+	    return this.symbol;
 	}
 
 	/**
@@ -110,7 +131,7 @@ public class CardDeck {
 	 * @return Card Color
 	 */
 	public Color getColor() {
-	    return Color.values()[this.ordinal() / Type.values().length];
+	    return this.color;
 	}
 
 	/**
@@ -119,128 +140,135 @@ public class CardDeck {
 	 * @return Card Type
 	 */
 	public Type getType() {
-	    int name;
-	    if (this.ordinal() >= Type.values().length) {
-		name = this.ordinal() % Type.values().length;
-	    } else {
-		name = this.ordinal();
-	    }
-	    return Type.values()[name];
+	    return this.type;
 	}
     }
 
-    /** Provides different specialized types of card-decks for different games. */
+    /**
+     * Provides different specialized types of card-decks for different games.
+     * All card mappings of a deck are calculated once on creation and can't be
+     * modified afterwards. Accessing them is therefore safe from any thread and
+     * will not allocate new objects.
+     */
     public enum Deck {
 	/** A skat playing deck with 32 cards ranging from 7-A in all colors. */
-	SKAT {
-	    /** Number of cards in this deck. */
-	    private final List<Card> CARDS = new ArrayList<Card>(32);
+	SKAT(Type.SEVEN, Type.ACE);
 
-	    @Override
-	    public final List<Card> getCards() {
-		int cardPos;
-		// only do this the first time
-		if (this.CARDS.size() == 0) {
-		    for (Card card : Card.values()) {
-			if (card.ordinal() >= Type.values().length) {
-			    cardPos = card.ordinal() % Type.values().length;
-			} else {
-			    cardPos = card.ordinal();
-			}
-			// we start with card 7 witch is at ordinal 5
-			if (cardPos >= 5) {
-			    this.CARDS.add(card);
-			}
-		    }
-		}
-		return Collections.unmodifiableList(this.CARDS);
-	    }
+	/** All cards of this deck ordered by color and type. */
+	private final List<Card> cards;
+	/** Card slots (position in {@link #cards}) by card ordinal. */
+	private final byte[] slots;
+	/** Cards of this deck by color. */
+	private final Map<Color, List<Card>> cardsByColor;
+	/** Cards of this deck by type. */
+	private final Map<Type, List<Card>> cardsByType;
+	/** Types used in this deck. */
+	private final Set<Type> types;
+	/** Colors used in this deck. */
+	private final Set<Color> colors;
 
-	    @Override
-	    public final int size() {
-		return 32;
-	    }
-
-	    @Override
-	    public final int numberOfColors() {
-		return this.colors().size();
-	    }
-
-	    @Override
-	    public final int numberOfTypes() {
-		return this.types().size();
-	    }
-
-	    @Override
-	    public Set<Type> types() {
-		return EnumSet.range(Type.SEVEN, Type.ACE);
-	    }
-
-	    @Override
-	    public Set<Color> colors() {
-		return EnumSet.range(Color.DIAMOND, Color.SPADE);
-	    }
-
-	    @Override
-	    public List<Card> getCardsByColor(final Color color) {
-		int offset = color.ordinal() * this.numberOfTypes();
-		return this.CARDS
-			.subList(offset, offset + this.numberOfTypes());
-	    }
+	/**
+	 * Constructor. Builds all card mappings for a deck containing all
+	 * colors with types ranging from <code>lowestType</code> to
+	 * <code>highestType</code>.
+	 * 
+	 * @param lowestType
+	 *            Lowest card type in this deck
+	 * @param highestType
+	 *            Highest card type in this deck
+	 */
+	private Deck(final Type lowestType, final Type highestType) {
+	    this.types =
+		    Collections.unmodifiableSet(EnumSet.range(lowestType,
+			    highestType));
+	    this.colors =
+		    Collections.unmodifiableSet(EnumSet.allOf(Color.class));
 
-	    @Override
-	    public List<Card> getCardsByType(final Type type) {
-		List<Card> cards = new ArrayList<Card>(this.numberOfColors());
-		for (Card card : this.CARDS) {
-		    if (card.getType().equals(type)) {
-			cards.add(card);
+	    final List<Card> deckCards = new ArrayList<Card>();
+	    final Map<Color, List<Card>> byColor =
+		    new EnumMap<Color, List<Card>>(Color.class);
+	    final Map<Type, List<Card>> byType =
+		    new EnumMap<Type, List<Card>>(Type.class);
+	    this.slots = new byte[Card.values().length];
+	    Arrays.fill(this.slots, (byte) -1);
+	    for (Card card : Card.values()) {
+		if (this.types.contains(card.getType())) {
+		    this.slots[card.ordinal()] = (byte) deckCards.size();
+		    deckCards.add(card);
+		    if (!byColor.containsKey(card.getColor())) {
+			byColor.put(card.getColor(), new ArrayList<Card>());
+		    }
+		    byColor.get(card.getColor()).add(card);
+		    if (!byType.containsKey(card.getType())) {
+			byType.put(card.getType(), new ArrayList<Card>());
 		    }
+		    byType.get(card.getType()).add(card);
 		}
-		return cards;
 	    }
-	};
+	    for (Map.Entry<Color, List<Card>> entry : byColor.entrySet()) {
+		entry.setValue(Collections.unmodifiableList(entry.getValue()));
+	    }
+	    for (Map.Entry<Type, List<Card>> entry : byType.entrySet()) {
+		entry.setValue(Collections.unmodifiableList(entry.getValue()));
+	    }
+	    this.cards = Collections.unmodifiableList(deckCards);
+	    this.cardsByColor = byColor;
+	    this.cardsByType = byType;
+	}
 
 	/**
 	 * Get all cards for a defined Deck.
 	 * 
 	 * @return List with all cards belonging to this Deck
 	 */
-	public abstract List<Card> getCards();
+	public List<Card> getCards() {
+	    return this.cards;
+	}
 
 	/**
 	 * Get the size (number of cards) of the Deck.
 	 * 
 	 * @return Number of cards in the Deck
 	 */
-	public abstract int size();
+	public int size() {
+	    return this.cards.size();
+	}
 
 	/**
 	 * Get the number of different card-Types contained in this Deck.
 	 * 
 	 * @return Number of different Types
 	 */
-	public abstract int numberOfTypes();
+	public int numberOfTypes() {
+	    return this.types.size();
+	}
 
 	/**
 	 * Get the number of different card-colors contained in this Deck.
 	 * 
 	 * @return Number of different Colors
 	 */
-	public abstract int numberOfColors();
+	public int numberOfColors() {
+	    return this.colors.size();
+	}
 
 	/**
 	 * Get the Colors used in this Deck.
 	 * 
 	 * @return All used Colors
 	 */
-	public abstract Set<Color> colors();
+	public Set<Color> colors() {
+	    return this.colors;
+	}
 
 	/**
 	 * Get the Types used in this Deck.
 	 * 
 	 * @return All used Types
 	 */
-	public abstract Set<Type> types();
+	public Set<Type> types() {
+	    return this.types;
+	}
 
 	/**
 	 * Get all Cards by a specified color.
@@ -249,15 +277,44 @@ public class CardDeck {
 	 *            The color the cards should have
 	 * @return Cards belonging to the given color
 	 */
-	public abstract List<Card> getCardsByColor(Color color);
+	public List<Card> getCardsByColor(final Color color) {
+	    return this.cardsByColor.get(color);
+	}
 
 	/**
-	 * Get all Cards by a specified color.
+	 * Get all Cards by a specified type.
 	 * 
 	 * @param type
-	 *            The color the cards should have
-	 * @return Cards belonging to the given color
+	 *            The type the cards should have
+	 * @return Cards belonging to the given type or null, if the type is not
+	 *         used in this deck
+	 */
+	public List<Card> getCardsByType(final Type type) {
+	    return this.cardsByType.get(type);
+	}
+
+	/**
+	 * Get the slot of a card. The slot is the position of the card in the
+	 * list returned by {@link #getCards()}.
+	 * 
+	 * @param card
+	 *            Card whose slot to get
+	 * @return Slot of the card or -1, if the card is not part of this deck
 	 */
-	public abstract List<Card> getCardsByType(Type type);
+	public int slotOf(final Card card) {
+	    return this.slots[card.ordinal()];
+	}
+
+	/**
+	 * Get the card stored at a slot.
+	 * 
+	 * @param slot
+	 *            Slot of the card
+	 * @return Card at the given slot
+	 * @see #slotOf(Card)
+	 */
+	public Card cardAt(final int slot) {
+	    return this.cards.get(slot);
+	}
     }
 }
@@ -1,72 +1,115 @@
 package cardGame.card;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
-import cardGame.util.Util;
+import cardGame.util.RandomSource;
 
+/**
+ * The stack of cards a dealer deals from. The stack is shuffled once when it
+ * gets filled. Dealing then simply walks through the shuffled cards, so each
+ * dealt card costs constant time regardless of how many cards are left.
+ */
 public class CardStack {
-    /**
-     * The cards array storing values associated with cards. Negative values
-     * (including zero) are reserved for internal flags.
-     */
+    /** Slots of the deck cards in dealing order. */
     private final byte[] cardStack;
     /** List of cards n this stack. */
     private final List<CardDeck.Card> deckCards;
-
-    /** Internal array flags. */
-    public static enum Flags {
-	/** An uninitialized field in the stack array. */
-	UNINITIALIZED,
-	/** Flag indicating a card is present in the stack. */
-	NO_CARD,
-	/** Flag indicating a card is not present in the stack. */
-	HAS_CARD;
-
-	/**
-	 * Get the id for a flag.
-	 * 
-	 * @return Flag-Id
-	 */
-	byte id() {
-	    return (byte) (this.ordinal() * -1);
-	}
-    }
+    /** Position of the next card to deal in {@link #cardStack}. */
+    private int position;
+    /** Source used for shuffling. */
+    private final RandomSource random;
 
     /**
-     * Constructor.
+     * Constructor. The stack is empty until {@link #full()} gets called.
      * 
      * @param deck
      *            The deck to use for this stack
+     * @param newRandom
+     *            Source used for shuffling
      */
-    public CardStack(final CardDeck.Deck deck) {
-	System.out.println("CardDeck-size: " + deck.size());
+    public CardStack(final CardDeck.Deck deck, final RandomSource newRandom) {
+	this.random = newRandom;
 	this.cardStack = new byte[deck.size()];
-	Arrays.fill(this.cardStack, Flags.UNINITIALIZED.id());
-	this.deckCards = Collections.unmodifiableList(deck.getCards());
+	this.deckCards = deck.getCards();
+	this.position = this.cardStack.length;
     }
 
-    /** Set all cards of this stack as being available. */
+    /** Set all cards of this stack as being available and shuffle them. */
     public final void full() {
-	Arrays.fill(this.cardStack, Flags.HAS_CARD.id());
+	for (int i = 0; i < this.cardStack.length; i++) {
+	    this.cardStack[i] = (byte) i;
+	}
+	this.shuffle();
+	this.position = 0;
+    }
+
+    /** Shuffle the cards using the Fisher-Yates algorithm. */
+    private void shuffle() {
+	byte swap;
+	for (int i = this.cardStack.length - 1; i > 0; i--) {
+	    final int j = this.random.nextInt(i + 1);
+	    swap = this.cardStack[i];
+	    this.cardStack[i] = this.cardStack[j];
+	    this.cardStack[j] = swap;
+	}
+    }
+
+    /**
+     * Get the number of cards left on the stack.
+     * 
+     * @return Number of cards left
+     */
+    public final int size() {
+	return this.cardStack.length - this.position;
+    }
+
+    /**
+     * Make sure enough cards are left on the stack.
+     * 
+     * @param amount
+     *            Number of cards needed
+     */
+    private void checkAvailable(final int amount) {
+	if (amount > this.size()) {
+	    throw new IllegalStateException(String.format(
+		    "Card stack exhausted. %d cards requested, %d left.",
+		    amount, this.size()));
+	}
     }
 
     /**
      * Get a random card from of the stack.
      * 
-     * @return A random {@link PlayerAICard}
+     * @return A random card
+     * @throws IllegalStateException
+     *             If no card is left on the stack
      */
     public final CardDeck.Card getRandomCard() {
-	// try to find a random card that's still on the stack
-	// TODO: make this aware of available cards to be more intelligent
-	while (true) {
-	    final int card = Util.getRandomInt(this.cardStack.length - 1);
-	    if (this.cardStack[card] == Flags.HAS_CARD.id()) {
-		// card is there .. take it
-		this.cardStack[card] = Flags.NO_CARD.id();
-		return this.deckCards.get(card);
+	this.checkAvailable(1);
+	return this.deckCards.get(this.cardStack[this.position++]);
+    }
+
+    /**
+     * Deal out cards for multiple players at once.
+     * 
+     * @param players
+     *            Number of hands to deal
+     * @param cardsEach
+     *            Number of cards per hand
+     * @return Cards for each hand
+     * @throws IllegalStateException
+     *             If there are not enough cards left on the stack
+     */
+    public final CardDeck.Card[][] dealHands(final int players,
+	    final int cardsEach) {
+	this.checkAvailable(players * cardsEach);
+	final CardDeck.Card[][] hands = new CardDeck.Card[players][cardsEach];
+	for (int player = 0; player < players; player++) {
+	    for (int card = 0; card < cardsEach; card++) {
+		hands[player][card] =
+			this.deckCards.get(this.cardStack[this.position++]);
 	    }
 	}
+	return hands;
     }
 }
@@ -1,5 +1,21 @@
 package cardGame.event;
 
+/**
+ * Events transported by the {@link EventBus}. Events are meant to be
+ * implemented by enums, which provide both methods of this interface.
+ */
 public interface CardGameEvent {
-    // intentionally left blank
+    /**
+     * Get the position of the event in it's enum.
+     * 
+     * @return Position of the event
+     */
+    int ordinal();
+
+    /**
+     * Get the enum class declaring the event.
+     * 
+     * @return Declaring enum class
+     */
+    Class<?> getDeclaringClass();
 }
@@ -1,24 +1,79 @@
 package cardGame.event;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * A basic event bus that allows receivers to register for defined events.
- * Removing of receivers is not implemented as it's simply currently not needed.
+ * Every subscription may be cancelled again. Receivers can also be removed by
+ * {@link #unregisterEventReceiver(EventReceiver)} or be registered weakly, so
+ * they don't need to be removed at all. {@link #clear()} detaches everything
+ * when the table owning the bus is disposed.<br/>
+ * 
+ * Each game table owns it's own bus, so games running on different tables
+ * don't see each others events. A bus is not thread-safe and should only be
+ * used by the thread running the game on it's table.<br/>
+ * 
+ * Events are dispatched by one {@link EventChannel} per event enum. Handlers
+ * should be subscribed to single events using
+ * {@link #subscribe(CardGameEvent, EventHandler)}.
  * 
  * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
  * 
  */
-public enum EventBus {
-    /** EventBus singleton instance. */
-    INSTANCE;
+public class EventBus {
+    /** Channels by event enum class. */
+    private final Map<Class<?>, EventChannel<?>> channels =
+	    new HashMap<Class<?>, EventChannel<?>>();
+
+    /**
+     * Get the channel dispatching the events of an event enum.
+     * 
+     * @param <E>
+     *            Event enum
+     * @param eventClass
+     *            Class of the event enum
+     * @return Channel for the events
+     */
+    @SuppressWarnings("unchecked")
+    public final <E extends CardGameEvent> EventChannel<E> channel(
+	    final Class<E> eventClass) {
+	EventChannel<E> channel =
+		(EventChannel<E>) this.channels.get(eventClass);
+	if (channel == null) {
+	    channel = new EventChannel<E>(eventClass);
+	    this.channels.put(eventClass, channel);
+	}
+	return channel;
+    }
+
+    /**
+     * Get the channel dispatching an event.
+     * 
+     * @param event
+     *            Event whose channel to get
+     * @return Channel for the event
+     */
+    @SuppressWarnings("unchecked")
+    private EventChannel<CardGameEvent> channelOf(final CardGameEvent event) {
+	return this.channel((Class<CardGameEvent>) event.getDeclaringClass());
+    }
 
-    /** Map storing the all receivers attached to specific events. */
-    private final Map<CardGameEvent, List<EventReceiver>> events =
-	    new HashMap<CardGameEvent, List<EventReceiver>>();
+    /**
+     * Subscribe a handler to a single event.
+     * 
+     * @param <T>
+     *            Type of the data associated with the event
+     * @param event
+     *            Event to handle
+     * @param handler
+     *            Handler for the event
+     * @return Subscription to cancel for removing the handler
+     */
+    public final <T> Subscription subscribe(final CardGameEvent event,
+	    final EventHandler<T> handler) {
+	return this.channelOf(event).add(event.ordinal(), handler);
+    }
 
     /**
      * Register an receiver for the specified events.
@@ -28,33 +83,82 @@ public enum EventBus {
      * @param registerEvents
      *            The events the receiver wants to handle
      */
-    public void registerEventReceiver(final EventReceiver receiver,
+    public final void registerEventReceiver(final EventReceiver receiver,
 	    final CardGameEvent... registerEvents) {
+	this.registerEventReceiver(receiver, false, registerEvents);
+    }
+
+    /**
+     * Register an receiver for the specified events, without keeping it from
+     * being garbage collected. Once the receiver is gone it's handlers are
+     * removed the next time one of the events gets fired.
+     * 
+     * @param receiver
+     *            Receiver handling the events
+     * @param registerEvents
+     *            The events the receiver wants to handle
+     */
+    public final void registerWeakEventReceiver(final EventReceiver receiver,
+	    final CardGameEvent... registerEvents) {
+	this.registerEventReceiver(receiver, true, registerEvents);
+    }
+
+    /**
+     * Register an receiver for the specified events.
+     * 
+     * @param receiver
+     *            Receiver handling the events
+     * @param weak
+     *            If true, the receiver is only weakly referenced
+     * @param registerEvents
+     *            The events the receiver wants to handle
+     */
+    private void registerEventReceiver(final EventReceiver receiver,
+	    final boolean weak, final CardGameEvent... registerEvents) {
 	for (CardGameEvent event : registerEvents) {
-	    if (this.events.containsKey(event)) {
-		this.events.get(event).add(receiver);
-	    } else {
-		List<EventReceiver> eventList = new ArrayList<EventReceiver>();
-		eventList.add(receiver);
-		this.events.put(event, eventList);
-	    }
+	    final ReceiverHandler handler =
+		    new ReceiverHandler(event, receiver, weak);
+	    handler.setSubscription(this.subscribe(event, handler));
+	}
+    }
+
+    /**
+     * Remove a receiver from all events it has been registered for.
+     * 
+     * @param receiver
+     *            Receiver to remove
+     */
+    public final void unregisterEventReceiver(final EventReceiver receiver) {
+	for (EventChannel<?> channel : this.channels.values()) {
+	    channel.removeReceiver(receiver);
+	}
+    }
+
+    /**
+     * Remove all handlers and receivers. Channels stay valid, so emitters may
+     * keep on firing events.
+     */
+    public final void clear() {
+	for (EventChannel<?> channel : this.channels.values()) {
+	    channel.clear();
 	}
     }
 
     /**
-     * Fire an event to all registered receivers.
+     * Fire an event to all registered receivers. Emitters firing events often
+     * should use the events {@link EventChannel} instead.
      * 
      * @param event
      *            Event to witch the receivers have registered
      * @param data
      *            Data associated with the event
      */
-    public void fireEvent(final CardGameEvent event, final Object data) {
+    public final void fireEvent(final CardGameEvent event, final Object data) {
+	final EventChannel<?> channel =
+		this.channels.get(event.getDeclaringClass());
 	// only try to call if anyone has registered for the event
-	if (this.events.containsKey(event)) {
-	    for (EventReceiver receiver : this.events.get(event)) {
-		receiver.handleEvent(event, data);
-	    }
+	if (channel != null) {
+	    channel.fire(event.ordinal(), data);
 	}
     }
 }
@@ -0,0 +1,168 @@
+package cardGame.event;
+
+import java.util.Arrays;
+
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+
+/**
+ * Dispatches the events declared by a single event enum. Handlers are stored
+ * in one array per event, indexed by the events ordinal. The arrays are only
+ * rebuilt when a handler subscribes or is removed, so firing an event is a
+ * plain array lookup followed by calling each handler.<br/>
+ * 
+ * Emitters should get their channel once from the {@link EventBus} and fire
+ * events directly through it. Handlers may be removed at any time, even while
+ * the event they are subscribed to is being fired.
+ * 
+ * @param <E>
+ *            Event enum dispatched by this channel
+ */
+public final class EventChannel<E extends CardGameEvent> {
+    /** Empty handler list. */
+    private static final EventHandler<?>[] NO_HANDLERS = new EventHandler<?>[0];
+    /** Number of handlers called per fired event. */
+    private static final Histogram FANOUT = MetricsRegistry.global()
+	    .histogram("event.fanout");
+    /** Handlers by event ordinal. */
+    private final EventHandler<?>[][] handlers;
+
+    /**
+     * Constructor.
+     * 
+     * @param eventClass
+     *            Enum class of the events dispatched by this channel
+     */
+    EventChannel(final Class<?> eventClass) {
+	this.handlers =
+		new EventHandler<?>[eventClass.getEnumConstants().length][];
+	Arrays.fill(this.handlers, NO_HANDLERS);
+    }
+
+    /**
+     * Subscribe a handler to an event.
+     * 
+     * @param event
+     *            Event to handle
+     * @param handler
+     *            Handler for the event
+     * @return Subscription to cancel for removing the handler
+     */
+    public Subscription subscribe(final E event,
+	    final EventHandler<?> handler) {
+	return this.add(event.ordinal(), handler);
+    }
+
+    /**
+     * Add a handler for the event with the given ordinal.
+     * 
+     * @param ordinal
+     *            Ordinal of the event
+     * @param handler
+     *            Handler for the event
+     * @return Subscription to cancel for removing the handler
+     */
+    Subscription add(final int ordinal, final EventHandler<?> handler) {
+	final EventHandler<?>[] current = this.handlers[ordinal];
+	final EventHandler<?>[] updated =
+		Arrays.copyOf(current, current.length + 1);
+	updated[current.length] = handler;
+	this.handlers[ordinal] = updated;
+	return new Subscription(this, ordinal, handler);
+    }
+
+    /**
+     * Remove a handler from the event with the given ordinal.
+     * 
+     * @param ordinal
+     *            Ordinal of the event
+     * @param handler
+     *            Handler to remove
+     */
+    void remove(final int ordinal, final EventHandler<?> handler) {
+	final EventHandler<?>[] current = this.handlers[ordinal];
+	for (int i = 0; i < current.length; i++) {
+	    if (current[i] == handler) {
+		if (current.length == 1) {
+		    this.handlers[ordinal] = NO_HANDLERS;
+		    return;
+		}
+		final EventHandler<?>[] updated =
+			new EventHandler<?>[current.length - 1];
+		System.arraycopy(current, 0, updated, 0, i);
+		System.arraycopy(current, i + 1, updated, i,
+			updated.length - i);
+		this.handlers[ordinal] = updated;
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Remove all handlers passing events on to the given receiver. Handlers
+     * of weakly referenced receivers that are gone will be removed as well.
+     * 
+     * @param receiver
+     *            Receiver whose handlers to remove
+     */
+    void removeReceiver(final EventReceiver receiver) {
+	for (int ordinal = 0; ordinal < this.handlers.length; ordinal++) {
+	    for (EventHandler<?> handler : this.handlers[ordinal]) {
+		if (handler instanceof ReceiverHandler) {
+		    final EventReceiver target =
+			    ((ReceiverHandler) handler).getReceiver();
+		    if ((target == null) || (target == receiver)) {
+			this.remove(ordinal, handler);
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Get the number of handlers subscribed to an event.
+     * 
+     * @param event
+     *            Event to check
+     * @return Number of subscribed handlers
+     */
+    public int numberOfHandlers(final E event) {
+	return this.handlers[event.ordinal()].length;
+    }
+
+    /** Remove all handlers. */
+    void clear() {
+	Arrays.fill(this.handlers, NO_HANDLERS);
+    }
+
+    /**
+     * Fire an event to all subscribed handlers.
+     * 
+     * @param event
+     *            Event to fire
+     * @param data
+     *            Data associated with the event
+     */
+    public void fire(final E event, final Object data) {
+	this.fire(event.ordinal(), data);
+    }
+
+    /**
+     * Fire the event with the given ordinal to all subscribed handlers.
+     * 
+     * @param ordinal
+     *            Ordinal of the event
+     * @param data
+     *            Data associated with the event
+     */
+    @SuppressWarnings("unchecked")
+    void fire(final int ordinal, final Object data) {
+	final EventHandler<?>[] eventHandlers = this.handlers[ordinal];
+	if (MetricsRegistry.isEnabled()) {
+	    FANOUT.record(eventHandlers.length);
+	}
+	for (EventHandler<?> handler : eventHandlers) {
+	    ((EventHandler<Object>) handler).handle(data);
+	}
+    }
+}
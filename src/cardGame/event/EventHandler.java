@@ -0,0 +1,19 @@
+package cardGame.event;
+
+/**
+ * Handler for a single event. Unlike an {@link EventReceiver}, a handler is
+ * subscribed to exactly one event, so it doesn't need to find out which event
+ * was fired.
+ * 
+ * @param <T>
+ *            Type of the data associated with the event
+ */
+public interface EventHandler<T> {
+    /**
+     * Handle the event.
+     * 
+     * @param data
+     *            Data associated with the event
+     */
+    void handle(final T data);
+}
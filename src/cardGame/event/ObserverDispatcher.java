@@ -0,0 +1,302 @@
+package cardGame.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers events to non-critical observers (logging, statistics, spectators)
+ * on a separate thread. Events are handed over through a bounded ring buffer
+ * allocated once on construction, so the game thread only pays for storing
+ * the event and it's data. What happens if the observers can't keep up is
+ * defined by the {@link BackPressure} policy.<br/>
+ * 
+ * Game-critical receivers must still subscribe to the {@link EventBus}
+ * directly, as observers see events delayed and must not change the game
+ * state. Event data is passed on as is, so it should be immutable.<br/>
+ * 
+ * The buffer may be fed by multiple tables running on different threads.
+ * Observers are always called from the single dispatcher thread.
+ */
+public final class ObserverDispatcher {
+    /** What to do if the ring buffer is full. */
+    public enum BackPressure {
+	/** Wait until the observers have caught up. */
+	BLOCK,
+	/** Drop the event. */
+	DROP,
+	/**
+	 * Deliver only every n-th event while the buffer is more than half
+	 * full, drop events if it's full.
+	 */
+	SAMPLE;
+    }
+
+    /** Time to sleep if there's nothing to do. */
+    private static final long IDLE_NANOS = 100000;
+    /** Ring buffer events. */
+    private final CardGameEvent[] events;
+    /** Ring buffer event data. */
+    private final Object[] data;
+    /**
+     * Sequence number of each buffer slot. A slot is free for writing position
+     * <code>p</code> if it's sequence is <code>p</code> and ready for reading
+     * if it's sequence is <code>p + 1</code>.
+     */
+    private final AtomicLongArray sequences;
+    /** Mask for mapping positions to slots. */
+    private final int mask;
+    /** Next position to write. */
+    private final AtomicLong head = new AtomicLong();
+    /** Next position to read. Only written by the dispatcher thread. */
+    private volatile long tail = 0;
+    /** Policy used if the buffer is full. */
+    private final BackPressure backPressure;
+    /** Only every n-th event is delivered when sampling. */
+    private final int sampleRate;
+    /** Counts events offered while sampling. */
+    private final AtomicLong sampleCounter = new AtomicLong();
+    /** Number of dropped events. */
+    private final AtomicLong dropped = new AtomicLong();
+    /** Observers by event. Copy on write. */
+    private volatile List<Observer> observers = new ArrayList<Observer>();
+    /** Thread delivering the events. */
+    private final Thread thread;
+    /** False, if the dispatcher should stop. */
+    private volatile boolean running = true;
+
+    /** An observer registered for some events. */
+    private static final class Observer {
+	/** The receiver to call. */
+	private final EventReceiver receiver;
+	/** Events the receiver wants. */
+	private final CardGameEvent[] wanted;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param newReceiver
+	 *            The receiver to call
+	 * @param newWanted
+	 *            Events the receiver wants
+	 */
+	Observer(final EventReceiver newReceiver,
+		final CardGameEvent[] newWanted) {
+	    this.receiver = newReceiver;
+	    this.wanted = newWanted.clone();
+	}
+
+	/**
+	 * Check if the observer wants an event.
+	 * 
+	 * @param event
+	 *            Event to check
+	 * @return True if the observer has registered for the event
+	 */
+	boolean wants(final CardGameEvent event) {
+	    for (CardGameEvent wantedEvent : this.wanted) {
+		if (wantedEvent == event) {
+		    return true;
+		}
+	    }
+	    return false;
+	}
+    }
+
+    /**
+     * Constructor. This will start the dispatcher thread.
+     * 
+     * @param capacity
+     *            Size of the ring buffer. Will be rounded up to a power of
+     *            two.
+     * @param newBackPressure
+     *            Policy used if the buffer is full
+     * @param newSampleRate
+     *            Only every n-th event is delivered when sampling. Ignored
+     *            for other policies.
+     */
+    public ObserverDispatcher(final int capacity,
+	    final BackPressure newBackPressure, final int newSampleRate) {
+	if ((capacity <= 0) || (newSampleRate <= 0)) {
+	    throw new IllegalArgumentException(
+		    "Capacity and sample rate must be positive.");
+	}
+	final int size = Integer.highestOneBit((capacity * 2) - 1);
+	this.events = new CardGameEvent[size];
+	this.data = new Object[size];
+	this.sequences = new AtomicLongArray(size);
+	for (int i = 0; i < size; i++) {
+	    this.sequences.set(i, i);
+	}
+	this.mask = size - 1;
+	this.backPressure = newBackPressure;
+	this.sampleRate = newSampleRate;
+	this.thread = new Thread(new Runnable() {
+	    @Override
+	    public void run() {
+		ObserverDispatcher.this.dispatch();
+	    }
+	}, "event-observers");
+	this.thread.setDaemon(true);
+	this.thread.start();
+    }
+
+    /**
+     * Add an observer. It will receive all given events published to this
+     * dispatcher.
+     * 
+     * @param receiver
+     *            Receiver to call on the dispatcher thread
+     * @param observedEvents
+     *            Events the receiver wants
+     */
+    public synchronized void addObserver(final EventReceiver receiver,
+	    final CardGameEvent... observedEvents) {
+	final List<Observer> updated = new ArrayList<Observer>(this.observers);
+	updated.add(new Observer(receiver, observedEvents));
+	this.observers = updated;
+    }
+
+    /**
+     * Feed events fired on a bus into this dispatcher.
+     * 
+     * @param eventBus
+     *            Bus to observe
+     * @param observedEvents
+     *            Events to pass on to the observers
+     * @return Subscriptions to cancel for detaching from the bus
+     */
+    public Subscription[] attach(final EventBus eventBus,
+	    final CardGameEvent... observedEvents) {
+	final Subscription[] subscriptions =
+		new Subscription[observedEvents.length];
+	for (int i = 0; i < observedEvents.length; i++) {
+	    final CardGameEvent event = observedEvents[i];
+	    subscriptions[i] =
+		    eventBus.subscribe(event, new EventHandler<Object>() {
+			@Override
+			public void handle(final Object eventData) {
+			    ObserverDispatcher.this.publish(event, eventData);
+			}
+		    });
+	}
+	return subscriptions;
+    }
+
+    /**
+     * Hand over an event to the observers.
+     * 
+     * @param event
+     *            Event fired
+     * @param eventData
+     *            Data associated with the event
+     * @return True, if the event was accepted, false if it was dropped
+     * @throws IllegalStateException
+     *             If blocked on a full buffer the dispatcher thread will
+     *             never drain, because it has died
+     */
+    public boolean publish(final CardGameEvent event, final Object eventData) {
+	if ((this.backPressure == BackPressure.SAMPLE)
+		&& (this.size() > (this.mask >> 1))
+		&& ((this.sampleCounter.incrementAndGet()
+			% this.sampleRate) != 0)) {
+	    this.dropped.incrementAndGet();
+	    return false;
+	}
+	while (true) {
+	    final long position = this.head.get();
+	    final int slot = (int) position & this.mask;
+	    final long sequence = this.sequences.get(slot);
+	    if (sequence == position) {
+		if (this.head.compareAndSet(position, position + 1)) {
+		    this.events[slot] = event;
+		    this.data[slot] = eventData;
+		    this.sequences.lazySet(slot, position + 1);
+		    return true;
+		}
+	    } else if (sequence < position) {
+		// buffer is full
+		if (this.backPressure != BackPressure.BLOCK) {
+		    this.dropped.incrementAndGet();
+		    return false;
+		}
+		if (!this.thread.isAlive()) {
+		    throw new IllegalStateException(
+			    "Dispatcher thread has died.");
+		}
+		LockSupport.parkNanos(IDLE_NANOS);
+	    }
+	    // else: another producer took the slot, try again
+	}
+    }
+
+    /**
+     * Get the number of events waiting for delivery.
+     * 
+     * @return Number of waiting events
+     */
+    public int size() {
+	return (int) (this.head.get() - this.tail);
+    }
+
+    /**
+     * Get the number of events dropped so far.
+     * 
+     * @return Number of dropped events
+     */
+    public long getDropped() {
+	return this.dropped.get();
+    }
+
+    /** Deliver events until stopped. Runs on the dispatcher thread. */
+    private void dispatch() {
+	while (this.running || (this.size() > 0)) {
+	    final long position = this.tail;
+	    final int slot = (int) position & this.mask;
+	    if (this.sequences.get(slot) != (position + 1)) {
+		LockSupport.parkNanos(IDLE_NANOS);
+		continue;
+	    }
+	    final CardGameEvent event = this.events[slot];
+	    final Object eventData = this.data[slot];
+	    this.events[slot] = null;
+	    this.data[slot] = null;
+	    this.sequences.lazySet(slot, position + this.mask + 1);
+	    this.tail = position + 1;
+	    for (Observer observer : this.observers) {
+		if (observer.wants(event)) {
+		    observer.receiver.handleEvent(event, eventData);
+		}
+	    }
+	}
+    }
+
+    /**
+     * Wait until all events published so far have been delivered.
+     * 
+     * @throws InterruptedException
+     *             If interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+	final long target = this.head.get();
+	while (this.tail < target) {
+	    if (!this.thread.isAlive()) {
+		throw new IllegalStateException("Dispatcher thread has died.");
+	    }
+	    Thread.sleep(1);
+	}
+    }
+
+    /**
+     * Deliver all remaining events and stop the dispatcher thread.
+     * 
+     * @throws InterruptedException
+     *             If interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+	this.running = false;
+	this.thread.join();
+    }
+}
@@ -0,0 +1,73 @@
+package cardGame.event;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Handler passing a single event on to an {@link EventReceiver}. The receiver
+ * may be referenced weakly. A weakly referenced receiver that has been garbage
+ * collected cancels it's subscription the next time the event gets fired.
+ */
+final class ReceiverHandler implements EventHandler<Object> {
+    /** Event passed on to the receiver. */
+    private final CardGameEvent event;
+    /** Strongly referenced receiver, null in weak mode. */
+    private final EventReceiver receiver;
+    /** Weakly referenced receiver, null in strong mode. */
+    private final WeakReference<EventReceiver> weakReceiver;
+    /** Subscription of this handler. */
+    private Subscription subscription;
+
+    /**
+     * Constructor.
+     * 
+     * @param newEvent
+     *            Event passed on to the receiver
+     * @param newReceiver
+     *            Receiver handling the event
+     * @param weak
+     *            If true, the receiver is only weakly referenced
+     */
+    ReceiverHandler(final CardGameEvent newEvent,
+	    final EventReceiver newReceiver, final boolean weak) {
+	this.event = newEvent;
+	if (weak) {
+	    this.receiver = null;
+	    this.weakReceiver = new WeakReference<EventReceiver>(newReceiver);
+	} else {
+	    this.receiver = newReceiver;
+	    this.weakReceiver = null;
+	}
+    }
+
+    /**
+     * Set the subscription of this handler. Needed to remove stale handlers.
+     * 
+     * @param newSubscription
+     *            Subscription of this handler
+     */
+    void setSubscription(final Subscription newSubscription) {
+	this.subscription = newSubscription;
+    }
+
+    /**
+     * Get the receiver.
+     * 
+     * @return The receiver or null, if it has been garbage collected
+     */
+    EventReceiver getReceiver() {
+	if (this.weakReceiver == null) {
+	    return this.receiver;
+	}
+	return this.weakReceiver.get();
+    }
+
+    @Override
+    public void handle(final Object data) {
+	final EventReceiver target = this.getReceiver();
+	if (target == null) {
+	    this.subscription.cancel();
+	} else {
+	    target.handleEvent(this.event, data);
+	}
+    }
+}
@@ -0,0 +1,39 @@
+package cardGame.event;
+
+/**
+ * Handle for a handler subscribed to a single event. Cancelling the
+ * subscription removes the handler from the channel it was subscribed to.
+ */
+public final class Subscription {
+    /** Channel the handler is subscribed to. */
+    private final EventChannel<?> channel;
+    /** Ordinal of the subscribed event. */
+    private final int ordinal;
+    /** The subscribed handler. */
+    private final EventHandler<?> handler;
+
+    /**
+     * Constructor.
+     * 
+     * @param newChannel
+     *            Channel the handler is subscribed to
+     * @param newOrdinal
+     *            Ordinal of the subscribed event
+     * @param newHandler
+     *            The subscribed handler
+     */
+    Subscription(final EventChannel<?> newChannel, final int newOrdinal,
+	    final EventHandler<?> newHandler) {
+	this.channel = newChannel;
+	this.ordinal = newOrdinal;
+	this.handler = newHandler;
+    }
+
+    /**
+     * Remove the handler from the channel. Cancelling a subscription more than
+     * once has no effect.
+     */
+    public void cancel() {
+	this.channel.remove(this.ordinal, this.handler);
+    }
+}
@@ -1,23 +1,44 @@
 package cardGame.games.swimming;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.Set;
 
+import cardGame.card.CardDeck;
 import cardGame.card.CardDeck.Card;
-import cardGame.event.CardGameEvent;
-import cardGame.event.EventBus;
-import cardGame.out.Debug;
+import cardGame.event.EventHandler;
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+import cardGame.out.Logger;
 import cardGame.player.GeneralCardPlayer;
-import cardGame.table.GeneralGameTable;
+import cardGame.player.CardPlayer;
 
 /**
- * Computer AI player.
+ * Computer AI player. The cards to swap only depend on the players hand and
+ * the cards on the table, so decisions may be shared between players through
+ * a {@link DecisionCache}. Closing the round also depends on the players
+ * biases and is checked for every decision.
  * 
  * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
  * 
  */
 class AIPlayer extends GeneralCardPlayer {
+    /** Logger for this class. */
+    private static final Logger LOG = Logger.get("ai");
+    /** Time needed for a decision. */
+    private static final Histogram DECISION_NANOS = MetricsRegistry
+	    .global().histogram("ai.decision.nanos");
+    /** Number of bits of a card slot in a packed decision or key. */
+    private static final int SLOT_BITS = 5;
+    /** Mask of a card slot in a packed decision or key. */
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    /** Bit position of the dropped card slot plus one in a decision. */
+    private static final int DECISION_DROP = SLOT_BITS;
+    /** Mask of the dropped card slot plus one in a decision. */
+    private static final int DECISION_DROP_MASK = (1 << (SLOT_BITS + 1)) - 1;
+    /** Set in a decision, if the hand reached a goal state. */
+    private static final int DECISION_GOAL = 1 << (2 * SLOT_BITS + 1);
     /** Store modified {@link Bias} settings. */
     private final float[] bias = new float[Bias.values().length];
     /** Players cards. */
@@ -28,22 +49,33 @@ class AIPlayer extends GeneralCardPlayer {
     private final CardStack cardsWanted = new CardStack();
     /** Cards seen by the player. */
     private final CardStack cardsSeen = new CardStack();
+    /** Estimated hands of the other players. */
+    private final HandInference inference = new HandInference();
+    /** True if the round was closed. */
+    private boolean roundClosed;
     /** Card rating functions. */
     private AIPlayerRating rating;
+    /** Decisions shared with other players, null if not caching. */
+    private DecisionCache decisionCache;
 
     /**
      * Player behavior bias. These are the possible biases to set with their
      * default values. Modifying these values is possible by using {@link
-     * setBias(Bias, int)} or {@link setBias(Map)}
+     * setBias(Bias, int)} or {@link setBias(Map)}. Values are hand values in
+     * the range 0-{@value CardStack#STACKVALUE_MAX}. Biases not set are
+     * disabled, the default values are only a starting point for tuning.
      */
     enum Bias {
-	/** TODO: document bias values. */
+	/**
+	 * Hands dealt to the starting player worth less are dropped in favor
+	 * of the hand on the table.
+	 */
 	STACKDROP_INITIAL(20),
-	/** */
+	/** Hands worth at least this much are kept by closing the round. */
 	STACKDROP(20),
-	/** */
+	/** TODO: document bias values. Not read by any decision yet. */
 	FORCE_DROP(20),
-	/** */
+	/** Not read by any decision yet. */
 	WAIT_FOR_CARD(21);
 
 	/** Current value for this {@link Bias} instance. */
@@ -67,6 +99,50 @@ class AIPlayer extends GeneralCardPlayer {
 	final float getValue() {
 	    return this.value;
 	}
+
+	/**
+	 * Parse a bias profile.
+	 * 
+	 * @param profile
+	 *            Comma separated <code>bias=value</code> list, e.g.
+	 *            <code>stackdrop=24.5,wait_for_card=18</code>
+	 * @return Map with the biases found in the profile
+	 */
+	static Map<Bias, Float> parse(final String profile) {
+	    final Map<Bias, Float> biasMap =
+		    new EnumMap<Bias, Float>(Bias.class);
+	    for (String part : profile.split(",")) {
+		if (part.isEmpty()) {
+		    continue;
+		}
+		final String[] entry = part.split("=");
+		if (entry.length != 2) {
+		    throw new IllegalArgumentException("Invalid bias: " + part);
+		}
+		biasMap.put(Bias.valueOf(entry[0].trim().toUpperCase()),
+			Float.parseFloat(entry[1].trim()));
+	    }
+	    return biasMap;
+	}
+
+	/**
+	 * Format a bias profile to be read by {@link #parse(String)}.
+	 * 
+	 * @param biasMap
+	 *            Map with Bias as key and a Float as value
+	 * @return Comma separated <code>bias=value</code> list
+	 */
+	static String format(final Map<Bias, Float> biasMap) {
+	    final StringBuilder profile = new StringBuilder();
+	    for (Map.Entry<Bias, Float> entry : biasMap.entrySet()) {
+		if (profile.length() > 0) {
+		    profile.append(',');
+		}
+		profile.append(entry.getKey().name().toLowerCase())
+			.append('=').append(entry.getValue());
+	    }
+	    return profile.toString();
+	}
     }
 
     /** Empty Constructor. */
@@ -104,7 +180,7 @@ class AIPlayer extends GeneralCardPlayer {
      * 
      * @param biasMap
      *            Map with Bias as key and a Float as value. The float must be
-     *            in the range 0-1.
+     *            in the range 0-{@value CardStack#STACKVALUE_MAX}.
      */
     final void setBias(final Map<Bias, Float> biasMap) {
 	for (Bias biasName : biasMap.keySet()) {
@@ -123,75 +199,155 @@ class AIPlayer extends GeneralCardPlayer {
     final void setBiasValue(final Bias biasName, final float value) {
 	if ((value < 0) || (value > CardStack.STACKVALUE_MAX)) {
 	    throw new IllegalArgumentException(String.format(
-		    "Bias value %f not in the range 0-1.", value));
+		    "Bias value %f not in the range 0-%d.", value,
+		    CardStack.STACKVALUE_MAX));
 	}
 	this.bias[biasName.ordinal()] = value;
     }
 
-    /** Register to events listening to. */
-    private void initialize() {
-	// TODO: reduce event listeners
-	EventBus.INSTANCE.registerEventReceiver(this, GameLogic.Event.values());
-	EventBus.INSTANCE.registerEventReceiver(this, Table.Event.values());
-	// pass on the shared objects to the rating class
-	this.rating =
-		new AIPlayerRating(this.cardStack, this.cardsWanted,
-			this.cardsTable, this.cardsSeen);
+    /**
+     * Check, if a bias was set. Decisions ignore biases not set.
+     * 
+     * @param biasName
+     *            The bias to check
+     * @return True if the bias was set
+     */
+    final boolean isBiasSet(final Bias biasName) {
+	return this.bias[biasName.ordinal()] != -1;
     }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public final void handleEvent(final CardGameEvent event, final Object data) {
-	Class<? extends CardGameEvent> eventClass = event.getClass();
-	// Table event
-	if (eventClass.equals(GeneralGameTable.Event.class)) {
-	    switch ((GeneralGameTable.Event) event) {
-	    case CLOSED:
-		break;
-	    default:
-		break;
-	    }
+    /**
+     * Share decisions with other players.
+     * 
+     * @param cache
+     *            Cache to use, null to always decide on it's own
+     */
+    final void setDecisionCache(final DecisionCache cache) {
+	this.decisionCache = cache;
+    }
+
+    /**
+     * Get the key of a decision. The slots of the three hand and table cards
+     * are packed in ascending order, followed by the availability ratings of
+     * the table cards, so the key fits into 39 bits.
+     * 
+     * @param hand
+     *            Card bitmask of the players cards
+     * @param table
+     *            Card bitmask of the cards on the table
+     * @param availability
+     *            Result of {@link AIPlayerRating#rateTableAvailability()}
+     * @return Key for the {@link DecisionCache}
+     */
+    static long decisionKey(final int hand, final int table,
+	    final int availability) {
+	long key = 0;
+	for (int rest = hand; rest != 0; rest &= rest - 1) {
+	    key = (key << SLOT_BITS) | Integer.numberOfTrailingZeros(rest);
+	}
+	for (int rest = table; rest != 0; rest &= rest - 1) {
+	    key = (key << SLOT_BITS) | Integer.numberOfTrailingZeros(rest);
 	}
-	if (eventClass.equals(Table.Event.class)) {
-	    switch ((Table.Event) event) {
-	    case CARDS:
+	return (key << (HandEvaluator.HAND_SIZE
+		* AIPlayerRating.AVAILABILITY_BITS))
+		| availability;
+    }
+
+    @Override
+    protected final void registerEvents() {
+	super.registerEvents();
+	this.subscribe(Table.Event.CARDS, new EventHandler<Collection<Card>>() {
+	    @Override
+	    public void handle(final Collection<Card> cards) {
 		// Initial cards on the table. This means also a new game has
 		// begun.
-		this.cardsTable.setCards((Set<Card>) data);
-		this.cardsSeen.setCards((Set<Card>) data);
-		break;
-	    case CARD_DROP:
-		this.cardsTable.addCard((Card) data);
-		this.cardsSeen.addCard((Card) data);
-		break;
-	    case CARD_PICK:
-		this.cardsTable.removeCard((Card) data);
-		break;
-	    default:
-		break;
+		AIPlayer.this.cardsTable.setCards(cards);
+		AIPlayer.this.cardsSeen.setCards(cards);
+		AIPlayer.this.roundClosed = false;
+		AIPlayer.this.resetInference();
 	    }
-	} else if (eventClass.equals(GameLogic.Event.class)) {
-	    switch ((GameLogic.Event) event) {
-	    case NEXTPLAYER:
-		if (data.equals(this)) {
-		    this.play();
-		}
-		break;
-	    default:
-		break;
+	});
+	this.subscribe(Table.Event.CARD_DROP, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		AIPlayer.this.cardsTable.addCard(card);
+		AIPlayer.this.cardsSeen.addCard(card);
+		AIPlayer.this.inference.drop(
+			((Table) AIPlayer.this.table).currentSeat(), card);
+	    }
+	});
+	this.subscribe(Table.Event.CARD_PICK, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		AIPlayer.this.cardsTable.removeCard(card);
+		AIPlayer.this.inference.pick(
+			((Table) AIPlayer.this.table).currentSeat(), card);
+	    }
+	});
+	this.subscribe(Table.Event.CLOSE_CALL, new EventHandler<CardPlayer>() {
+	    @Override
+	    public void handle(final CardPlayer player) {
+		AIPlayer.this.roundClosed = true;
 	    }
+	});
+	this.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			if (player != AIPlayer.this) {
+			    return;
+			}
+			if (MetricsRegistry.isEnabled()) {
+			    final long start = System.nanoTime();
+			    AIPlayer.this.play();
+			    DECISION_NANOS.recordSince(start);
+			} else {
+			    AIPlayer.this.play();
+			}
+		    }
+		});
+    }
+
+    /** Setup the rating functions. */
+    private void initialize() {
+	// no bias is modified yet
+	Arrays.fill(this.bias, -1);
+	// pass on the shared objects to the rating class
+	this.rating =
+		new AIPlayerRating(this.cardStack, this.cardsWanted,
+			this.cardsTable, this.cardsSeen, this.inference);
+    }
+
+    /**
+     * Start estimating the other players hands. Cards and table cards are
+     * passed in in no fixed order when a game starts, so this is called after
+     * each of them.
+     */
+    private void resetInference() {
+	if (this.table == null) {
+	    return;
 	}
+	this.inference.reset(this.table.numberOfPlayers(),
+		((Table) this.table).seat(this), this.cardStack.getCardMask(),
+		this.cardsTable.getCardMask());
     }
 
     @Override
     public final boolean setCards(final Collection<Card> newCards) {
 	// TODO: only accept cards prior to first round, otherwise throw an
 	// exception
-	this.cardStack.resetCardValues();
 	this.cardStack.setCards(newCards);
-	Debug.printfn(Debug.Level.TALK, "<%s> Received cards:\n%s", this,
-		this.cardStack.dump());
-	return true;
+	this.rating.calculateWantedCards();
+	this.resetInference();
+	if (LOG.isEnabled(Logger.Level.TALK)) {
+	    LOG.log(Logger.Level.TALK, "<%s> Received cards:\n%s", this,
+		    this.cardStack.dump());
+	}
+	// only the starting player may drop his cards, others keep them anyway
+	final float handValue =
+		HandEvaluator.handValue(this.cardStack.getCardMask());
+	return !this.isBiasSet(Bias.STACKDROP_INITIAL)
+		|| (handValue >= this.getBiasValue(Bias.STACKDROP_INITIAL));
     }
 
     @Override
@@ -201,84 +357,169 @@ class AIPlayer extends GeneralCardPlayer {
 	return null;
     }
 
-    /** Game interaction function. */
-    private void play() {
+    /**
+     * Restore the view of this player to a recorded state, e.g. for replaying
+     * a game. The player needs not to be seated at a table.
+     * 
+     * @param handMask
+     *            Card bitmask of the players cards
+     * @param tableMask
+     *            Card bitmask of the cards on the table
+     * @param seenMask
+     *            Card bitmask of all cards seen on the table so far
+     */
+    final void restore(final int handMask, final int tableMask,
+	    final int seenMask) {
+	this.cardStack.setCardMask(handMask);
+	this.cardsTable.setCardMask(tableMask);
+	this.cardsSeen.setCardMask(seenMask);
+	this.rating.calculateWantedCards();
+	// nothing is known about the other players, they are not tracked
+	this.inference.reset(0, -1, handMask, tableMask);
+    }
+
+    /**
+     * Dump the current view of this player as text-tables.
+     * 
+     * @return Players cards, table cards and wanted cards as text-tables
+     */
+    final StringBuffer dumpView() {
+	final StringBuffer dump = new StringBuffer();
+	dump.append("Cards: ").append(this.cardStack).append('\n');
+	dump.append(this.cardStack.dump()).append('\n');
+	dump.append("Table: ").append(this.cardsTable).append('\n');
+	dump.append(this.cardsTable.dump()).append('\n');
+	dump.append("Wanted:\n").append(this.cardsWanted.dump());
+	return dump;
+    }
+
+    /**
+     * Decide which cards to swap.
+     * 
+     * @param availability
+     *            Result of {@link AIPlayerRating#rateTableAvailability()}
+     * @return Decision packed as slot of the card to pick, slot of the card
+     *         to drop plus one (zero if none) and {@link #DECISION_GOAL}
+     */
+    private int decide(final int availability) {
 	Card cardToPick = null;
-	Card cardToDrop = null;
-	Object[] goalDistance = this.rating.goalDistance();
-	Debug.printfn(Debug.Level.INFO, "<%s> My Cards: %s", this,
-		this.cardStack);
+	final int goal = this.rating.goalDistance();
+	final CardDeck.Color goalColor = AIPlayerRating.goalColor(goal);
+	final CardDeck.Type goalType = AIPlayerRating.goalType(goal);
+	final int tableMask = this.cardsTable.getCardMask();
+	// cards leading to a goal state, zero if there is no such goal
+	int goalColorCards = 0;
+	int goalTypeCards = 0;
+	if (goalColor != null) {
+	    goalColorCards = CardStack.colorMask(goalColor);
+	}
+	if (goalType != null) {
+	    goalTypeCards = CardStack.typeMask(goalType);
+	}
 
-	Debug.printfn(Debug.Level.TALK, "<%s> May table view:\n%s", this,
-		this.cardsTable.dump());
+	if (LOG.isEnabled(Logger.Level.TALK)) {
+	    LOG.log(Logger.Level.TALK, "<%s> May table view:\n%s", this,
+		    this.cardsTable.dump());
+	}
 
 	// now "intelligently" decide on cards
-	if ((goalDistance[0] != null) || (goalDistance[2] != null)) {
-	    // can we get three of a type?
-	    if (goalDistance[2] != null) {
-		for (Card card : this.cardsTable.getCards()) {
-		    if (card.getType().equals(goalDistance[2])) {
-			cardToPick = card;
-			// no matter witch card it is . the points are fixed
-			break;
-		    }
-		}
-	    }
-	    // can we get three of a color?
-	    if ((goalDistance[0] != null) && (cardToPick == null)) {
-		for (Card card : this.cardsTable.getCards()) {
-		    if (card.getColor().equals(goalDistance[0])) {
-			// check all cards to find the highest
-			if ((cardToPick == null)
-				|| (Table.getCardValue(cardToPick) < Table
-					.getCardValue(card))) {
-			    cardToPick = card;
-			}
-		    }
+	// can we get three of a type?
+	if ((tableMask & goalTypeCards) != 0) {
+	    // no matter witch card it is . the points are fixed
+	    cardToPick =
+		    CardStack.card(Integer.numberOfTrailingZeros(tableMask
+			    & goalTypeCards));
+	}
+	// can we get three of a color?
+	if (cardToPick == null) {
+	    // check all cards to find the highest
+	    for (int mask = tableMask & goalColorCards; mask != 0; mask &=
+		    mask - 1) {
+		final Card card =
+			CardStack.card(Integer.numberOfTrailingZeros(mask));
+		if ((cardToPick == null)
+			|| (Table.getCardValue(cardToPick) < Table
+				.getCardValue(card))) {
+		    cardToPick = card;
 		}
 	    }
 	}
+	if (cardToPick == null) {
+	    cardToPick = this.rating.suggestRandomPick(availability);
+	    LOG.log(Logger.Level.INFO, "<%s> Random pick suggestion: %s",
+		    this, cardToPick);
+	}
+	int decision = CardStack.slot(cardToPick);
 
-	// if we are in goal state: simply close the round
-	if (((goalDistance[0] != null) && ((Integer) goalDistance[1] == 0))
-		|| ((goalDistance[2] != null) && ((Integer) goalDistance[3] == 0))) {
-	    this.table.addInteraction(this, Table.Action.CLOSE, null);
-	    this.table.addInteraction(this, Table.Action.FINISHED, null);
-	    if (this.table.commitInteraction(this) == null) {
-		System.out.println("I shouldn't be here!");
-		return;
-	    }
+	// TODO: simple drop
+	final int dropCards =
+		this.cardStack.getCardMask() & ~goalTypeCards & ~goalColorCards;
+	if (dropCards != 0) {
+	    final int dropSlot = Integer.numberOfTrailingZeros(dropCards);
+	    decision |= (dropSlot + 1) << DECISION_DROP;
 	}
 
-	if (cardToPick != null) {
-	    Debug.printfn(Debug.Level.INFO, "<%s> Pick suggestion: %s", this,
-		    cardToPick);
-	    this.table.addInteraction(this, Table.Action.CARD_PICK, cardToPick);
-	} else {
-	    cardToPick = this.rating.suggestRandomPick();
-	    Debug.printfn(Debug.Level.INFO, "<%s> Random pick suggestion: %s",
-		    this, cardToPick);
-	    this.table.addInteraction(this, Table.Action.CARD_PICK, cardToPick);
+	if (((goalColor != null) && (AIPlayerRating.goalColorSteps(goal) == 0))
+		|| ((goalType != null) && (AIPlayerRating
+			.goalTypeSteps(goal) == 0))) {
+	    decision |= DECISION_GOAL;
 	}
+	return decision;
+    }
 
-	// TODO: simple drop
-	for (Card card : this.cardStack.getCards()) {
-	    if ((!card.getType().equals(goalDistance[2]))
-		    && (!card.getColor().equals(goalDistance[0]))) {
-		cardToDrop = card;
-		break;
+    /** Game interaction function. */
+    private void play() {
+	LOG.log(Logger.Level.INFO, "<%s> My Cards: %s", this,
+		this.cardStack);
+	// the estimated hands only enter decisions through this rating
+	final int availability = this.rating.rateTableAvailability();
+	int decision = DecisionCache.MISSING;
+	long key = 0;
+	if (this.decisionCache != null) {
+	    key =
+		    decisionKey(this.cardStack.getCardMask(),
+			    this.cardsTable.getCardMask(), availability);
+	    decision = this.decisionCache.get(key);
+	}
+	if (decision == DecisionCache.MISSING) {
+	    decision = this.decide(availability);
+	    if (this.decisionCache != null) {
+		this.decisionCache.put(key, decision);
+	    }
+	}
+
+	// if we are in goal state or good enough: simply close the round
+	// the round may only be closed once, closing ends the turn
+	if (!this.roundClosed
+		&& (((decision & DECISION_GOAL) != 0) || (this
+			.isBiasSet(Bias.STACKDROP) && (HandEvaluator
+			.handValue(this.cardStack.getCardMask()) >= this
+			.getBiasValue(Bias.STACKDROP))))) {
+	    this.table.addInteraction(this, Table.Action.CLOSE, null);
+	    if (this.table.commitInteraction(this) != null) {
+		LOG.log(Logger.Level.SYS, "<%s> I shouldn't be here!", this);
 	    }
+	    return;
 	}
-	if (cardToDrop != null) {
-	    Debug.printfn(Debug.Level.INFO, "<%s> Drop suggestion: %s", this,
+
+	final Card cardToPick = CardStack.card(decision & SLOT_MASK);
+	LOG.log(Logger.Level.INFO, "<%s> Pick suggestion: %s", this,
+		cardToPick);
+	this.table.addInteraction(this, Table.Action.CARD_PICK, cardToPick);
+
+	Card cardToDrop = null;
+	final int drop = (decision >>> DECISION_DROP) & DECISION_DROP_MASK;
+	if (drop != 0) {
+	    cardToDrop = CardStack.card(drop - 1);
+	    LOG.log(Logger.Level.INFO, "<%s> Drop suggestion: %s", this,
 		    cardToDrop);
 	    this.table.addInteraction(this, Table.Action.CARD_DROP, cardToDrop);
 	}
 
 	if (this.table.commitInteraction(this) == null) {
 	    // pick & drop successful, save new cards
-	    this.cardStack.removeCard(cardToDrop);
-	    this.cardStack.addCard(cardToPick);
+	    this.rating.removePlayerCard(cardToDrop);
+	    this.rating.addPlayerCard(cardToPick);
 	}
     }
 }
@@ -1,5 +1,7 @@
 package cardGame.games.swimming;
 
+import java.util.Arrays;
+
 import cardGame.card.CardDeck;
 import cardGame.util.Util;
 
@@ -20,6 +22,12 @@ public class AIPlayerRating {
     private final CardStack tableCards;
     /** Cards seen by the player (card dropped to the table). */
     private final CardStack seenCards;
+    /** Estimated hands of the other players. */
+    private final HandInference inference;
+    /** Number of owned cards by {@link CardDeck.Color#ordinal()}. */
+    private final int[] colorCounts = new int[CardDeck.Color.values().length];
+    /** Number of owned cards by {@link CardDeck.Type#ordinal()}. */
+    private final int[] typeCounts = new int[CardDeck.Type.values().length];
 
     /** Maximum value a card rating by type may reach. */
     // TODO: set real values
@@ -29,8 +37,23 @@ public class AIPlayerRating {
     /** How many cards of a type/color are needed. */
     private static final byte RULE_CARDS_TO_WIN = 3;
 
+    /** All colors by {@link CardDeck.Color#ordinal()}. */
+    private static final CardDeck.Color[] COLORS = CardDeck.Color.values();
+    /** All types by {@link CardDeck.Type#ordinal()}. */
+    private static final CardDeck.Type[] TYPES = CardDeck.Type.values();
+    /** Bits used by each field of a packed goal. */
+    private static final int GOAL_FIELD_BITS = 8;
+    /** Mask of a field of a packed goal. */
+    private static final int GOAL_FIELD_MASK = (1 << GOAL_FIELD_BITS) - 1;
+
     // TODO: this is ugly!
     public static final int AVAILABILITY_UNSEEN = -5;
+    /** Bits of a quantized availability rating of a table card. */
+    static final int AVAILABILITY_BITS = 3;
+    /** Highest quantized availability rating. */
+    static final int AVAILABILITY_MAX = (1 << AVAILABILITY_BITS) - 1;
+    /** Highest value of a single rating, as scaled by {@link Util}. */
+    private static final float RATING_MAX = Util.normalize(1, 1);
 
     /** Multiple ratings result storage. */
     private final Rating ratingStore = new Rating();
@@ -50,15 +73,18 @@ public class AIPlayerRating {
      *            The cards currently available on the table
      * @param seenCardStack
      *            Cards seen by the player
+     * @param handInference
+     *            Estimated hands of the other players
      */
     AIPlayerRating(final CardStack playerCardStack,
 	    final CardStack wantedCardStack, final CardStack tableCardStack,
-	    final CardStack seenCardStack) {
+	    final CardStack seenCardStack, final HandInference handInference) {
 	// shared objects
 	this.playerWantedCards = wantedCardStack;
 	this.playerCards = playerCardStack;
 	this.tableCards = tableCardStack;
 	this.seenCards = seenCardStack;
+	this.inference = handInference;
     }
 
     /** Helper class to record multiple ratings in one place. */
@@ -107,7 +133,9 @@ public class AIPlayerRating {
     /**
      * Rate a <code>Card</code> by it's probability to be in the game. This
      * means, if we have seen a card dropped on the table there's a possibility
-     * to get this single card to complete our stack.
+     * to get this single card to complete our stack. Cards not on the table
+     * are rated by the chance of another player holding them, who may drop
+     * them later. Cards not dealt will never show up.
      * 
      * @param cardToRate
      *            Card to rate
@@ -115,14 +143,47 @@ public class AIPlayerRating {
      */
     public final AIPlayerRating rateCardAvailability(
 	    final CardDeck.Card cardToRate) {
-	// Bounds are the unavailable card and the available. Legal values in
-	// between may be assigned by the player.
-	this.ratingStore.add(CardStack.CARD_UNAVAILABLE,
-		Table.getCardValue(CardDeck.Card.CLUB_ACE),
-		CardStack.CARD_AVAILABLE);
+	float availability = 1;
+	if (!this.tableCards.containsCard(cardToRate)) {
+	    availability = 1 - this.inference.free(cardToRate);
+	}
+	this.ratingStore.add(0, 1, availability);
 	return this;
     }
 
+    /**
+     * Rate each card on the table by the availability of the other cards of
+     * it's color, which are needed to collect that color. The ratings are
+     * quantized, so they may be part of a decision key.
+     * 
+     * @return Ratings from 0 to {@value #AVAILABILITY_MAX}, packed by
+     *         {@value #AVAILABILITY_BITS} bits per table card in ascending
+     *         slot order
+     */
+    final int rateTableAvailability() {
+	int ratings = 0;
+	int shift = 0;
+	for (int mask = this.tableCards.getCardMask(); mask != 0; mask &=
+		mask - 1) {
+	    final CardDeck.Card card =
+		    CardStack.card(Integer.numberOfTrailingZeros(mask));
+	    this.ratingStore.clear();
+	    for (int others =
+		    CardStack.colorMask(card.getColor())
+			    & ~this.playerCards.getCardMask()
+			    & ~CardStack.bit(card); others != 0; others &=
+		    others - 1) {
+		this.rateCardAvailability(CardStack.card(Integer
+			.numberOfTrailingZeros(others)));
+	    }
+	    ratings |=
+		    Math.round((this.ratingStore.avg() * AVAILABILITY_MAX)
+			    / RATING_MAX) << shift;
+	    shift += AVAILABILITY_BITS;
+	}
+	return ratings;
+    }
+
     /**
      * Update a rating array for all currently not-owned cards. This may be
      * helpful to decide, witch card to pick from the table. This will reset the
@@ -130,52 +191,86 @@ public class AIPlayerRating {
      * 
      * This will rate all cards based on the ones owned by the player,
      * regardless of the ones currently available on the table. It's meant as
-     * starting point for subsequent ratings.
+     * starting point for subsequent ratings. Afterwards changes of the players
+     * cards should be passed in by {@link #addPlayerCard(CardDeck.Card)} and
+     * {@link #removePlayerCard(CardDeck.Card)}, which only update the ratings
+     * affected.
      */
     public final void calculateWantedCards() {
-	CardDeck.Color cardColor;
-	CardDeck.Type cardType;
-	int cardColorCount;
-	int cardTypeCount;
+	final int ownedCards = this.playerCards.getCardMask();
+	int affectedCards = 0;
 
 	// remove previous value assignments
 	this.playerWantedCards.resetCardValues();
+	Arrays.fill(this.colorCounts, 0);
+	Arrays.fill(this.typeCounts, 0);
 
-	// go through all cards passed in as array
-	for (CardDeck.Card ownedCard : this.playerCards.getCards()) {
-	    // check color
-	    cardColor = ownedCard.getColor();
-	    cardColorCount = 0;
-	    // count color occurrence of these cards
-	    for (CardDeck.Card cardToCheck : this.playerCards.getCards()) {
-		if (cardToCheck.getColor().equals(cardColor)) {
-		    cardColorCount++;
-		}
-	    }
-	    // do we have redundant colors?
-	    for (CardDeck.Card colorCard : CardDeck.Deck.SKAT
-		    .getCardsByColor(cardColor)) {
-		// up-rate cards of the color we have just found
-		// TODO: make rating changeable
-		this.playerWantedCards
-			.addToCardValue(colorCard,
-				(byte) (cardColorCount * Table
-					.getCardValue(colorCard)));
-	    }
-	    cardType = ownedCard.getType();
-	    cardTypeCount = 0;
-	    for (CardDeck.Card cardToCheck : this.playerCards.getCards()) {
-		if (cardToCheck.getType().equals(cardType)) {
-		    cardTypeCount++;
-		}
-	    }
-	    // do we have redundant types?
-	    for (CardDeck.Card typeCard : CardDeck.Deck.SKAT
-		    .getCardsByType(cardType)) {
-		// up-rate cards of the type we have just found
-		// TODO: make rating changeable
-		this.playerWantedCards.addToCardValue(typeCard,
-			(byte) (cardTypeCount * Table.getCardValue(typeCard)));
+	// count colors and types of all cards owned by the player
+	for (int mask = ownedCards; mask != 0; mask &= mask - 1) {
+	    final CardDeck.Card ownedCard =
+		    CardStack.card(Integer.numberOfTrailingZeros(mask));
+	    this.colorCounts[ownedCard.getColor().ordinal()]++;
+	    this.typeCounts[ownedCard.getType().ordinal()]++;
+	    affectedCards |=
+		    CardStack.colorMask(ownedCard.getColor())
+			    | CardStack.typeMask(ownedCard.getType());
+	}
+	this.rateWantedCards(affectedCards);
+    }
+
+    /**
+     * Add a card to the players cards and update the wanted cards of the same
+     * color and type.
+     * 
+     * @param card
+     *            Card the player got
+     */
+    public final void addPlayerCard(final CardDeck.Card card) {
+	this.playerCards.addCard(card);
+	this.colorCounts[card.getColor().ordinal()]++;
+	this.typeCounts[card.getType().ordinal()]++;
+	this.rateWantedCards(CardStack.colorMask(card.getColor())
+		| CardStack.typeMask(card.getType()));
+    }
+
+    /**
+     * Remove a card from the players cards and update the wanted cards of the
+     * same color and type.
+     * 
+     * @param card
+     *            Card the player gave away
+     */
+    public final void removePlayerCard(final CardDeck.Card card) {
+	this.playerCards.removeCard(card);
+	this.colorCounts[card.getColor().ordinal()]--;
+	this.typeCounts[card.getType().ordinal()]--;
+	this.rateWantedCards(CardStack.colorMask(card.getColor())
+		| CardStack.typeMask(card.getType()));
+    }
+
+    /**
+     * Rate the given cards by the players cards of the same color and type.
+     * Every owned card up-rates all cards sharing it's color by the number of
+     * owned cards with that color, types are handled the same way. Cards
+     * sharing nothing with the players cards are not wanted at all.
+     * 
+     * @param cards
+     *            Card bitmask of the cards to rate
+     */
+    private void rateWantedCards(final int cards) {
+	for (int mask = cards; mask != 0; mask &= mask - 1) {
+	    // TODO: make rating changeable
+	    final CardDeck.Card card =
+		    CardStack.card(Integer.numberOfTrailingZeros(mask));
+	    final int colorCount = this.colorCounts[card.getColor().ordinal()];
+	    final int typeCount = this.typeCounts[card.getType().ordinal()];
+	    final int weight =
+		    (colorCount * colorCount) + (typeCount * typeCount);
+	    if (weight == 0) {
+		this.playerWantedCards.removeCard(card);
+	    } else {
+		this.playerWantedCards.setCardValue(card,
+			weight * Table.getCardValue(card));
 	    }
 	}
     }
@@ -186,83 +281,100 @@ public class AIPlayerRating {
      * 
      * @param color
      *            Color witch will lead to a goal state
-     * @return Array with minimum- and maximum-value
+     * @return Minimum- and maximum-value packed into an int, use
+     *         {@link #goalMinValue(int)} and {@link #goalMaxValue(int)} to
+     *         unpack
      */
-    public final byte[] goalValue(final CardDeck.Color color) {
-	byte[] goalValue = new byte[2];
+    public final int goalValue(final CardDeck.Color color) {
+	int minValue = 0;
+	final int colorMask = CardStack.colorMask(color);
+	final int ownedCards = this.playerCards.getCardMask() & colorMask;
+	final int missingCards = colorMask & ~ownedCards;
 	// gather current owned cards by color and calculate their current value
-	for (CardDeck.Card card : this.playerCards.getCards()) {
-	    if (card.getColor().equals(color)) {
-		goalValue[0] += (byte) Table.getCardValue(card);
-	    }
+	for (int mask = ownedCards; mask != 0; mask &= mask - 1) {
+	    minValue +=
+		    Table.getCardValue(CardStack.card(Integer
+			    .numberOfTrailingZeros(mask)));
 	}
 	// set the base value
-	goalValue[1] = goalValue[0];
-	// add the lowest missing card, to get the minimum-value
-	for (CardDeck.Card card : CardDeck.Deck.SKAT.getCardsByColor(color)) {
-	    if (!this.playerCards.containsCard(card)) {
-		goalValue[0] += Table.getCardValue(card);
-		break;
-	    }
+	int maxValue = minValue;
+	if (missingCards != 0) {
+	    // add the lowest missing card, to get the minimum-value
+	    minValue +=
+		    Table.getCardValue(CardStack.card(Integer
+			    .numberOfTrailingZeros(missingCards)));
+	    // add the highest missing card, to get the maximum-value
+	    maxValue +=
+		    Table.getCardValue(CardStack.card((Integer.SIZE - 1)
+			    - Integer.numberOfLeadingZeros(missingCards)));
 	}
-	// add the highest missing card, to get the maximum-value
-	CardDeck.Card card;
-	for (int i = CardDeck.Deck.SKAT.getCardsByColor(color).size() - 1; i > 0; i--) {
-	    card = CardDeck.Deck.SKAT.getCardsByColor(color).get(i);
-	    if (!this.playerCards.containsCard(card)) {
-		goalValue[1] += Table.getCardValue(card);
-		break;
-	    }
-	}
-	return goalValue;
+	return (maxValue << GOAL_FIELD_BITS) | minValue;
+    }
+
+    /**
+     * Get the minimum-value of a packed goal value.
+     * 
+     * @param goalValue
+     *            Result of {@link #goalValue(CardDeck.Color)}
+     * @return Minimum-value
+     */
+    static int goalMinValue(final int goalValue) {
+	return goalValue & GOAL_FIELD_MASK;
+    }
+
+    /**
+     * Get the maximum-value of a packed goal value.
+     * 
+     * @param goalValue
+     *            Result of {@link #goalValue(CardDeck.Color)}
+     * @return Maximum-value
+     */
+    static int goalMaxValue(final int goalValue) {
+	return goalValue >>> GOAL_FIELD_BITS;
     }
 
     /**
      * Check, how many cards are missing to reach a goal state. No calculation
-     * of values is involved here.
+     * of values is involved here. Only the owned cards are visited, their
+     * color and type counts are kept up to date by the rating.<br/>
+     * 
+     * The result is packed into an int to keep decisions free of allocations.
+     * Unpack it by {@link #goalColor(int)}, {@link #goalColorSteps(int)},
+     * {@link #goalType(int)} and {@link #goalTypeSteps(int)}.
      * 
-     * @return How many cards are missing to reach a goal state
-     *         [color][steps][type][steps]
+     * @return How many cards are missing to reach a goal state, packed as
+     *         [color][steps][type][steps] from the lowest byte on
      */
-    public final Object[] goalDistance() {
+    public final int goalDistance() {
 	// card color
 	CardDeck.Color cardColor = null;
 	// number of cards by a color
-	Integer cardColorCount = null;
+	int cardColorCount = 0;
 	// card type
 	CardDeck.Type cardType = null;
 	// number of cards by type
-	Integer cardTypeCount = null;
+	int cardTypeCount = 0;
 	// general counters
 	int count;
-	// return object
-	Object[] distances = new Object[4];
+	// packed result
+	int distances = 0;
+	CardDeck.Card card;
 
-	for (CardDeck.Card card : this.playerCards.getCards()) {
+	for (int mask = this.playerCards.getCardMask(); mask != 0; mask &=
+		mask - 1) {
+	    card = CardStack.card(Integer.numberOfTrailingZeros(mask));
 	    // check card color
-	    count = 0;
-	    for (CardDeck.Card cardByColor : CardDeck.Deck.SKAT
-		    .getCardsByColor(card.getColor())) {
-		if (this.playerCards.containsCard(cardByColor)) {
-		    count++;
-		}
-	    }
+	    count = this.colorCounts[card.getColor().ordinal()];
 	    // store max
-	    if ((cardColorCount == null) || (count > cardColorCount)) {
+	    if (count > cardColorCount) {
 		cardColorCount = count;
 		cardColor = card.getColor();
 	    }
 
 	    // check card type
-	    count = 0;
-	    for (CardDeck.Card cardByType : CardDeck.Deck.SKAT
-		    .getCardsByType(card.getType())) {
-		if (this.playerCards.containsCard(cardByType)) {
-		    count++;
-		}
-	    }
+	    count = this.typeCounts[card.getType().ordinal()];
 	    // store max
-	    if ((cardTypeCount == null) || (count > cardTypeCount)) {
+	    if (count > cardTypeCount) {
 		cardTypeCount = count;
 		cardType = card.getType();
 	    }
@@ -270,32 +382,99 @@ public class AIPlayerRating {
 
 	// check for possible near-goal states (one card missing)
 	if (cardColorCount >= 2) {
-	    distances[0] = cardColor;
-	    distances[1] =
-		    (CardDeck.Deck.SKAT.numberOfColors() - 1) - cardColorCount;
+	    distances |= cardColor.ordinal() + 1;
+	    distances |=
+		    ((CardDeck.Deck.SKAT.numberOfColors() - 1) - cardColorCount)
+			    << GOAL_FIELD_BITS;
 	}
 	if (cardTypeCount >= 2) {
-	    distances[2] = cardType;
-	    distances[3] = RULE_CARDS_TO_WIN - cardTypeCount;
+	    distances |= (cardType.ordinal() + 1) << (2 * GOAL_FIELD_BITS);
+	    distances |=
+		    (RULE_CARDS_TO_WIN - cardTypeCount)
+			    << (3 * GOAL_FIELD_BITS);
 	}
 	return distances;
     }
 
+    /**
+     * Get the color of a near-goal state.
+     * 
+     * @param goal
+     *            Result of {@link #goalDistance()}
+     * @return Color or null, if there is no color goal
+     */
+    static CardDeck.Color goalColor(final int goal) {
+	final int color = goal & GOAL_FIELD_MASK;
+	if (color == 0) {
+	    return null;
+	}
+	return COLORS[color - 1];
+    }
+
+    /**
+     * Get the number of cards missing to reach the color goal.
+     * 
+     * @param goal
+     *            Result of {@link #goalDistance()}
+     * @return Number of cards, only meaningful if there is a color goal
+     */
+    static int goalColorSteps(final int goal) {
+	return (goal >>> GOAL_FIELD_BITS) & GOAL_FIELD_MASK;
+    }
+
+    /**
+     * Get the type of a near-goal state.
+     * 
+     * @param goal
+     *            Result of {@link #goalDistance()}
+     * @return Type or null, if there is no type goal
+     */
+    static CardDeck.Type goalType(final int goal) {
+	final int type = (goal >>> (2 * GOAL_FIELD_BITS)) & GOAL_FIELD_MASK;
+	if (type == 0) {
+	    return null;
+	}
+	return TYPES[type - 1];
+    }
+
+    /**
+     * Get the number of cards missing to reach the type goal.
+     * 
+     * @param goal
+     *            Result of {@link #goalDistance()}
+     * @return Number of cards, only meaningful if there is a type goal
+     */
+    static int goalTypeSteps(final int goal) {
+	return goal >>> (3 * GOAL_FIELD_BITS);
+    }
+
     /**
      * Suggest a semi-random card to pick. Makes a suggestion based on the cards
-     * already seen by the player.
+     * already seen by the player. Each card is rated by it's value, weighted
+     * by the availability of the other cards of it's color.
      * 
+     * @param availability
+     *            Result of {@link #rateTableAvailability()}
      * @return A <code>Card</code> selected from the ones on the table
      */
-    final CardDeck.Card suggestRandomPick() {
-	byte cardValue = 0;
+    final CardDeck.Card suggestRandomPick(final int availability) {
+	int cardRating = 0;
+	int shift = 0;
 	CardDeck.Card suggestedCard = null;
-	// for now just pick the highest one
-	for (CardDeck.Card card : this.tableCards.getCards()) {
-	    if (Table.getCardValue(card) > cardValue) {
-		cardValue = (byte) Table.getCardValue(card);
+	CardDeck.Card card;
+	for (int mask = this.tableCards.getCardMask(); mask != 0; mask &=
+		mask - 1) {
+	    card = CardStack.card(Integer.numberOfTrailingZeros(mask));
+	    // a fully available color doubles the value
+	    final int rating =
+		    Table.getCardValue(card)
+			    * (AVAILABILITY_MAX + ((availability >>> shift)
+				    & AVAILABILITY_MAX));
+	    if (rating > cardRating) {
+		cardRating = rating;
 		suggestedCard = card;
 	    }
+	    shift += AVAILABILITY_BITS;
 	}
 	return suggestedCard;
     }
@@ -0,0 +1,469 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import cardGame.out.Logger;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * Tunes the {@link AIPlayer.Bias} values of the {@link AIPlayer} by a genetic
+ * algorithm. Only biases read by the decisions of the player are tuned and
+ * written to the profile. Each candidate plays at seat 0 against AI players
+ * with default biases and is rated by the rate of games it lost. All
+ * candidates of a generation play the same deals, so their results are
+ * comparable. Their simulations share a single {@link ForkJoinPool}, every
+ * table of every candidate being a task of it's own.<br/>
+ * 
+ * The best candidates of a generation survive unchanged. All others are
+ * replaced by children of parents chosen by tournament selection, blended
+ * from both parents and randomly mutated. Everything depends only on the
+ * master seed, so a run resumed from a checkpoint ends with the same result
+ * as an uninterrupted one.<br/>
+ * 
+ * Parameters are passed as <code>--name=value</code>:
+ * <ul>
+ * <li><code>population</code> number of candidates (default 32)</li>
+ * <li><code>generations</code> number of generations (default 50)</li>
+ * <li><code>games</code> games per table (default 1000)</li>
+ * <li><code>tables</code> tables per candidate (default 8)</li>
+ * <li><code>players</code> number of players (default 4)</li>
+ * <li><code>elite</code> candidates surviving unchanged (default 2)</li>
+ * <li><code>sigma</code> standard deviation of mutations (default 2)</li>
+ * <li><code>seed</code> master seed (default: random)</li>
+ * <li><code>threads</code> number of threads (default: number of
+ * processors)</li>
+ * <li><code>checkpoint</code> file to save the population to after each
+ * generation. If it exists, tuning resumes from it. (default: none)</li>
+ * <li><code>out</code> file to write the best profile to (default: none)</li>
+ * </ul>
+ * The best profile is written as comma separated <code>bias=value</code>
+ * list, which may be passed to a {@link Simulation} as <code>--bias</code>.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class BiasTuner {
+    /** Biases tuned, a candidate has one value for each of them. */
+    private static final AIPlayer.Bias[] BIASES = new AIPlayer.Bias[] {
+	    AIPlayer.Bias.STACKDROP_INITIAL, AIPlayer.Bias.STACKDROP };
+    /** Number of candidates competing for being a parent. */
+    private static final int TOURNAMENT_SIZE = 3;
+    /** How far a child may be blended beyond it's parents. */
+    private static final float BLEND = 0.25f;
+    /** Chance of a single bias being mutated. */
+    private static final float MUTATION_RATE = 0.5f;
+    /** Scales the sum of four uniform values to a standard deviation of 1. */
+    private static final float UNIFORM_SUM_SCALE = (float) Math.sqrt(3);
+    /** Number of candidates. */
+    private int populationSize = 32;
+    /** Number of generations. */
+    private int generations = 50;
+    /** Games per table. */
+    private int games = 1000;
+    /** Tables per candidate. */
+    private int tables = 8;
+    /** Number of players. */
+    private int players = 4;
+    /** Number of candidates surviving unchanged. */
+    private int elite = 2;
+    /** Standard deviation of mutations. */
+    private float sigma = 2;
+    /** Master seed. */
+    private long seed = SplitMixRandom.unseeded().nextLong();
+    /** Number of threads. */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /** File to save the population to, null if not saving. */
+    private File checkpoint = null;
+    /** File to write the best profile to, null if not writing. */
+    private File out = null;
+    /** Generation to evaluate next. */
+    private int generation = 0;
+    /** Bias values of each candidate in the order of {@link #BIASES}. */
+    private float[][] population;
+    /** Loss rate of each candidate in the last evaluation. */
+    private final double[] fitness;
+    /** Best profile of the last evaluated generation, null if none. */
+    private String bestProfile = null;
+    /** Loss rate of the best profile. */
+    private double bestFitness = Double.NaN;
+
+    /**
+     * Parse the command line parameters.
+     * 
+     * @param args
+     *            Parameters as <code>--name=value</code>
+     */
+    BiasTuner(final String[] args) {
+	for (String arg : args) {
+	    final int split = arg.indexOf('=');
+	    if (!arg.startsWith("--") || (split < 0)) {
+		throw new IllegalArgumentException("Invalid parameter: " + arg);
+	    }
+	    final String name = arg.substring(2, split);
+	    final String value = arg.substring(split + 1);
+	    if (name.equals("population")) {
+		this.populationSize = Integer.parseInt(value);
+	    } else if (name.equals("generations")) {
+		this.generations = Integer.parseInt(value);
+	    } else if (name.equals("games")) {
+		this.games = Integer.parseInt(value);
+	    } else if (name.equals("tables")) {
+		this.tables = Integer.parseInt(value);
+	    } else if (name.equals("players")) {
+		this.players = Integer.parseInt(value);
+	    } else if (name.equals("elite")) {
+		this.elite = Integer.parseInt(value);
+	    } else if (name.equals("sigma")) {
+		this.sigma = Float.parseFloat(value);
+	    } else if (name.equals("seed")) {
+		this.seed = Long.parseLong(value);
+	    } else if (name.equals("threads")) {
+		this.threads = Integer.parseInt(value);
+	    } else if (name.equals("checkpoint")) {
+		this.checkpoint = new File(value);
+	    } else if (name.equals("out")) {
+		this.out = new File(value);
+	    } else {
+		throw new IllegalArgumentException("Unknown parameter: " + arg);
+	    }
+	}
+	if ((this.elite < 0) || (this.elite >= this.populationSize)) {
+	    throw new IllegalArgumentException(String.format(
+		    "Elite of %d doesn't fit a population of %d.", this.elite,
+		    this.populationSize));
+	}
+	this.fitness = new double[this.populationSize];
+    }
+
+    /**
+     * Convert bias values to a map.
+     * 
+     * @param values
+     *            Bias values in the order of {@link #BIASES}
+     * @return Map with all tuned biases
+     */
+    private static Map<AIPlayer.Bias, Float> toMap(final float[] values) {
+	final Map<AIPlayer.Bias, Float> biasMap =
+		new EnumMap<AIPlayer.Bias, Float>(AIPlayer.Bias.class);
+	for (int bias = 0; bias < BIASES.length; bias++) {
+	    biasMap.put(BIASES[bias], values[bias]);
+	}
+	return biasMap;
+    }
+
+    /**
+     * Convert a map to bias values.
+     * 
+     * @param biasMap
+     *            Map with Bias as key and a Float as value
+     * @return Values of the tuned biases in the order of {@link #BIASES},
+     *         defaults for biases not in the map
+     */
+    private static float[] toValues(final Map<AIPlayer.Bias, Float> biasMap) {
+	final float[] values = new float[BIASES.length];
+	for (int bias = 0; bias < BIASES.length; bias++) {
+	    values[bias] = BIASES[bias].getValue();
+	    if (biasMap.containsKey(BIASES[bias])) {
+		values[bias] = biasMap.get(BIASES[bias]);
+	    }
+	}
+	return values;
+    }
+
+    /**
+     * Get a random source for a generation.
+     * 
+     * @return Random source depending only on the master seed and the
+     *         generation
+     */
+    private RandomSource random() {
+	return new SplitMixRandom(this.seed).split(this.generation);
+    }
+
+    /**
+     * Get a normal distributed random value, approximated by the sum of four
+     * uniform values.
+     * 
+     * @param random
+     *            Random source to use
+     * @return Value with mean 0 and standard deviation 1
+     */
+    private static float gaussian(final RandomSource random) {
+	final float sum =
+		random.nextFloat() + random.nextFloat() + random.nextFloat()
+			+ random.nextFloat();
+	return (sum - 2) * UNIFORM_SUM_SCALE;
+    }
+
+    /**
+     * Restrict a bias value to the legal range.
+     * 
+     * @param value
+     *            Value to restrict
+     * @return Value in the range 0-{@value CardStack#STACKVALUE_MAX}
+     */
+    private static float clamp(final float value) {
+	return Math.max(0, Math.min(CardStack.STACKVALUE_MAX, value));
+    }
+
+    /**
+     * Create the first generation. It contains the default biases, all other
+     * candidates are random.
+     */
+    private void initialize() {
+	final RandomSource random = this.random();
+	this.population = new float[this.populationSize][];
+	this.population[0] = toValues(AIPlayer.Bias.parse(""));
+	for (int i = 1; i < this.populationSize; i++) {
+	    this.population[i] = new float[BIASES.length];
+	    for (int bias = 0; bias < BIASES.length; bias++) {
+		this.population[i][bias] =
+			random.nextFloat() * CardStack.STACKVALUE_MAX;
+	    }
+	}
+    }
+
+    /**
+     * Play the games of all candidates of the current generation.
+     * 
+     * @param pool
+     *            Pool to play the games on
+     */
+    private void evaluate(final ForkJoinPool pool) {
+	// breeding uses the same source, see breed()
+	final long dealSeed = this.random().nextLong();
+	final String[] args =
+		new String[] { "--players=" + this.players,
+			"--games=" + this.games, "--tables=" + this.tables,
+			"--seed=" + dealSeed };
+	final List<ForkJoinTask<SimulationStats>> tasks =
+		new ArrayList<ForkJoinTask<SimulationStats>>(
+			this.populationSize);
+	for (int i = 0; i < this.populationSize; i++) {
+	    final Simulation simulation = new Simulation(args);
+	    simulation.setSeatBias(0, toMap(this.population[i]));
+	    tasks.add(pool.submit(Tournament.of(simulation)));
+	}
+	int best = 0;
+	for (int i = 0; i < this.populationSize; i++) {
+	    this.fitness[i] = tasks.get(i).join().seatLossRate(0);
+	    if (this.fitness[i] < this.fitness[best]) {
+		best = i;
+	    }
+	}
+	this.bestFitness = this.fitness[best];
+	this.bestProfile = AIPlayer.Bias.format(toMap(this.population[best]));
+    }
+
+    /**
+     * Choose a parent by tournament selection.
+     * 
+     * @param random
+     *            Random source to use
+     * @return Index of the candidate with the lowest loss rate out of
+     *         {@value #TOURNAMENT_SIZE} random ones
+     */
+    private int select(final RandomSource random) {
+	int best = random.nextInt(this.populationSize);
+	for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+	    final int other = random.nextInt(this.populationSize);
+	    if (this.fitness[other] < this.fitness[best]) {
+		best = other;
+	    }
+	}
+	return best;
+    }
+
+    /** Replace the evaluated population by the next generation. */
+    private void breed() {
+	final RandomSource random = this.random();
+	// skip the seed used for dealing
+	random.nextLong();
+	final float[][] next = new float[this.populationSize][];
+	// keep the elite, sorted by their loss rate
+	final boolean[] taken = new boolean[this.populationSize];
+	for (int i = 0; i < this.elite; i++) {
+	    int best = -1;
+	    for (int j = 0; j < this.populationSize; j++) {
+		if (!taken[j]
+			&& ((best < 0)
+				|| (this.fitness[j] < this.fitness[best]))) {
+		    best = j;
+		}
+	    }
+	    taken[best] = true;
+	    next[i] = this.population[best].clone();
+	}
+	for (int i = this.elite; i < this.populationSize; i++) {
+	    final float[] a = this.population[this.select(random)];
+	    final float[] b = this.population[this.select(random)];
+	    next[i] = new float[BIASES.length];
+	    for (int bias = 0; bias < BIASES.length; bias++) {
+		final float blend =
+			(random.nextFloat() * (1 + (2 * BLEND))) - BLEND;
+		float value = a[bias] + ((b[bias] - a[bias]) * blend);
+		if (random.nextFloat() < MUTATION_RATE) {
+		    value += gaussian(random) * this.sigma;
+		}
+		next[i][bias] = clamp(value);
+	    }
+	}
+	this.population = next;
+    }
+
+    /**
+     * Save the population to the checkpoint file. The file is replaced at
+     * once, so an interrupted save keeps the previous checkpoint.
+     * 
+     * @throws IOException
+     *             If the file could not be written
+     */
+    private void save() throws IOException {
+	final Properties state = new Properties();
+	state.setProperty("seed", Long.toString(this.seed));
+	state.setProperty("generation", Integer.toString(this.generation));
+	for (int i = 0; i < this.populationSize; i++) {
+	    state.setProperty("candidate." + i,
+		    AIPlayer.Bias.format(toMap(this.population[i])));
+	}
+	if (this.bestProfile != null) {
+	    state.setProperty("best", this.bestProfile);
+	    state.setProperty("best.lossRate",
+		    Double.toString(this.bestFitness));
+	}
+	final File temp = new File(this.checkpoint.getPath() + ".tmp");
+	final OutputStream stream = new FileOutputStream(temp);
+	try {
+	    state.store(stream, "AI bias tuner population");
+	} finally {
+	    stream.close();
+	}
+	Files.move(temp.toPath(), this.checkpoint.toPath(),
+		StandardCopyOption.REPLACE_EXISTING,
+		StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load the population from the checkpoint file.
+     * 
+     * @throws IOException
+     *             If the file could not be read or doesn't match the
+     *             parameters
+     */
+    private void load() throws IOException {
+	final Properties state = new Properties();
+	final InputStream stream = new FileInputStream(this.checkpoint);
+	try {
+	    state.load(stream);
+	} finally {
+	    stream.close();
+	}
+	this.seed = Long.parseLong(state.getProperty("seed"));
+	this.generation = Integer.parseInt(state.getProperty("generation"));
+	this.population = new float[this.populationSize][];
+	for (int i = 0; i < this.populationSize; i++) {
+	    final String profile = state.getProperty("candidate." + i);
+	    if (profile == null) {
+		throw new IOException(String.format(
+			"Checkpoint %s has less than %d candidates.",
+			this.checkpoint, this.populationSize));
+	    }
+	    this.population[i] = toValues(AIPlayer.Bias.parse(profile));
+	}
+	this.bestProfile = state.getProperty("best");
+	if (this.bestProfile != null) {
+	    this.bestFitness =
+		    Double.parseDouble(state.getProperty("best.lossRate"));
+	}
+    }
+
+    /**
+     * Run all generations.
+     * 
+     * @return Best profile of the last generation
+     * @throws IOException
+     *             If the checkpoint could not be read or written
+     */
+    String tune() throws IOException {
+	if ((this.checkpoint != null) && this.checkpoint.exists()) {
+	    this.load();
+	    Logger.print(String.format(
+		    "Resuming from %s at generation %d, seed %d%n",
+		    this.checkpoint, this.generation, this.seed));
+	} else {
+	    this.initialize();
+	}
+	final ForkJoinPool pool = new ForkJoinPool(this.threads);
+	try {
+	    while (this.generation < this.generations) {
+		final long start = System.nanoTime();
+		this.evaluate(pool);
+		double mean = 0;
+		for (double rate : this.fitness) {
+		    mean += rate;
+		}
+		mean /= this.populationSize;
+		Logger.print(String.format(
+			"generation %d: best=%.2f%% mean=%.2f%% %s (%.1fs)%n",
+			this.generation, this.bestFitness * 100, mean * 100,
+			this.bestProfile, (System.nanoTime() - start) / 1e9));
+		this.breed();
+		this.generation++;
+		if (this.checkpoint != null) {
+		    this.save();
+		}
+	    }
+	} finally {
+	    pool.shutdown();
+	}
+	return this.bestProfile;
+    }
+
+    /**
+     * Run the tuner.
+     * 
+     * @param args
+     *            Parameters, see {@link BiasTuner}
+     * @throws IOException
+     *             If the checkpoint or the profile could not be written
+     */
+    public static void main(final String[] args) throws IOException {
+	Logger.setDefaultLevel(Logger.Level.OFF);
+	final BiasTuner tuner = new BiasTuner(args);
+	Logger.print(String.format(
+		"Tuning %d candidates for %d generations, seed %d%n",
+		tuner.populationSize, tuner.generations, tuner.seed));
+	final String profile = tuner.tune();
+	Logger.print(String.format("Best profile: %s%n", profile));
+	if ((tuner.out != null) && (profile != null)) {
+	    final Writer writer =
+		    new OutputStreamWriter(new FileOutputStream(tuner.out),
+			    StandardCharsets.UTF_8);
+	    try {
+		writer.write(profile);
+		writer.write('\n');
+	    } finally {
+		writer.close();
+	    }
+	}
+	Logger.flush();
+    }
+}
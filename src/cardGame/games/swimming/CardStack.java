@@ -13,7 +13,11 @@ import cardGame.card.CardDeck.Deck;
  * Handles a collection of cards (the stack). Besides storing the availability
  * of a cards, this class allows storing of custom values attached to each card.
  * This makes it possible to use a CardStack for storing card weightings for
- * further processing.
+ * further processing.<br/>
+ * 
+ * Card membership is stored as a bitmask with one bit per card slot (see
+ * {@link Deck#slotOf(Card)}). Card values
+ * are stored in a parallel array indexed by the same slot.
  */
 public class CardStack {
     /** All cards possible in this game. */
@@ -24,9 +28,28 @@ public class CardStack {
     static final byte CARD_UNAVAILABLE = -1;
     /** Marks a card as being part of the stack. */
     static final byte CARD_AVAILABLE = 1;
+    /** Mask with all card bits set. */
+    static final int MASK_ALL = -1 >>> (Integer.SIZE - Deck.SKAT.size());
+    /** Card masks by {@link CardDeck.Color#ordinal()}. */
+    private static final int[] COLOR_MASKS =
+	    new int[CardDeck.Color.values().length];
+    /** Card masks by {@link CardDeck.Type#ordinal()}. */
+    private static final int[] TYPE_MASKS =
+	    new int[CardDeck.Type.values().length];
+
+    static {
+	for (int slot = 0; slot < CARDS.size(); slot++) {
+	    final Card card = CARDS.get(slot);
+	    COLOR_MASKS[card.getColor().ordinal()] |= 1 << slot;
+	    TYPE_MASKS[card.getType().ordinal()] |= 1 << slot;
+	}
+    }
+
+    /** Bitmask of cards being part of the stack. */
+    private int cardMask;
     /**
-     * Stored values of single cards. Any negative value means that this cards
-     * isn't available. Positive values are used for ratings.
+     * Stored values of single cards. Only meaningful for cards being part of
+     * the stack. Positive values are used for ratings.
      **/
     private final byte[] cardStack = new byte[Deck.SKAT.size()];
 
@@ -35,6 +58,66 @@ public class CardStack {
 	this.resetCardValues();
     }
 
+    /**
+     * Get the slot for a card.
+     * 
+     * @param card
+     *            Card whose slot to get
+     * @return Slot of the card
+     */
+    static int slot(final Card card) {
+	final int slot = Deck.SKAT.slotOf(card);
+	if (slot < 0) {
+	    throw new IllegalArgumentException("Unknown card specified ("
+		    + card + ").");
+	}
+	return slot;
+    }
+
+    /**
+     * Get the bit for a card.
+     * 
+     * @param card
+     *            Card whose bit to get
+     * @return Mask with only the cards bit set
+     */
+    static int bit(final Card card) {
+	return 1 << slot(card);
+    }
+
+    /**
+     * Get the card stored at a slot.
+     * 
+     * @param slot
+     *            Card slot
+     * @return Card at the given slot
+     */
+    static Card card(final int slot) {
+	return Deck.SKAT.cardAt(slot);
+    }
+
+    /**
+     * Get the mask of all cards with the given color.
+     * 
+     * @param color
+     *            Card color
+     * @return Card mask
+     */
+    static int colorMask(final CardDeck.Color color) {
+	return COLOR_MASKS[color.ordinal()];
+    }
+
+    /**
+     * Get the mask of all cards with the given type.
+     * 
+     * @param type
+     *            Card type
+     * @return Card mask
+     */
+    static int typeMask(final CardDeck.Type type) {
+	return TYPE_MASKS[type.ordinal()];
+    }
+
     /**
      * Sets a custom value instead of the predefined flags for a card. This
      * passes by the check if a card is available. If you want to add a card use
@@ -47,31 +130,9 @@ public class CardStack {
      *            defined by the byte type.
      */
     final void setCardValue(final Card card, final float value) {
-	this.setCardValue(card, value, true);
-    }
-
-    /**
-     * @see #setCardValue(Card, float)
-     * 
-     * @param card
-     *            Card witch gets a new value
-     * @param value
-     *            The value to set
-     * @param enforceBounds
-     *            True to check value bounds
-     */
-    private void setCardValue(final Card card, final float value,
-	    final boolean enforceBounds) {
-	if (CARDS.indexOf(card) == -1) {
-	    throw new IllegalArgumentException("Unknown card specified ("
-		    + card + ").");
-	}
-	if (enforceBounds) {
-	    this.cardStack[CARDS.indexOf(card)] =
-		    this.enforceValueBounds(value);
-	} else {
-	    this.cardStack[CARDS.indexOf(card)] = (byte) value;
-	}
+	final int slot = slot(card);
+	this.cardStack[slot] = this.enforceValueBounds(value);
+	this.cardMask |= 1 << slot;
     }
 
     /**
@@ -104,11 +165,8 @@ public class CardStack {
      *            Value to add to the already stored
      */
     final void addToCardValue(final Card card, final float value) {
-	if (CARDS.indexOf(card) == -1) {
-	    throw new IllegalArgumentException("Unknown card specified.");
-	}
 	float newValue = this.getCardValue(card) + value;
-	this.setCardValue(card, this.enforceValueBounds(newValue));
+	this.setCardValue(card, newValue);
     }
 
     /**
@@ -116,13 +174,15 @@ public class CardStack {
      * 
      * @param card
      *            The Card whose value to get
-     * @return Value stored for the Card
+     * @return Value stored for the Card or {@value #CARD_UNAVAILABLE} if the
+     *         card is not part of the stack
      */
     final byte getCardValue(final Card card) {
-	if (CARDS.indexOf(card) == -1) {
-	    throw new IllegalArgumentException("Unknown card specified.");
+	final int slot = slot(card);
+	if ((this.cardMask & (1 << slot)) == 0) {
+	    return CARD_UNAVAILABLE;
 	}
-	return this.cardStack[CARDS.indexOf(card)];
+	return this.cardStack[slot];
     }
 
     /**
@@ -162,8 +222,8 @@ public class CardStack {
     @Override
     public final String toString() {
 	StringBuffer cards = new StringBuffer();
-	for (Card card : this.getCards()) {
-	    cards.append(card.toString());
+	for (int mask = this.cardMask; mask != 0; mask &= mask - 1) {
+	    cards.append(card(Integer.numberOfTrailingZeros(mask)));
 	}
 	return cards.toString();
     }
@@ -179,32 +239,89 @@ public class CardStack {
     final void setCards(final Collection<Card> newCards) {
 	this.resetCardValues();
 	for (Card card : newCards) {
-	    this.setCardValue(card, CARD_AVAILABLE);
+	    this.addCard(card);
 	}
     }
 
     /**
-     * Get all cards currently part of the stack.
+     * Set the cards of this stack from a card bitmask. Like
+     * {@link #setCards(Collection)} all other cards are removed.
+     * 
+     * @param mask
+     *            Card bitmask of the cards to add
+     */
+    final void setCardMask(final int mask) {
+	this.resetCardValues();
+	for (int rest = mask; rest != 0; rest &= rest - 1) {
+	    this.addCard(card(Integer.numberOfTrailingZeros(rest)));
+	}
+    }
+
+    /**
+     * Get all cards currently part of the stack. This allocates a new list on
+     * each call. Use {@link #getCardMask()} for iterating in performance
+     * critical code.
      * 
      * @return All cards currently in the stack
      */
     final Collection<Card> getCards() {
-	List<Card> cardList = new ArrayList<Card>(Deck.SKAT.size());
-	for (int i = 0; i < this.cardStack.length; i++) {
-	    byte cardValue = this.cardStack[i];
-	    if (cardValue >= 0) {
-		cardList.add(CARDS.get(i));
-	    }
+	List<Card> cardList = new ArrayList<Card>(Integer.bitCount(this.cardMask));
+	for (int mask = this.cardMask; mask != 0; mask &= mask - 1) {
+	    cardList.add(card(Integer.numberOfTrailingZeros(mask)));
 	}
 	return cardList;
     }
 
+    /**
+     * Get the bitmask of cards being part of the stack. Bit <code>n</code> is
+     * set, if the card at slot <code>n</code> is part of the stack. Iterate the
+     * cards by using {@link Integer#numberOfTrailingZeros(int)} and
+     * {@link #card(int)}.
+     * 
+     * @return Card bitmask
+     */
+    final int getCardMask() {
+	return this.cardMask;
+    }
+
+    /**
+     * Get the number of cards in this stack.
+     * 
+     * @return Number of cards
+     */
+    final int size() {
+	return Integer.bitCount(this.cardMask);
+    }
+
+    /**
+     * Count the cards in this stack having the given color.
+     * 
+     * @param color
+     *            Color to count
+     * @return Number of cards with the given color
+     */
+    final int countByColor(final CardDeck.Color color) {
+	return Integer.bitCount(this.cardMask & COLOR_MASKS[color.ordinal()]);
+    }
+
+    /**
+     * Count the cards in this stack having the given type.
+     * 
+     * @param type
+     *            Type to count
+     * @return Number of cards with the given type
+     */
+    final int countByType(final CardDeck.Type type) {
+	return Integer.bitCount(this.cardMask & TYPE_MASKS[type.ordinal()]);
+    }
+
     /**
      * Reset all stored card values. This will set all cards as not being part
      * of the stack.
      */
     final void resetCardValues() {
-	Arrays.fill(this.cardStack, CARD_UNAVAILABLE);
+	this.cardMask = 0;
+	Arrays.fill(this.cardStack, (byte) 0);
     }
 
     /**
@@ -215,10 +332,7 @@ public class CardStack {
      * @return True if it is in the stack
      */
     final boolean containsCard(final Card card) {
-	if (this.getCardValue(card) == CardStack.CARD_UNAVAILABLE) {
-	    return false;
-	}
-	return true;
+	return (this.cardMask & bit(card)) != 0;
     }
 
     /**
@@ -228,7 +342,9 @@ public class CardStack {
      *            The card to set as available
      */
     final void addCard(final Card card) {
-	this.setCardValue(card, CARD_AVAILABLE);
+	final int slot = slot(card);
+	this.cardStack[slot] = CARD_AVAILABLE;
+	this.cardMask |= 1 << slot;
     }
 
     /**
@@ -238,6 +354,6 @@ public class CardStack {
      *            The card to remove
      */
     final void removeCard(final Card card) {
-	this.setCardValue(card, CARD_UNAVAILABLE, false);
+	this.cardMask &= ~bit(card);
     }
 }
@@ -0,0 +1,185 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import cardGame.metrics.Counter;
+import cardGame.metrics.MetricsRegistry;
+
+/**
+ * Bounded cache of decisions, shared by players of all tables and threads. A
+ * deterministic player may opt in, if it's decision only depends on what can
+ * be packed into a key of {@value #KEY_BITS} bits, e.g. the card bitmasks of
+ * the hand and the table. The decision itself is packed into
+ * {@value #VALUE_BITS} bits.<br/>
+ * 
+ * Key and value of an entry are packed into a single long along with a used
+ * and a referenced bit, so entries are read and replaced atomically without
+ * any locks. Entries are grouped into buckets of {@value #WAYS}, which fill a
+ * cache line. A key may only be stored in it's bucket. If the bucket is full,
+ * the victim is chosen by the CLOCK policy: the hand of the bucket sweeps over
+ * the entries, clearing the referenced bit set by hits, and replaces the first
+ * entry not referenced since the last sweep.<br/>
+ * 
+ * Hits, misses and evictions are counted as metrics named
+ * <code>cache.&lt;name&gt;.*</code>.
+ */
+final class DecisionCache {
+    /** Returned by {@link #get(long)} for keys not cached. */
+    static final int MISSING = -1;
+    /** Number of bits of a key. */
+    static final int KEY_BITS = 40;
+    /** Number of bits of a value. */
+    static final int VALUE_BITS = 22;
+    /** Number of entries per bucket. */
+    static final int WAYS = 8;
+    /** Mask of the key of an entry. */
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    /** Mask of a value. */
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    /** Marks an entry as used, as key and value 0 are valid. */
+    private static final long USED = Long.MIN_VALUE;
+    /** Marks an entry as hit since the last sweep of the clock hand. */
+    private static final long REFERENCED = 1L << (Long.SIZE - 2);
+    /** Multiplier spreading keys, derived from the golden ratio. */
+    private static final long HASH = 0x9e3779b97f4a7c15L;
+    /** Packed entries, 0 for empty ones. */
+    private final AtomicLongArray entries;
+    /** Position of the clock hand of each bucket. */
+    private final AtomicIntegerArray hands;
+    /** Number of bits used to index a bucket. */
+    private final int bits;
+    /** Number of lookups finding their key. */
+    private final Counter hits;
+    /** Number of lookups not finding their key. */
+    private final Counter misses;
+    /** Number of entries replaced. */
+    private final Counter evictions;
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            Name of the cache used for it's metrics
+     * @param capacity
+     *            Number of entries, rounded up to a power of two of at least
+     *            {@value #WAYS}
+     */
+    DecisionCache(final String name, final int capacity) {
+	final int buckets = Math.max(1, capacity / WAYS);
+	this.bits =
+		Integer.SIZE - Integer.numberOfLeadingZeros(buckets - 1);
+	this.entries = new AtomicLongArray(WAYS << this.bits);
+	this.hands = new AtomicIntegerArray(1 << this.bits);
+	final MetricsRegistry metrics = MetricsRegistry.global();
+	this.hits = metrics.counter("cache." + name + ".hits");
+	this.misses = metrics.counter("cache." + name + ".misses");
+	this.evictions = metrics.counter("cache." + name + ".evictions");
+    }
+
+    /**
+     * Get the first entry of the bucket of a key.
+     * 
+     * @param key
+     *            Key to look up
+     * @return Index of the first entry
+     */
+    private int bucket(final long key) {
+	if (this.bits == 0) {
+	    return 0;
+	}
+	return (int) ((key * HASH) >>> (Long.SIZE - this.bits)) * WAYS;
+    }
+
+    /**
+     * Get a cached decision.
+     * 
+     * @param key
+     *            Key of the decision, 0 to 2^{@value #KEY_BITS}-1
+     * @return Decision or {@link #MISSING}, if not cached
+     */
+    int get(final long key) {
+	final int bucket = this.bucket(key);
+	for (int i = 0; i < WAYS; i++) {
+	    final long entry = this.entries.get(bucket + i);
+	    if ((entry & (USED | KEY_MASK)) == (USED | key)) {
+		// written only once per sweep, so hot entries stay shared
+		if ((entry & REFERENCED) == 0) {
+		    this.entries.compareAndSet(bucket + i, entry, entry
+			    | REFERENCED);
+		}
+		this.hits.increment();
+		return (int) (entry >>> KEY_BITS) & VALUE_MASK;
+	    }
+	}
+	this.misses.increment();
+	return MISSING;
+    }
+
+    /**
+     * Cache a decision. If another thread replaces the same entries at the
+     * same time, the decision may not be cached.
+     * 
+     * @param key
+     *            Key of the decision, 0 to 2^{@value #KEY_BITS}-1
+     * @param value
+     *            Decision, 0 to 2^{@value #VALUE_BITS}-1
+     */
+    void put(final long key, final int value) {
+	if (((key & ~KEY_MASK) != 0) || ((value & ~VALUE_MASK) != 0)) {
+	    throw new IllegalArgumentException(String.format(
+		    "Decision %d for key %d out of range.", value, key));
+	}
+	final long entry = USED | ((long) value << KEY_BITS) | key;
+	final int bucket = this.bucket(key);
+	for (int i = 0; i < WAYS; i++) {
+	    final long current = this.entries.get(bucket + i);
+	    if ((current == 0)
+		    && this.entries.compareAndSet(bucket + i, 0, entry)) {
+		return;
+	    }
+	    if ((current & (USED | KEY_MASK)) == (USED | key)) {
+		// another thread was faster
+		return;
+	    }
+	}
+	// two sweeps find an entry not referenced, unless other threads race
+	final int hand = bucket / WAYS;
+	for (int step = 0; step < (2 * WAYS); step++) {
+	    final int slot =
+		    bucket + (this.hands.getAndIncrement(hand) & (WAYS - 1));
+	    final long current = this.entries.get(slot);
+	    if ((current & REFERENCED) != 0) {
+		this.entries.compareAndSet(slot, current, current
+			& ~REFERENCED);
+	    } else if (this.entries.compareAndSet(slot, current, entry)) {
+		this.evictions.increment();
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Get the number of entries.
+     * 
+     * @return Maximum number of cached decisions
+     */
+    int capacity() {
+	return this.entries.length();
+    }
+
+    /**
+     * Get the share of lookups finding their key, over all caches with the
+     * same name.
+     * 
+     * @return Hit rate from 0 to 1, 0 if nothing was looked up yet
+     */
+    double hitRate() {
+	final long found = this.hits.get();
+	final long total = found + this.misses.get();
+	if (total == 0) {
+	    return 0;
+	}
+	return (double) found / total;
+    }
+}
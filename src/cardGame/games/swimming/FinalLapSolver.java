@@ -0,0 +1,349 @@
+package cardGame.games.swimming;
+
+import java.util.Arrays;
+
+import cardGame.metrics.Counter;
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+
+/**
+ * Exact solver for the last lap of a game. Once a player has closed the round,
+ * every other player moves exactly once more. The solver tries every swap of
+ * the player to move and, for each of them, every way of dealing the hidden
+ * cards to the other players that is consistent with what has been seen. The
+ * players still moving after the solving player are assumed to take the swap
+ * giving them the best hand. The swap with the highest probability of not
+ * holding the lowest hand at the end wins.<br/>
+ * 
+ * Players are visited in a fixed order, so the outcome of the remaining
+ * players only depends on the cards still hidden, the cards on the table and
+ * the points to beat. Results are memoized by a key packed from these values.
+ * Solving stops as soon as the time budget or the deadline of the move is
+ * exhausted, in which case no move is suggested.
+ */
+final class FinalLapSolver {
+    /** Time needed for solving. */
+    private static final Histogram SOLVE_NANOS = MetricsRegistry.global()
+	    .histogram("solver.nanos");
+    /** Number of solves given up because of the time budget. */
+    private static final Counter ABORTED = MetricsRegistry.global().counter(
+	    "solver.aborted");
+    /** Number of hands evaluated between two checks of the deadline. */
+    private static final int DEADLINE_CHECK = 128;
+    /** Number of bits used to index the memo. */
+    private static final int MEMO_BITS = 16;
+    /** Number of memo entries. */
+    private static final int MEMO_SIZE = 1 << MEMO_BITS;
+    /** Multiplier spreading memo keys, derived from the golden ratio. */
+    private static final long MEMO_HASH = 0x9e3779b97f4a7c15L;
+    /** Marks a used memo entry, as key 0 is valid. */
+    private static final long MEMO_USED = 1L << 62;
+    /** Bit position of the player index in a memo key. */
+    private static final int KEY_INDEX = 51;
+    /** Bit position of the points to beat in a memo key. */
+    private static final int KEY_POINTS = 45;
+    /** Bit position of the table hand in a memo key. */
+    private static final int KEY_TABLE = 32;
+    /** Memo keys, 0 for empty entries. */
+    private final long[] memoKeys = new long[MEMO_SIZE];
+    /** Memo values, probability of losing. */
+    private final double[] memoValues = new double[MEMO_SIZE];
+    /** Number of used memo entries. */
+    private int memoUsed;
+    /** Number of other players still moving. */
+    private int movers;
+    /** Number of other players. */
+    private int others;
+    /** Known cards of the other players, those still moving first. */
+    private final int[] known = new int[GameState.MAX_PLAYERS];
+    /** Doubled points to beat for the current swap. */
+    private int points;
+    /** Time budget in nanoseconds. */
+    private final long budget;
+    /** Time at which solving stops. */
+    private long deadline;
+    /** Hands evaluated until the next deadline check. */
+    private int untilCheck;
+    /** True if the budget was exhausted. */
+    private boolean aborted;
+    /** Number of hands evaluated by the last solve. */
+    private long evaluated;
+    /** Probability of surviving with the last suggested move. */
+    private double survival;
+
+    /**
+     * Constructor.
+     * 
+     * @param budgetMicros
+     *            Time budget for solving a lap in microseconds
+     */
+    FinalLapSolver(final long budgetMicros) {
+	this.budget = budgetMicros * 1000;
+    }
+
+    /**
+     * Get the probability of surviving with the move returned by the last
+     * successful call to {@link #solve(GameState, int, long)}.
+     * 
+     * @return Probability of not holding the lowest hand at the end
+     */
+    double survival() {
+	return this.survival;
+    }
+
+    /**
+     * Get the number of hands evaluated by the last call to
+     * {@link #solve(GameState, int, long)}.
+     * 
+     * @return Number of hands
+     */
+    long evaluated() {
+	return this.evaluated;
+    }
+
+    /**
+     * Get the number of moves looked ahead by the last call to
+     * {@link #solve(GameState, int, long)}: the own move and those of all
+     * players still moving.
+     * 
+     * @return Number of moves
+     */
+    int depth() {
+	return this.movers + 1;
+    }
+
+    /**
+     * Find the swap maximizing the chance to survive the last lap.
+     * 
+     * @param state
+     *            Current game with a closed round. The hand of the player to
+     *            move must be complete, other hands contain only the cards
+     *            known to be held.
+     * @param hidden
+     *            Card bitmask of all cards possibly held by other players
+     * @param moveDeadline
+     *            Time at which the move must be committed, see
+     *            {@link System#nanoTime()}. Solving stops at this time, if
+     *            it is before the end of the time budget.
+     * @return Best swap or -1, if the time was not sufficient
+     */
+    int solve(final GameState state, final int hidden,
+	    final long moveDeadline) {
+	final long start = System.nanoTime();
+	this.deadline = Math.min(start + this.budget, moveDeadline);
+	this.untilCheck = DEADLINE_CHECK;
+	this.aborted = false;
+	this.evaluated = 0;
+	if (this.memoUsed > 0) {
+	    Arrays.fill(this.memoKeys, 0);
+	    this.memoUsed = 0;
+	}
+	this.setupOrder(state);
+
+	final int seat = state.toMove();
+	final int hand = state.hand(seat);
+	int bestMove = -1;
+	int bestPoints = -1;
+	double bestSurvival = -1;
+	for (int pick = state.table(); pick != 0; pick &= pick - 1) {
+	    final int pickBit = Integer.lowestOneBit(pick);
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		final int dropBit = Integer.lowestOneBit(drop);
+		this.points =
+			HandEvaluator.handPoints(hand ^ pickBit ^ dropBit);
+		final double chance =
+			1 - this.lose(0, state.table() ^ pickBit ^ dropBit,
+				hidden);
+		if (this.aborted) {
+		    ABORTED.increment();
+		    return -1;
+		}
+		if ((chance > bestSurvival)
+			|| ((chance == bestSurvival)
+				&& (this.points > bestPoints))) {
+		    bestSurvival = chance;
+		    bestPoints = this.points;
+		    bestMove =
+			    GameState.swap(
+				    Integer.numberOfTrailingZeros(pickBit),
+				    Integer.numberOfTrailingZeros(dropBit));
+		}
+	    }
+	}
+	this.survival = bestSurvival;
+	SOLVE_NANOS.recordSince(start);
+	return bestMove;
+    }
+
+    /**
+     * Sort the other players into the order they are evaluated. Players moving
+     * after the solving player come first in turn order, followed by those
+     * who already finished their lap.
+     * 
+     * @param state
+     *            Current game
+     */
+    private void setupOrder(final GameState state) {
+	final int players = state.players();
+	int seat = state.toMove();
+	this.others = 0;
+	this.movers = 0;
+	boolean moving = true;
+	for (int i = 1; i < players; i++) {
+	    seat++;
+	    if (seat == players) {
+		seat = 0;
+	    }
+	    if (seat == state.closingSeat()) {
+		moving = false;
+	    }
+	    if (moving) {
+		this.movers++;
+	    }
+	    this.known[this.others] = state.hand(seat);
+	    this.others++;
+	}
+    }
+
+    /**
+     * Get the probability that all players starting at the given index end up
+     * with at least {@link #points}.
+     * 
+     * @param index
+     *            Index of the player in {@link #known}
+     * @param table
+     *            Card bitmask of the table cards
+     * @param hidden
+     *            Card bitmask of the cards not dealt yet
+     * @return Probability of losing
+     */
+    private double lose(final int index, final int table, final int hidden) {
+	if (index == this.others) {
+	    return 1;
+	}
+	// the table only matters, if there are moves left
+	long tableKey = 0;
+	if (index < this.movers) {
+	    tableKey = HandEvaluator.handIndex(table) + 1;
+	}
+	final long key =
+		((long) index << KEY_INDEX)
+			| ((long) this.points << KEY_POINTS)
+			| (tableKey << KEY_TABLE) | (hidden & 0xffffffffL);
+	final int hash = (int) ((key * MEMO_HASH) >>> (Long.SIZE - MEMO_BITS));
+	for (int slot = hash; this.memoKeys[slot] != 0; slot =
+		(slot + 1) & (MEMO_SIZE - 1)) {
+	    if (this.memoKeys[slot] == (key | MEMO_USED)) {
+		return this.memoValues[slot];
+	    }
+	}
+
+	final int need =
+		HandEvaluator.HAND_SIZE - Integer.bitCount(this.known[index]);
+	final double value =
+		this.deal(index, table, hidden, this.known[index], hidden, need)
+			/ combinations(Integer.bitCount(hidden), need);
+	// keep some entries free to end probing
+	if (!this.aborted && (this.memoUsed < (MEMO_SIZE >>> 1))) {
+	    // deeper players may have taken the slot found above
+	    int slot = hash;
+	    while (this.memoKeys[slot] != 0) {
+		slot = (slot + 1) & (MEMO_SIZE - 1);
+	    }
+	    this.memoKeys[slot] = key | MEMO_USED;
+	    this.memoValues[slot] = value;
+	    this.memoUsed++;
+	}
+	return value;
+    }
+
+    /**
+     * Deal the missing cards to a player in every possible way and sum up the
+     * probabilities of losing.
+     * 
+     * @param index
+     *            Index of the player in {@link #known}
+     * @param table
+     *            Card bitmask of the table cards
+     * @param hidden
+     *            Card bitmask of the cards not dealt yet
+     * @param hand
+     *            Cards of the player dealt so far
+     * @param candidates
+     *            Cards that may be dealt next, used to deal every combination
+     *            only once
+     * @param need
+     *            Number of cards still to deal
+     * @return Sum of the probabilities of losing over all deals
+     */
+    private double deal(final int index, final int table, final int hidden,
+	    final int hand, final int candidates, final int need) {
+	if (need > 0) {
+	    double sum = 0;
+	    for (int rest = candidates; rest != 0; rest &= rest - 1) {
+		final int card = Integer.lowestOneBit(rest);
+		sum +=
+			this.deal(index, table, hidden & ~card, hand | card,
+				rest & ~card, need - 1);
+		if (this.aborted) {
+		    return 0;
+		}
+	    }
+	    return sum;
+	}
+	if (--this.untilCheck == 0) {
+	    this.untilCheck = DEADLINE_CHECK;
+	    if (System.nanoTime() > this.deadline) {
+		this.aborted = true;
+		return 0;
+	    }
+	}
+	this.evaluated++;
+	if (index >= this.movers) {
+	    if (HandEvaluator.handPoints(hand) < this.points) {
+		return 0;
+	    }
+	    return this.lose(index + 1, table, hidden);
+	}
+	// a moving player takes the swap giving the best hand
+	int bestHand = hand;
+	int bestPoints = -1;
+	for (int pick = table; pick != 0; pick &= pick - 1) {
+	    final int pickBit = Integer.lowestOneBit(pick);
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		final int swapped = hand ^ pickBit ^ Integer.lowestOneBit(drop);
+		final int swappedPoints = HandEvaluator.handPoints(swapped);
+		if (swappedPoints > bestPoints) {
+		    bestPoints = swappedPoints;
+		    bestHand = swapped;
+		}
+	    }
+	}
+	if (bestPoints < this.points) {
+	    return 0;
+	}
+	return this.lose(index + 1, table ^ hand ^ bestHand, hidden);
+    }
+
+    /**
+     * Get the number of ways to choose up to three cards.
+     * 
+     * @param n
+     *            Number of cards to choose from
+     * @param k
+     *            Number of cards to choose, 0 to 3
+     * @return Number of combinations
+     */
+    private static double combinations(final int n, final int k) {
+	switch (k) {
+	case 0:
+	    return 1;
+	case 1:
+	    return n;
+	case 2:
+	    return (n * (n - 1)) / 2;
+	default:
+	    return (n * (n - 1) * (n - 2)) / 6;
+	}
+    }
+}
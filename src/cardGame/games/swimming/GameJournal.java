@@ -0,0 +1,242 @@
+package cardGame.games.swimming;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cardGame.card.CardDeck.Card;
+import cardGame.event.EventBus;
+import cardGame.event.EventHandler;
+import cardGame.event.Subscription;
+import cardGame.out.SegmentWriter;
+import cardGame.player.CardPlayer;
+
+/**
+ * Records everything happening at a {@link Table} into binary segment files.
+ * Each record is a tag byte followed by it's varint encoded values. Players
+ * are stored by seat, cards by their slot in the deck. Sets of cards are
+ * stored as the number of cards followed by the slots packed five bits each,
+ * lowest slot first.<br/>
+ * 
+ * Records:
+ * <ul>
+ * <li>{@link #DEAL} seat, packed hand of the player</li>
+ * <li>{@link #CARDS} packed cards on the table</li>
+ * <li>{@link #NEXTPLAYER} seat</li>
+ * <li>{@link #CARD_PICK} slot of the picked card</li>
+ * <li>{@link #CARD_DROP} slot of the dropped card</li>
+ * <li>{@link #CLOSE_CALL} seat</li>
+ * <li>{@link #GAME_OVER} number of the game</li>
+ * </ul>
+ * A game starts with the first record following a {@link #GAME_OVER} record
+ * or the start of the journal.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+final class GameJournal {
+    /** Record: a player got his cards. */
+    static final int DEAL = 1;
+    /** Record: cards on the table at the start of a game. */
+    static final int CARDS = 2;
+    /** Record: next player whose turn it is. */
+    static final int NEXTPLAYER = 3;
+    /** Record: current player picked a card. */
+    static final int CARD_PICK = 4;
+    /** Record: current player dropped a card. */
+    static final int CARD_DROP = 5;
+    /** Record: a player closed the round. */
+    static final int CLOSE_CALL = 6;
+    /** Record: a game has finished. */
+    static final int GAME_OVER = 7;
+    /** Bits used per packed card slot. */
+    static final int SLOT_BITS = 5;
+    /** Upper bound for the size of a single record. */
+    private static final int MAX_RECORD = 24;
+    /** Table whose game gets recorded. */
+    private final Table table;
+    /** Writer for the segment files. */
+    private final SegmentWriter writer;
+    /** Handlers subscribed to the tables bus. */
+    private final List<Subscription> subscriptions =
+	    new ArrayList<Subscription>();
+    /** Number of records written. */
+    private long records = 0;
+
+    /**
+     * Constructor. Starts recording all events of the table. Must be created
+     * before any player joins the table, so the start of a turn gets recorded
+     * before the moves the player makes in it.
+     * 
+     * @param newTable
+     *            Table whose game should be recorded
+     * @param newWriter
+     *            Writer for the segment files
+     */
+    GameJournal(final Table newTable, final SegmentWriter newWriter) {
+	this.table = newTable;
+	this.writer = newWriter;
+	final EventBus eventBus = newTable.getEventBus();
+	this.subscriptions.add(eventBus.subscribe(Table.Event.DEAL,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			final int seat = GameJournal.this.table.seat(player);
+			GameJournal.this.reserve(DEAL);
+			GameJournal.this.writer.putVarint(seat);
+			GameJournal.this.putCards(GameJournal.this.table
+				.handMask(seat));
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(Table.Event.CARDS,
+		new EventHandler<Iterable<Card>>() {
+		    @Override
+		    public void handle(final Iterable<Card> cards) {
+			int mask = 0;
+			for (Card card : cards) {
+			    mask |= CardStack.bit(card);
+			}
+			GameJournal.this.reserve(CARDS);
+			GameJournal.this.putCards(mask);
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			GameJournal.this.record(NEXTPLAYER,
+				GameJournal.this.table.seat(player));
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(Table.Event.CARD_PICK,
+		new EventHandler<Card>() {
+		    @Override
+		    public void handle(final Card card) {
+			GameJournal.this.record(CARD_PICK,
+				CardStack.slot(card));
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(Table.Event.CARD_DROP,
+		new EventHandler<Card>() {
+		    @Override
+		    public void handle(final Card card) {
+			GameJournal.this.record(CARD_DROP,
+				CardStack.slot(card));
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(Table.Event.CLOSE_CALL,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			GameJournal.this.record(CLOSE_CALL,
+				GameJournal.this.table.seat(player));
+		    }
+		}));
+	this.subscriptions.add(eventBus.subscribe(GameLogic.Event.GAME_OVER,
+		new EventHandler<GameResult>() {
+		    @Override
+		    public void handle(final GameResult result) {
+			GameJournal.this.record(GAME_OVER, result.getGame());
+		    }
+		}));
+    }
+
+    /**
+     * Pack a set of cards. The slots are packed five bits each, with the
+     * lowest slot in the lowest bits.
+     * 
+     * @param mask
+     *            Card bitmask of the cards
+     * @return Packed slots
+     */
+    static long packCards(final int mask) {
+	long packed = 0;
+	int shift = 0;
+	for (int rest = mask; rest != 0; rest &= rest - 1) {
+	    packed |= ((long) Integer.numberOfTrailingZeros(rest)) << shift;
+	    shift += SLOT_BITS;
+	}
+	return packed;
+    }
+
+    /**
+     * Unpack a set of cards packed by {@link #packCards(int)}.
+     * 
+     * @param packed
+     *            Packed slots
+     * @param count
+     *            Number of packed cards
+     * @return Card bitmask of the cards
+     */
+    static int unpackCards(final long packed, final int count) {
+	int mask = 0;
+	for (int i = 0; i < count; i++) {
+	    mask |= 1 << (int) ((packed >>> (i * SLOT_BITS)) & 0x1F);
+	}
+	return mask;
+    }
+
+    /**
+     * Start a new record. Rolls over to the next segment, if the current one
+     * is full.
+     * 
+     * @param tag
+     *            Type of the record
+     */
+    private void reserve(final int tag) {
+	try {
+	    this.writer.reserve(MAX_RECORD);
+	} catch (IOException e) {
+	    throw new IllegalStateException("Unable to write journal.", e);
+	}
+	this.writer.putByte(tag);
+	this.records++;
+    }
+
+    /**
+     * Write a record with a single value.
+     * 
+     * @param tag
+     *            Type of the record
+     * @param value
+     *            Value to write
+     */
+    private void record(final int tag, final int value) {
+	this.reserve(tag);
+	this.writer.putVarint(value);
+    }
+
+    /**
+     * Write a set of cards.
+     * 
+     * @param mask
+     *            Card bitmask of the cards
+     */
+    private void putCards(final int mask) {
+	this.writer.putVarint(Integer.bitCount(mask));
+	this.writer.putVarint(packCards(mask));
+    }
+
+    /**
+     * Get the number of records written.
+     * 
+     * @return Number of records
+     */
+    long getRecords() {
+	return this.records;
+    }
+
+    /**
+     * Stop recording and close the journal.
+     * 
+     * @throws IOException
+     *             If closing the segment files fails
+     */
+    void close() throws IOException {
+	for (Subscription subscription : this.subscriptions) {
+	    subscription.cancel();
+	}
+	this.subscriptions.clear();
+	this.writer.close();
+    }
+}
@@ -1,17 +1,19 @@
 package cardGame.games.swimming;
 
 import java.io.IOException;
-import java.util.Set;
-
+import cardGame.card.CardDeck.Card;
 import cardGame.event.CardGameEvent;
 import cardGame.event.EventBus;
-import cardGame.event.EventReceiver;
+import cardGame.event.EventChannel;
+import cardGame.event.EventHandler;
 import cardGame.logic.CardGame;
 import cardGame.logic.RoundBasedGame;
-import cardGame.out.Debug;
+import cardGame.metrics.Counter;
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+import cardGame.out.Logger;
 import cardGame.player.CardPlayer;
 import cardGame.table.GameTable;
-import cardGame.table.GeneralGameTable;
 import cardGame.util.LoopIterator;
 
 /**
@@ -20,35 +22,73 @@ import cardGame.util.LoopIterator;
  * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
  * 
  */
-public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
+public class GameLogic implements CardGame, RoundBasedGame {
+    /** Logger for this class. */
+    private static final Logger LOG = Logger.get("game");
+    /** Number of games played. */
+    private static final Counter GAMES = MetricsRegistry.global().counter(
+	    "games");
+    /** Number of rounds played. */
+    private static final Counter ROUNDS = MetricsRegistry.global().counter(
+	    "rounds");
+    /** Number of turns taken. */
+    private static final Counter TURNS = MetricsRegistry.global().counter(
+	    "turns");
+    /** Time needed for a game. */
+    private static final Histogram GAME_NANOS = MetricsRegistry.global()
+	    .histogram("game.nanos");
+    /** Time needed for a round. */
+    private static final Histogram ROUND_NANOS = MetricsRegistry.global()
+	    .histogram("round.nanos");
     /** Number of games to play in turn. */
     private int numberOfGamesToPlay = 1;
     /** The table this game is happening at. */
     private Table table = null;
+    /** Event bus of the table. */
+    private EventBus eventBus = null;
+    /** Channel for events emitted by this class. */
+    private EventChannel<Event> eventChannel = null;
     /** Maximum number of rounds to play without anybody winning. */
     private int maxRoundsToPlay;
 
     private boolean roundIsClosed = false;
     private CardPlayer roundClosingPlayer = null;
+    /** Result of the last finished game. */
+    private GameResult lastResult = null;
+    /** If true, wait for a keypress after each game. */
+    private boolean interactive = true;
 
     /** Events emitted by this class. */
     // TODO: describe parameters
     enum Event implements CardGameEvent {
 	/** Next player whose turn it is. */
-	NEXTPLAYER;
+	NEXTPLAYER,
+	/**
+	 * A game has finished.<br/>
+	 * Data: {@link GameResult} of the game
+	 */
+	GAME_OVER;
     }
 
-    /** Empty constructor. This handles the registration for all needed events. */
+    /** Empty constructor. */
     GameLogic() {
-	// register for table events
-	EventBus.INSTANCE.registerEventReceiver(this,
-		GeneralGameTable.Event.values());
-	EventBus.INSTANCE.registerEventReceiver(this, Table.Event.values());
+	// intentionally left blank
     }
 
+    /**
+     * Set the table this game is happening at. This handles the registration
+     * for all needed events.
+     * 
+     * @param newTable
+     *            {@link GameTable} the game is happening at
+     */
     @Override
     public final void setTable(final GameTable newTable) {
 	this.table = (Table) newTable;
+	this.eventBus = newTable.getEventBus();
+	this.eventChannel = this.eventBus.channel(Event.class);
+	// register for table events
+	this.registerEvents();
     }
 
     @Override
@@ -58,7 +98,9 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 
     /** Debug: Wait for a keypress. */
     private void debug_keyPress() {
-	Debug.println(Debug.Level.SYS, "Press return to continue...");
+	LOG.log(Logger.Level.SYS, "Press return to continue...");
+	// make sure the prompt is visible before blocking
+	Logger.flush();
 	try {
 	    System.in.read();
 	} catch (IOException e) {
@@ -66,11 +108,56 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 	}
     }
 
+    /**
+     * Set, if the game should wait for a keypress after each game. Turn this
+     * off for unattended runs.
+     * 
+     * @param newInteractive
+     *            True to wait after each game
+     */
+    public final void setInteractive(final boolean newInteractive) {
+	this.interactive = newInteractive;
+    }
+
     @Override
     public final int getNumberOfGamesToPlay() {
 	return this.numberOfGamesToPlay;
     }
 
+    /**
+     * Get the result of the last finished game.
+     * 
+     * @return Result of the last game or null, if no game has finished yet
+     */
+    public final GameResult getLastResult() {
+	return this.lastResult;
+    }
+
+    /**
+     * Score the hands of all players at the end of a game.
+     * 
+     * @param game
+     *            Number of the game
+     * @param rounds
+     *            Number of rounds played
+     * @param turns
+     *            Number of player turns taken
+     * @return Result of the game
+     */
+    private GameResult scoreGame(final int game, final int rounds,
+	    final int turns) {
+	final byte[] points = new byte[this.table.numberOfPlayers()];
+	int closingSeat = -1;
+	for (int seat = 0; seat < points.length; seat++) {
+	    points[seat] =
+		    (byte) HandEvaluator.handPoints(this.table.handMask(seat));
+	    if (this.table.player().get(seat).equals(this.roundClosingPlayer)) {
+		closingSeat = seat;
+	    }
+	}
+	return new GameResult(game, rounds, turns, closingSeat, points);
+    }
+
     /** Start the game. */
     public final void start() {
 	int currentGame = 1;
@@ -82,6 +169,10 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 	CardPlayer currentPlayer;
 	int gameRound;
 	int gameInteraction;
+	int gameTurns;
+	long gameStart = 0;
+	long roundStart = 0;
+	final boolean timed = MetricsRegistry.isEnabled();
 
 	this.table.close();
 
@@ -90,37 +181,40 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 	    gameStartingPlayer = startingPlayerIterator.next();
 	    currentPlayerIterator.setPosition(gameStartingPlayer);
 	    currentPlayer = gameStartingPlayer;
+	    if (timed) {
+		gameStart = System.nanoTime();
+		roundStart = gameStart;
+	    }
 
-	    Debug.printfn(Debug.Level.INFO, "Game: %d", currentGame);
-	    Debug.printfn(Debug.Level.INFO, "StartingPlayer: %s",
+	    LOG.log(Logger.Level.INFO, "Game: %d", currentGame);
+	    LOG.log(Logger.Level.INFO, "StartingPlayer: %s",
 		    gameStartingPlayer.getName());
 
-	    Debug.printfn(Debug.Level.INFO, "Game %d - Dealing out cards..",
+	    LOG.log(Logger.Level.INFO, "Game %d - Dealing out cards..",
 		    currentGame);
+	    // the starting player may already close on his first turn
+	    this.roundIsClosed = false;
+	    this.roundClosingPlayer = null;
 	    // Starting player is first. This will also set the table cards.
-	    this.table.dealInitialCards(gameStartingPlayer);
-	    for (CardPlayer player : this.table.player()) {
-		if (!player.equals(gameStartingPlayer)) {
-		    this.table.dealCards(player);
-		}
-	    }
-	    EventBus.INSTANCE.fireEvent(Event.NEXTPLAYER, currentPlayer);
+	    this.table.dealGame(gameStartingPlayer);
+	    this.eventChannel.fire(Event.NEXTPLAYER, currentPlayer);
 
-	    Debug.printfn(Debug.Level.INFO, "Game %d - Starting..", currentGame);
+	    LOG.log(Logger.Level.INFO, "Game %d - Starting..", currentGame);
 
 	    // Start gaming rounds:
 	    gameRound = 1;
 	    gameInteraction = 0;
-	    this.roundIsClosed = false;
-	    this.roundClosingPlayer = null;
+	    gameTurns = 1;
 	    while (gameRound < this.maxRoundsToPlay) {
 		// debug:start
-		StringBuffer cardString = new StringBuffer();
-		for (cardGame.card.CardDeck.Card card : this.table
-			.currentCards()) {
-		    cardString.append(card);
+		if (LOG.isEnabled(Logger.Level.INFO)) {
+		    StringBuffer cardString = new StringBuffer();
+		    for (Card card : this.table.currentCards()) {
+			cardString.append(card);
+		    }
+		    LOG.log(Logger.Level.INFO, "Table Cards: %s",
+			    cardString);
 		}
-		Debug.printfn(Debug.Level.INFO, "Table Cards: %s", cardString);
 		// debug:end
 		currentPlayer = currentPlayerIterator.next();
 
@@ -131,19 +225,36 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 		    break;
 		}
 
-		EventBus.INSTANCE.fireEvent(Event.NEXTPLAYER, currentPlayer);
+		this.eventChannel.fire(Event.NEXTPLAYER, currentPlayer);
+		gameTurns++;
 		gameInteraction++;
 		if (gameInteraction == this.table.numberOfPlayers()) {
 		    gameInteraction = 0;
 		    gameRound++;
+		    if (timed) {
+			final long now = System.nanoTime();
+			ROUND_NANOS.record(now - roundStart);
+			roundStart = now;
+		    }
 		}
 	    }
 	    // debug:start
-	    Debug.printfn(Debug.Level.INFO,
+	    LOG.log(Logger.Level.INFO,
 		    "Game %d of %d finished after %d of %d rounds.",
 		    currentGame, this.numberOfGamesToPlay, gameRound,
 		    this.maxRoundsToPlay);
-	    this.debug_keyPress();
+	    this.lastResult = this.scoreGame(currentGame, gameRound, gameTurns);
+	    if (timed) {
+		GAME_NANOS.recordSince(gameStart);
+	    }
+	    GAMES.increment();
+	    ROUNDS.add(gameRound);
+	    TURNS.add(gameTurns);
+	    LOG.log(Logger.Level.INFO, "%s", this.lastResult);
+	    this.eventChannel.fire(Event.GAME_OVER, this.lastResult);
+	    if (this.interactive) {
+		this.debug_keyPress();
+	    }
 	    // debug:end
 
 	    this.table.startNewGame();
@@ -161,42 +272,18 @@ public class GameLogic implements CardGame, RoundBasedGame, EventReceiver {
 	return this.maxRoundsToPlay;
     }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public final void handleEvent(final CardGameEvent event, final Object data) {
-	Class<? extends CardGameEvent> eventClass = event.getClass();
-	if (eventClass.equals(GeneralGameTable.Event.class)) {
-	    switch ((GeneralGameTable.Event) event) {
-	    case CLOSED:
-		Debug.println(Debug.Level.INFO, "Table is now closed.");
-		break;
-	    case PLAYER_JOINED:
-		Debug.printfn(Debug.Level.INFO,
-			"Player '%s' joined the table.", data);
-		break;
-	    case PLAYER_LEFT:
-		Debug.printfn(Debug.Level.INFO, "Player '%s' left the table.",
-			data);
-		break;
-	    default:
-		break;
-	    }
-	} else if (eventClass.equals(Table.Event.class)) {
-	    switch ((Table.Event) event) {
-	    case CARDS:
-		StringBuffer cardString = new StringBuffer();
-		for (cardGame.card.CardDeck.Card card : (Set<cardGame.card.CardDeck.Card>) data) {
-		    cardString.append(card);
-		}
-		Debug.printfn(Debug.Level.INFO, "Table cards: %s", cardString);
-		break;
-	    case CLOSE_CALL:
-		this.roundIsClosed = true;
-		this.roundClosingPlayer = (CardPlayer) data;
-		break;
-	    default:
-		break;
-	    }
-	}
+    /**
+     * Subscribe handlers for all table events affecting the game. Logging is
+     * done by {@link TableLog} outside of the game thread.
+     */
+    private void registerEvents() {
+	this.eventBus.subscribe(Table.Event.CLOSE_CALL,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			GameLogic.this.roundIsClosed = true;
+			GameLogic.this.roundClosingPlayer = player;
+		    }
+		});
     }
 }
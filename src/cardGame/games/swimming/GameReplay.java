@@ -0,0 +1,372 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import cardGame.out.Logger;
+import cardGame.out.SegmentReader;
+
+/**
+ * Replays a single game recorded by a {@link GameJournal}. The moves of the
+ * game are decoded once into plain arrays. Jumping to a turn then only applies
+ * the recorded picks and drops to the card bitmasks, without any players,
+ * events or logging involved. Readable output is only rendered on request for
+ * the turn being looked at.<br/>
+ * 
+ * The journal stores the dealt hands instead of the seed, so replaying doesn't
+ * depend on the random source or the strategies that played the game.<br/>
+ * 
+ * A turn number <code>t</code> refers to the state before the <code>t</code>
+ * -th turn is played. Turn zero is the state right after dealing.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+final class GameReplay {
+    /** Marks a turn without a pick or drop. */
+    private static final byte NONE = -1;
+    /** Initial size of the move arrays. */
+    private static final int INITIAL_TURNS = 64;
+    /** Number of the game. */
+    private int game = 0;
+    /** Number of players. */
+    private int players = 0;
+    /** Hands dealt by seat. */
+    private final int[] dealtHands = new int[Byte.MAX_VALUE];
+    /** Cards dealt to the table. */
+    private int dealtTable = 0;
+    /** Number of recorded turns. */
+    private int turns = 0;
+    /** Seat playing each turn. */
+    private byte[] seats = new byte[INITIAL_TURNS];
+    /** Slot of the picked card for each turn. */
+    private byte[] picks = new byte[INITIAL_TURNS];
+    /** Slot of the dropped card for each turn. */
+    private byte[] drops = new byte[INITIAL_TURNS];
+    /** Turn in which the round was closed, -1 if not closed. */
+    private int closeTurn = -1;
+
+    /** Number of turns applied to the current state. */
+    private int position = 0;
+    /** Current hands by seat. */
+    private final int[] hands = new int[Byte.MAX_VALUE];
+    /** Current cards on the table. */
+    private int tableMask = 0;
+    /** All cards that have been on the table. */
+    private int seenMask = 0;
+
+    /** Constructor. Use {@link #read(SegmentReader, int)}. */
+    private GameReplay() {
+	// intentionally left blank
+    }
+
+    /**
+     * Read a game from a journal.
+     * 
+     * @param reader
+     *            Reader for the journal segments
+     * @param game
+     *            Number of the game to read
+     * @return Replay of the game or null, if the game was not found
+     * @throws IOException
+     *             If reading fails
+     */
+    static GameReplay read(final SegmentReader reader, final int game)
+	    throws IOException {
+	GameReplay replay = new GameReplay();
+	int tag;
+	while ((tag = reader.nextTag()) != 0) {
+	    switch (tag) {
+	    case GameJournal.DEAL:
+		final int seat = (int) reader.getVarint();
+		replay.players = Math.max(replay.players, seat + 1);
+		replay.dealtHands[seat] = readCards(reader);
+		break;
+	    case GameJournal.CARDS:
+		replay.dealtTable = readCards(reader);
+		break;
+	    case GameJournal.NEXTPLAYER:
+		replay.addTurn((int) reader.getVarint());
+		break;
+	    case GameJournal.CARD_PICK:
+		replay.picks[replay.turns - 1] = (byte) reader.getVarint();
+		break;
+	    case GameJournal.CARD_DROP:
+		replay.drops[replay.turns - 1] = (byte) reader.getVarint();
+		break;
+	    case GameJournal.CLOSE_CALL:
+		reader.getVarint();
+		replay.closeTurn = replay.turns - 1;
+		break;
+	    case GameJournal.GAME_OVER:
+		replay.game = (int) reader.getVarint();
+		if (replay.game == game) {
+		    replay.seek(0);
+		    return replay;
+		}
+		replay = new GameReplay();
+		break;
+	    default:
+		throw new IllegalStateException(String.format(
+			"Unknown record %d in segment %d.", tag,
+			reader.getSegment()));
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Read a set of cards.
+     * 
+     * @param reader
+     *            Reader positioned at the cards
+     * @return Card bitmask of the cards
+     */
+    private static int readCards(final SegmentReader reader) {
+	final int count = (int) reader.getVarint();
+	return GameJournal.unpackCards(reader.getVarint(), count);
+    }
+
+    /**
+     * Record the start of a new turn.
+     * 
+     * @param seat
+     *            Seat of the player whose turn it is
+     */
+    private void addTurn(final int seat) {
+	if (this.turns == this.seats.length) {
+	    final int size = this.seats.length * 2;
+	    this.seats = Arrays.copyOf(this.seats, size);
+	    this.picks = Arrays.copyOf(this.picks, size);
+	    this.drops = Arrays.copyOf(this.drops, size);
+	}
+	this.seats[this.turns] = (byte) seat;
+	this.picks[this.turns] = NONE;
+	this.drops[this.turns] = NONE;
+	this.turns++;
+    }
+
+    /**
+     * Jump to a turn. Moving forward only applies the turns in between,
+     * moving backwards starts over from the deal.
+     * 
+     * @param turn
+     *            Turn to jump to, between 0 and {@link #getTurns()}
+     */
+    void seek(final int turn) {
+	if ((turn < 0) || (turn > this.turns)) {
+	    throw new IllegalArgumentException(String.format(
+		    "Turn %d out of range 0-%d.", turn, this.turns));
+	}
+	if ((turn < this.position) || (turn == 0)) {
+	    System.arraycopy(this.dealtHands, 0, this.hands, 0, this.players);
+	    this.tableMask = this.dealtTable;
+	    this.seenMask = this.dealtTable;
+	    this.position = 0;
+	}
+	while (this.position < turn) {
+	    final int seat = this.seats[this.position];
+	    final int pick = this.picks[this.position];
+	    final int drop = this.drops[this.position];
+	    if (pick != NONE) {
+		this.hands[seat] |= 1 << pick;
+		this.tableMask &= ~(1 << pick);
+	    }
+	    if (drop != NONE) {
+		this.hands[seat] &= ~(1 << drop);
+		this.tableMask |= 1 << drop;
+		this.seenMask |= 1 << drop;
+	    }
+	    this.position++;
+	}
+    }
+
+    /**
+     * Get the number of the game.
+     * 
+     * @return Game number
+     */
+    int getGame() {
+	return this.game;
+    }
+
+    /**
+     * Get the number of players.
+     * 
+     * @return Number of players
+     */
+    int numberOfPlayers() {
+	return this.players;
+    }
+
+    /**
+     * Get the number of recorded turns.
+     * 
+     * @return Number of turns
+     */
+    int getTurns() {
+	return this.turns;
+    }
+
+    /**
+     * Get the current turn.
+     * 
+     * @return Turn the replay is at
+     */
+    int getPosition() {
+	return this.position;
+    }
+
+    /**
+     * Get the seat of the player whose turn it is.
+     * 
+     * @return Seat of the current player or -1, if the game is over
+     */
+    int currentSeat() {
+	if (this.position == this.turns) {
+	    return -1;
+	}
+	return this.seats[this.position];
+    }
+
+    /**
+     * Check if the round has been closed before the current turn.
+     * 
+     * @return True, if the round is closed
+     */
+    boolean isClosed() {
+	return (this.closeTurn >= 0) && (this.closeTurn < this.position);
+    }
+
+    /**
+     * Get the cards a player is holding at the current turn.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return Card bitmask of the players cards
+     */
+    int handMask(final int seat) {
+	return this.hands[seat];
+    }
+
+    /**
+     * Get the cards on the table at the current turn.
+     * 
+     * @return Card bitmask of the table cards
+     */
+    int tableMask() {
+	return this.tableMask;
+    }
+
+    /**
+     * Get all cards that have been on the table up to the current turn.
+     * 
+     * @return Card bitmask of the seen cards
+     */
+    int seenMask() {
+	return this.seenMask;
+    }
+
+    /**
+     * Render the current state as text.
+     * 
+     * @return The table and all hands with their values
+     */
+    StringBuffer dump() {
+	final StringBuffer dump = new StringBuffer();
+	dump.append(String.format("Game %d turn %d of %d%s%n", this.game,
+		this.position, this.turns, this.isClosed() ? " (closed)" : ""));
+	dump.append(String.format("Table: %s%n", cards(this.tableMask)));
+	for (int seat = 0; seat < this.players; seat++) {
+	    dump.append(String.format("%s%d: %s %.1f%n",
+		    seat == this.currentSeat() ? "*" : " ", seat,
+		    cards(this.hands[seat]),
+		    HandEvaluator.handValue(this.hands[seat])));
+	}
+	final int seat = this.currentSeat();
+	if (seat >= 0) {
+	    dump.append(String.format("Move: pick %s drop %s%n",
+		    slotName(this.picks[this.position]),
+		    slotName(this.drops[this.position])));
+	}
+	return dump;
+    }
+
+    /**
+     * Render the view an {@link AIPlayer} would have on the current turn.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return View of the player as text-tables
+     */
+    StringBuffer dumpView(final int seat) {
+	final AIPlayer view = new AIPlayer("Replay");
+	view.restore(this.hands[seat], this.tableMask, this.seenMask);
+	return view.dumpView();
+    }
+
+    /**
+     * Get the text representation of some cards.
+     * 
+     * @param mask
+     *            Card bitmask of the cards
+     * @return Cards as text
+     */
+    private static String cards(final int mask) {
+	final CardStack stack = new CardStack();
+	stack.setCardMask(mask);
+	return stack.toString();
+    }
+
+    /**
+     * Get the text representation of a single card.
+     * 
+     * @param slot
+     *            Slot of the card
+     * @return Card as text or "-", if no card is given
+     */
+    private static String slotName(final int slot) {
+	if (slot == NONE) {
+	    return "-";
+	}
+	return CardStack.card(slot).toString();
+    }
+
+    /**
+     * Print a recorded game.
+     * 
+     * @param args
+     *            Journal directory, segment prefix (e.g. table-0), game number
+     *            and optionally the turn to show. Without a turn all turns
+     *            are shown.
+     * @throws IOException
+     *             If reading the journal fails
+     */
+    public static void main(final String[] args) throws IOException {
+	if (args.length < 3) {
+	    Logger.print("Usage: GameReplay "
+		    + "<directory> <prefix> <game> [turn]\n");
+	    return;
+	}
+	final int game = Integer.parseInt(args[2]);
+	final GameReplay replay =
+		read(new SegmentReader(new File(args[0]), args[1]), game);
+	if (replay == null) {
+	    Logger.print(String.format("Game %d not found.%n", game));
+	} else if (args.length > 3) {
+	    replay.seek(Integer.parseInt(args[3]));
+	    Logger.print(replay.dump().toString());
+	    if (replay.currentSeat() >= 0) {
+		Logger.print(replay.dumpView(replay.currentSeat())
+			.append('\n').toString());
+	    }
+	} else {
+	    for (int turn = 0; turn <= replay.getTurns(); turn++) {
+		replay.seek(turn);
+		Logger.print(replay.dump().toString());
+	    }
+	}
+	Logger.flush();
+    }
+}
@@ -0,0 +1,149 @@
+package cardGame.games.swimming;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a single finished game. Players are referenced by their seat,
+ * which is their position in the players list of the {@link Table}.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class GameResult {
+    /** Number of the game. */
+    private final int game;
+    /** Number of rounds played. */
+    private final int rounds;
+    /** Number of player turns taken. */
+    private final int turns;
+    /** Seat of the player who closed the round, -1 if nobody did. */
+    private final int closingSeat;
+    /** Doubled points by seat. */
+    private final byte[] points;
+    /** Bitmask of the seats that lost the game. */
+    private final int loserMask;
+
+    /**
+     * Constructor. Determines the losers of the game. The players holding the
+     * lowest value hand lose. Multiple players may lose, if they share the
+     * lowest value.
+     * 
+     * @param newGame
+     *            Number of the game
+     * @param newRounds
+     *            Number of rounds played
+     * @param newTurns
+     *            Number of player turns taken
+     * @param newClosingSeat
+     *            Seat of the player who closed the round, -1 if nobody did
+     * @param newPoints
+     *            Doubled points by seat as calculated by
+     *            {@link HandEvaluator#handPoints(int)}
+     */
+    GameResult(final int newGame, final int newRounds, final int newTurns,
+	    final int newClosingSeat, final byte[] newPoints) {
+	int lowest = Integer.MAX_VALUE;
+	int losers = 0;
+	for (int seat = 0; seat < newPoints.length; seat++) {
+	    if (newPoints[seat] < lowest) {
+		lowest = newPoints[seat];
+		losers = 1 << seat;
+	    } else if (newPoints[seat] == lowest) {
+		losers |= 1 << seat;
+	    }
+	}
+	this.game = newGame;
+	this.rounds = newRounds;
+	this.turns = newTurns;
+	this.closingSeat = newClosingSeat;
+	this.points = newPoints;
+	this.loserMask = losers;
+    }
+
+    /**
+     * Get the number of the game.
+     * 
+     * @return Game number
+     */
+    public int getGame() {
+	return this.game;
+    }
+
+    /**
+     * Get the number of rounds played.
+     * 
+     * @return Rounds played
+     */
+    public int getRounds() {
+	return this.rounds;
+    }
+
+    /**
+     * Get the number of player turns taken.
+     * 
+     * @return Turns taken
+     */
+    public int getTurns() {
+	return this.turns;
+    }
+
+    /**
+     * Get the seat of the player who closed the round.
+     * 
+     * @return Seat of the closing player or -1 if nobody closed
+     */
+    public int getClosingSeat() {
+	return this.closingSeat;
+    }
+
+    /**
+     * Get the number of players.
+     * 
+     * @return Number of players
+     */
+    public int numberOfPlayers() {
+	return this.points.length;
+    }
+
+    /**
+     * Get the final hand value of a player.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return Hand value
+     */
+    public float getScore(final int seat) {
+	return this.points[seat] / 2f;
+    }
+
+    /**
+     * Check if a player lost the game.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return True, if the player lost
+     */
+    public boolean isLoser(final int seat) {
+	return (this.loserMask & (1 << seat)) != 0;
+    }
+
+    /**
+     * Get the seats of all players who lost the game.
+     * 
+     * @return Bitmask with one bit set per losing seat
+     */
+    public int getLoserMask() {
+	return this.loserMask;
+    }
+
+    @Override
+    public String toString() {
+	final float[] scores = new float[this.points.length];
+	for (int seat = 0; seat < scores.length; seat++) {
+	    scores[seat] = this.getScore(seat);
+	}
+	return String.format("Game %d: rounds=%d turns=%d scores=%s losers=%s",
+		this.game, this.rounds, this.turns, Arrays.toString(scores),
+		Integer.toBinaryString(this.loserMask));
+    }
+}
@@ -0,0 +1,251 @@
+package cardGame.games.swimming;
+
+/**
+ * Compact, copyable state of a swimming game, used by searching players to
+ * play games ahead. Hands and table cards are card bitmasks (see
+ * {@link CardStack#getCardMask()}), players are referenced by seat. States are
+ * meant to be allocated once and reused by {@link #copyFrom(GameState)}.<br/>
+ * 
+ * Moves are encoded as int. A swap of a table card with a hand card stores the
+ * slot of the picked card in bits 5-9 and the slot of the dropped card in bits
+ * 0-4, closing the round is {@link #CLOSE}.
+ */
+final class GameState {
+    /** Maximum number of players at a table. */
+    static final int MAX_PLAYERS = 9;
+    /** Move closing the round. */
+    static final int CLOSE = 1 << 10;
+    /** Maximum number of moves possible in one turn. */
+    static final int MAX_MOVES = 10;
+    /** Bits used by a card slot in a move. */
+    private static final int SLOT_BITS = 5;
+    /** Mask of a card slot in a move. */
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    /** Card bitmask of each players hand by seat. */
+    private final int[] hands = new int[MAX_PLAYERS];
+    /** Card bitmask of the cards on the table. */
+    private int table;
+    /** Number of players. */
+    private int players;
+    /** Seat of the player to move. */
+    private int toMove;
+    /** Seat of the player who closed the round, -1 if nobody did. */
+    private int closingSeat = -1;
+    /** Number of turns taken. */
+    private int turns;
+    /** Number of turns after which the game ends without a close. */
+    private int turnLimit = Integer.MAX_VALUE;
+
+    /**
+     * Encode a swap move.
+     * 
+     * @param pickSlot
+     *            Slot of the card to pick from the table
+     * @param dropSlot
+     *            Slot of the card to drop from the hand
+     * @return Encoded move
+     */
+    static int swap(final int pickSlot, final int dropSlot) {
+	return (pickSlot << SLOT_BITS) | dropSlot;
+    }
+
+    /**
+     * Get the slot of the card picked by a swap move.
+     * 
+     * @param move
+     *            Swap move
+     * @return Card slot
+     */
+    static int pickSlot(final int move) {
+	return (move >>> SLOT_BITS) & SLOT_MASK;
+    }
+
+    /**
+     * Get the slot of the card dropped by a swap move.
+     * 
+     * @param move
+     *            Swap move
+     * @return Card slot
+     */
+    static int dropSlot(final int move) {
+	return move & SLOT_MASK;
+    }
+
+    /**
+     * Reset this state to the start of a search.
+     * 
+     * @param newPlayers
+     *            Number of players
+     * @param newToMove
+     *            Seat of the player to move
+     * @param newTable
+     *            Card bitmask of the cards on the table
+     * @param newClosingSeat
+     *            Seat of the player who closed the round, -1 if nobody did
+     * @param newTurnLimit
+     *            Number of turns after which the game ends without a close
+     */
+    void reset(final int newPlayers, final int newToMove, final int newTable,
+	    final int newClosingSeat, final int newTurnLimit) {
+	this.players = newPlayers;
+	this.toMove = newToMove;
+	this.table = newTable;
+	this.closingSeat = newClosingSeat;
+	this.turns = 0;
+	this.turnLimit = newTurnLimit;
+	for (int seat = 0; seat < MAX_PLAYERS; seat++) {
+	    this.hands[seat] = 0;
+	}
+    }
+
+    /**
+     * Make this state a copy of another one.
+     * 
+     * @param other
+     *            State to copy
+     */
+    void copyFrom(final GameState other) {
+	System.arraycopy(other.hands, 0, this.hands, 0, MAX_PLAYERS);
+	this.table = other.table;
+	this.players = other.players;
+	this.toMove = other.toMove;
+	this.closingSeat = other.closingSeat;
+	this.turns = other.turns;
+	this.turnLimit = other.turnLimit;
+    }
+
+    /**
+     * Set the hand of a player.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param hand
+     *            Card bitmask of the players hand
+     */
+    void setHand(final int seat, final int hand) {
+	this.hands[seat] = hand;
+    }
+
+    /**
+     * Get the hand of a player.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return Card bitmask of the players hand
+     */
+    int hand(final int seat) {
+	return this.hands[seat];
+    }
+
+    /**
+     * Get the cards on the table.
+     * 
+     * @return Card bitmask of the table cards
+     */
+    int table() {
+	return this.table;
+    }
+
+    /**
+     * Get the number of players.
+     * 
+     * @return Number of players
+     */
+    int players() {
+	return this.players;
+    }
+
+    /**
+     * Get the player to move.
+     * 
+     * @return Seat of the player to move
+     */
+    int toMove() {
+	return this.toMove;
+    }
+
+    /**
+     * Get the player who closed the round.
+     * 
+     * @return Seat of the closing player, -1 if nobody closed
+     */
+    int closingSeat() {
+	return this.closingSeat;
+    }
+
+    /**
+     * Check if the game is over. It's over, if the turn got back to the
+     * closing player or the turn limit is reached.
+     * 
+     * @return True if no more moves are possible
+     */
+    boolean isOver() {
+	return ((this.closingSeat >= 0) && (this.toMove == this.closingSeat))
+		|| (this.turns >= this.turnLimit);
+    }
+
+    /**
+     * Get all moves possible for the player to move.
+     * 
+     * @param moves
+     *            Buffer for the moves, at least {@value #MAX_MOVES} long
+     * @return Number of moves stored in the buffer
+     */
+    int moves(final int[] moves) {
+	int count = 0;
+	if (this.closingSeat < 0) {
+	    moves[count++] = CLOSE;
+	}
+	final int hand = this.hands[this.toMove];
+	for (int pick = this.table; pick != 0; pick &= pick - 1) {
+	    final int pickSlot = Integer.numberOfTrailingZeros(pick);
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		moves[count++] =
+			swap(pickSlot, Integer.numberOfTrailingZeros(drop));
+	    }
+	}
+	return count;
+    }
+
+    /**
+     * Play a move for the player to move and pass the turn on.
+     * 
+     * @param move
+     *            Move to play
+     */
+    void apply(final int move) {
+	if (move == CLOSE) {
+	    this.closingSeat = this.toMove;
+	} else {
+	    final int swapped = (1 << pickSlot(move)) | (1 << dropSlot(move));
+	    this.hands[this.toMove] ^= swapped;
+	    this.table ^= swapped;
+	}
+	this.turns++;
+	this.toMove++;
+	if (this.toMove == this.players) {
+	    this.toMove = 0;
+	}
+    }
+
+    /**
+     * Get the players who would lose, if the game ended now.
+     * 
+     * @return Bitmask with one bit set per losing seat
+     * @see GameResult#getLoserMask()
+     */
+    int loserMask() {
+	int lowest = Integer.MAX_VALUE;
+	int losers = 0;
+	for (int seat = 0; seat < this.players; seat++) {
+	    final int points = HandEvaluator.handPoints(this.hands[seat]);
+	    if (points < lowest) {
+		lowest = points;
+		losers = 1 << seat;
+	    } else if (points == lowest) {
+		losers |= 1 << seat;
+	    }
+	}
+	return losers;
+    }
+}
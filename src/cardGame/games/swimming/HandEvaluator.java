@@ -0,0 +1,126 @@
+package cardGame.games.swimming;
+
+import cardGame.card.CardDeck;
+import cardGame.card.CardDeck.Card;
+import cardGame.card.CardDeck.Deck;
+
+/**
+ * Scores three card hands according to the rules of the swimming game. A hand
+ * is worth the highest sum of card values sharing a single color (at most
+ * {@value CardStack#STACKVALUE_MAX}) or {@value #THREE_OF_A_TYPE} if all cards
+ * are of the same type.<br/>
+ * 
+ * All {@value #HANDS} possible hands are scored once on class load. Hands are
+ * passed in as card bitmask (see {@link CardStack#getCardMask()}) and looked up
+ * by their combinatorial index. Points are stored doubled to be able to keep
+ * the half point of {@value #THREE_OF_A_TYPE} in an integer.
+ */
+final class HandEvaluator {
+    /** Number of cards in a hand. */
+    static final int HAND_SIZE = 3;
+    /** Number of possible hands (32 choose 3). */
+    static final int HANDS = 4960;
+    /** Value of a hand with three cards of the same type. */
+    static final float THREE_OF_A_TYPE = 30.5f;
+    /** Binomial coefficients (n choose k) for n up to deck size, k up to 3. */
+    private static final int[][] BINOMIAL =
+	    new int[Deck.SKAT.size() + 1][HAND_SIZE + 1];
+    /** Doubled points for every hand by hand index. */
+    private static final byte[] HAND_POINTS = new byte[HANDS];
+
+    static {
+	for (int n = 0; n <= Deck.SKAT.size(); n++) {
+	    BINOMIAL[n][0] = 1;
+	    for (int k = 1; (k <= HAND_SIZE) && (k <= n); k++) {
+		BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+	    }
+	}
+	for (int a = 0; a < Deck.SKAT.size(); a++) {
+	    for (int b = a + 1; b < Deck.SKAT.size(); b++) {
+		for (int c = b + 1; c < Deck.SKAT.size(); c++) {
+		    final int mask = (1 << a) | (1 << b) | (1 << c);
+		    HAND_POINTS[handIndex(mask)] = (byte) scoreHand(mask);
+		}
+	    }
+	}
+    }
+
+    /** Utility class. */
+    private HandEvaluator() {
+	// intentionally left blank
+    }
+
+    /**
+     * Calculate the doubled points of a hand the slow way. Only used to fill
+     * the lookup table.
+     * 
+     * @param hand
+     *            Card bitmask with exactly three cards set
+     * @return Doubled points of the hand
+     */
+    private static int scoreHand(final int hand) {
+	int best = 0;
+	for (CardDeck.Color color : Deck.SKAT.colors()) {
+	    int sum = 0;
+	    for (int mask = hand & CardStack.colorMask(color); mask != 0; mask &=
+		    mask - 1) {
+		sum +=
+			Table.getCardValue(CardStack.card(Integer
+				.numberOfTrailingZeros(mask)));
+	    }
+	    best = Math.max(best, sum * 2);
+	}
+	final Card card = CardStack.card(Integer.numberOfTrailingZeros(hand));
+	final int typeMask = CardStack.typeMask(card.getType());
+	if (Integer.bitCount(hand & typeMask) == HAND_SIZE) {
+	    best = Math.max(best, (int) (THREE_OF_A_TYPE * 2));
+	}
+	return best;
+    }
+
+    /**
+     * Get the combinatorial index of a hand. Each of the {@value #HANDS}
+     * possible hands maps to a unique index in the range
+     * <code>0..HANDS-1</code>.
+     * 
+     * @param hand
+     *            Card bitmask with exactly three cards set
+     * @return Index of the hand
+     */
+    static int handIndex(final int hand) {
+	int mask = hand;
+	final int a = Integer.numberOfTrailingZeros(mask);
+	mask &= mask - 1;
+	final int b = Integer.numberOfTrailingZeros(mask);
+	mask &= mask - 1;
+	final int c = Integer.numberOfTrailingZeros(mask);
+	return BINOMIAL[a][1] + BINOMIAL[b][2] + BINOMIAL[c][HAND_SIZE];
+    }
+
+    /**
+     * Get the doubled points of a hand. Use this for comparing hands.
+     * 
+     * @param hand
+     *            Card bitmask with exactly three cards set
+     * @return Doubled points of the hand
+     */
+    static int handPoints(final int hand) {
+	if (Integer.bitCount(hand) != HAND_SIZE) {
+	    throw new IllegalArgumentException(String.format(
+		    "A hand must have %d cards (got %d).", HAND_SIZE,
+		    Integer.bitCount(hand)));
+	}
+	return HAND_POINTS[handIndex(hand)];
+    }
+
+    /**
+     * Get the value of a hand.
+     * 
+     * @param hand
+     *            Card bitmask with exactly three cards set
+     * @return Value of the hand
+     */
+    static float handValue(final int hand) {
+	return handPoints(hand) / 2f;
+    }
+}
@@ -0,0 +1,199 @@
+package cardGame.games.swimming;
+
+import java.util.Arrays;
+
+import cardGame.card.CardDeck;
+
+/**
+ * Estimates the hands of the other players at a table. For every seat a
+ * probability vector over all cards is kept, holding the chance of each card
+ * being in that players hand.<br/>
+ * 
+ * At the start of a game every card not seen is equally likely. A picked card
+ * is known to be held by the picking player until it's dropped again. A
+ * player dropping a card is assumed not to collect it's color, so his chances
+ * of holding other cards of that color are lowered.<br/>
+ * 
+ * Vectors are stored as weights in a single float array, one row of
+ * {@value #CARDS} entries per seat, along with the sum of each row. Chances
+ * are scaled from the weights when asked for, so the chances of a player sum
+ * up to the number of his cards not known. Thus a swap only touches one
+ * entry per player and the row of the swapping player. Row updates are plain
+ * loops, which the JIT compiler is able to vectorize.
+ */
+final class HandInference {
+    /** Number of cards in the game. */
+    static final int CARDS = CardStack.CARDS.size();
+    /** Factor applied to cards of a color dropped by a player. */
+    static final float DROP_COLOR_FACTOR = 0.5f;
+    /**
+     * Rows of ones for all cards of a color and zeros for others, by
+     * {@link CardDeck.Color#ordinal()}.
+     */
+    private static final float[][] COLOR_ROWS =
+	    new float[CardDeck.Color.values().length][CARDS];
+
+    static {
+	for (int slot = 0; slot < CARDS; slot++) {
+	    COLOR_ROWS[CardStack.card(slot).getColor().ordinal()][slot] = 1;
+	}
+    }
+
+    /** Weights of not known cards, one row per seat. */
+    private final float[] weights = new float[GameState.MAX_PLAYERS * CARDS];
+    /** Sum of the weights of each seat. */
+    private final float[] sums = new float[GameState.MAX_PLAYERS];
+    /** Card bitmask of the cards known to be held by seat. */
+    private final int[] known = new int[GameState.MAX_PLAYERS];
+    /** Number of players. */
+    private int players;
+    /** Seat of the player owning this view, it's row stays empty. */
+    private int ownSeat = -1;
+
+    /**
+     * Start a new game. All cards not in the own hand and not on the table
+     * get the same chance.
+     * 
+     * @param newPlayers
+     *            Number of players
+     * @param newOwnSeat
+     *            Seat of the player owning this view, -1 if not seated
+     * @param ownHand
+     *            Card bitmask of the own hand
+     * @param table
+     *            Card bitmask of the cards on the table
+     */
+    void reset(final int newPlayers, final int newOwnSeat, final int ownHand,
+	    final int table) {
+	this.players = newPlayers;
+	this.ownSeat = newOwnSeat;
+	Arrays.fill(this.weights, 0);
+	Arrays.fill(this.sums, 0);
+	Arrays.fill(this.known, 0);
+	final int unseen = CardStack.MASK_ALL & ~ownHand & ~table;
+	for (int seat = 0; seat < this.players; seat++) {
+	    if (seat == this.ownSeat) {
+		continue;
+	    }
+	    final int base = seat * CARDS;
+	    for (int rest = unseen; rest != 0; rest &= rest - 1) {
+		this.weights[base + Integer.numberOfTrailingZeros(rest)] = 1;
+	    }
+	    this.sums[seat] = Integer.bitCount(unseen);
+	}
+    }
+
+    /**
+     * Remove a card from the weights of all players.
+     * 
+     * @param slot
+     *            Slot of the card
+     */
+    private void remove(final int slot) {
+	for (int seat = 0; seat < this.players; seat++) {
+	    final int index = (seat * CARDS) + slot;
+	    this.sums[seat] -= this.weights[index];
+	    this.weights[index] = 0;
+	}
+    }
+
+    /**
+     * A player picked a card from the table.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param card
+     *            Card picked
+     */
+    void pick(final int seat, final CardDeck.Card card) {
+	final int slot = CardStack.slot(card);
+	// the card came from the table, so only the known cards change
+	if (seat != this.ownSeat) {
+	    this.known[seat] |= 1 << slot;
+	}
+	this.remove(slot);
+    }
+
+    /**
+     * A player dropped a card to the table.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param card
+     *            Card dropped
+     */
+    void drop(final int seat, final CardDeck.Card card) {
+	final int slot = CardStack.slot(card);
+	// the card is on the table now, so nobody holds it
+	this.remove(slot);
+	if (seat != this.ownSeat) {
+	    this.known[seat] &= ~(1 << slot);
+	    this.lower(seat, COLOR_ROWS[card.getColor().ordinal()],
+		    DROP_COLOR_FACTOR);
+	}
+    }
+
+    /**
+     * Lower the weights of the cards selected by a row.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param row
+     *            One for each card to lower, zero for others
+     * @param factor
+     *            Factor applied to selected cards
+     */
+    private void lower(final int seat, final float[] row, final float factor) {
+	final int base = seat * CARDS;
+	final float reduction = 1 - factor;
+	float sum = 0;
+	for (int slot = 0; slot < CARDS; slot++) {
+	    final float weight =
+		    this.weights[base + slot] * (1 - (reduction * row[slot]));
+	    this.weights[base + slot] = weight;
+	    sum += weight;
+	}
+	this.sums[seat] = sum;
+    }
+
+    /**
+     * Get the chance of a player holding a card. The weights of a player are
+     * scaled to sum up to the number of his cards not known.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param card
+     *            Card to check
+     * @return Chance from 0 to 1
+     */
+    float chance(final int seat, final CardDeck.Card card) {
+	final int slot = CardStack.slot(card);
+	if ((this.known[seat] & (1 << slot)) != 0) {
+	    return 1;
+	}
+	final float weight = this.weights[(seat * CARDS) + slot];
+	if (weight <= 0) {
+	    return 0;
+	}
+	final int unknown =
+		HandEvaluator.HAND_SIZE - Integer.bitCount(this.known[seat]);
+	return Math.min(1, (weight * unknown) / this.sums[seat]);
+    }
+
+    /**
+     * Get the chance of a card not being held by any other player.
+     * 
+     * @param card
+     *            Card to check
+     * @return Chance from 0 to 1
+     */
+    float free(final CardDeck.Card card) {
+	float free = 1;
+	for (int seat = 0; seat < this.players; seat++) {
+	    if (seat != this.ownSeat) {
+		free *= 1 - this.chance(seat, card);
+	    }
+	}
+	return free;
+    }
+}
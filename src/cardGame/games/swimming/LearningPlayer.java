@@ -0,0 +1,354 @@
+package cardGame.games.swimming;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import cardGame.card.CardDeck;
+import cardGame.card.CardDeck.Card;
+import cardGame.event.EventHandler;
+import cardGame.player.CardPlayer;
+import cardGame.player.GeneralCardPlayer;
+import cardGame.util.RandomSource;
+
+/**
+ * Computer player choosing the move with the highest learned value, stored
+ * in a {@link ValueTable}. Values are learned by self-play with Monte Carlo
+ * control: while training, every move taken in a game is moved towards the
+ * outcome of that game, which is -1 for losing and 0 otherwise. Moves not
+ * taken yet keep their value of 0, so they look promising until tried.<br/>
+ * 
+ * A state is what the player sees: his hand and the table cards (as
+ * {@link PolicyTable#position(int, int)}), the round in {@value #ROUNDS}
+ * buckets and whether the round is closed. All colors count the same, so
+ * hand and table are relabeled to a canonical order of colors first, which
+ * lets up to 24 positions share their values. Moves are encoded as by the
+ * {@link PolicyTable} on the relabeled cards. The key of a move in a state
+ * is <code>state * {@value #MOVES} + move</code>.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+class LearningPlayer extends GeneralCardPlayer {
+    /** Number of round buckets, the last one holding all later rounds. */
+    static final int ROUNDS = 2;
+    /** Number of moves. */
+    static final int MOVES = PolicyTable.CLOSE + 1;
+    /** Number of moves stored for a game before growing the buffer. */
+    private static final int INITIAL_MOVES = 64;
+    /** Number of colors. */
+    private static final int COLORS = CardDeck.Color.values().length;
+    /** Number of types. */
+    private static final int TYPES = CardDeck.Type.values().length;
+    /** Card slots by color ordinal times {@value #TYPES} plus type ordinal. */
+    private static final int[] SLOTS = new int[COLORS * TYPES];
+    /** Color ordinals by card slot. */
+    private static final int[] SLOT_COLORS = new int[CardStack.CARDS.size()];
+    /** Type ordinals by card slot. */
+    private static final int[] SLOT_TYPES = new int[CardStack.CARDS.size()];
+
+    static {
+	for (int slot = 0; slot < CardStack.CARDS.size(); slot++) {
+	    final Card card = CardStack.card(slot);
+	    SLOT_COLORS[slot] = card.getColor().ordinal();
+	    SLOT_TYPES[slot] = card.getType().ordinal();
+	    SLOTS[(SLOT_COLORS[slot] * TYPES) + SLOT_TYPES[slot]] = slot;
+	}
+    }
+
+    /** Card bitmask of the players cards. */
+    private int hand;
+    /** Card bitmask of the cards on the table. */
+    private int tableCards;
+    /** True if the round was closed. */
+    private boolean closed;
+    /** Number of turns taken in the current game. */
+    private int turns;
+    /** Learned values, shared by all learning players. */
+    private ValueTable values;
+    /** Chance of a random move while training, 0 to play greedy. */
+    private float explore;
+    /** Fraction of the distance to the outcome moved per game, 0 learns not. */
+    private float rate;
+    /** Random source for exploring. */
+    private final RandomSource random;
+    /** Keys of the moves taken in the current game. */
+    private long[] taken = new long[INITIAL_MOVES];
+    /** Number of moves taken in the current game. */
+    private int takenCount;
+    /** Sort keys of the colors, by color ordinal. */
+    private final int[] colorKeys = new int[COLORS];
+    /** Color ordinals in canonical order. */
+    private final int[] colorOrder = new int[COLORS];
+    /** Canonical rank of the colors, by color ordinal. */
+    private final int[] colorRanks = new int[COLORS];
+
+    /**
+     * Constructor. Values must be set by {@link #setValues(ValueTable)}
+     * before playing.
+     * 
+     * @param newName
+     *            Players name
+     * @param newRandom
+     *            Random source for exploring
+     */
+    LearningPlayer(final String newName, final RandomSource newRandom) {
+	super(newName);
+	this.random = newRandom;
+    }
+
+    /**
+     * Set the values to play by.
+     * 
+     * @param newValues
+     *            Learned values
+     */
+    final void setValues(final ValueTable newValues) {
+	this.values = newValues;
+    }
+
+    /**
+     * Learn from the games played.
+     * 
+     * @param newExplore
+     *            Chance of a random move, 0-1
+     * @param newRate
+     *            Fraction of the distance to the outcome moved per game, 0-1
+     */
+    final void setTraining(final float newExplore, final float newRate) {
+	this.explore = newExplore;
+	this.rate = newRate;
+    }
+
+    /**
+     * Get the key of a state.
+     * 
+     * @param hand
+     *            Card bitmask of the players hand
+     * @param table
+     *            Card bitmask of the table cards
+     * @param round
+     *            Number of the round, starting at zero
+     * @param closed
+     *            True if the round is closed
+     * @return State key
+     */
+    static long state(final int hand, final int table, final int round,
+	    final boolean closed) {
+	long state = PolicyTable.position(hand, table);
+	state = (state * ROUNDS) + Math.min(round, ROUNDS - 1);
+	return (state << 1) | (closed ? 1 : 0);
+    }
+
+    @Override
+    protected final void registerEvents() {
+	super.registerEvents();
+	this.subscribe(Table.Event.CARDS, new EventHandler<Collection<Card>>() {
+	    @Override
+	    public void handle(final Collection<Card> cards) {
+		LearningPlayer.this.tableCards = 0;
+		LearningPlayer.this.closed = false;
+		LearningPlayer.this.turns = 0;
+		LearningPlayer.this.takenCount = 0;
+		for (Card card : cards) {
+		    LearningPlayer.this.tableCards |= CardStack.bit(card);
+		}
+	    }
+	});
+	this.subscribe(Table.Event.CARD_PICK, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		LearningPlayer.this.tableCards &= ~CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CARD_DROP, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		LearningPlayer.this.tableCards |= CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CLOSE_CALL, new EventHandler<CardPlayer>() {
+	    @Override
+	    public void handle(final CardPlayer player) {
+		LearningPlayer.this.closed = true;
+	    }
+	});
+	this.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			LearningPlayer.this.turns++;
+			if (player == LearningPlayer.this) {
+			    LearningPlayer.this.play();
+			}
+		    }
+		});
+	this.subscribe(GameLogic.Event.GAME_OVER,
+		new EventHandler<GameResult>() {
+		    @Override
+		    public void handle(final GameResult result) {
+			LearningPlayer.this.learn(result);
+		    }
+		});
+    }
+
+    @Override
+    public final boolean setCards(final Collection<Card> newCards) {
+	this.hand = 0;
+	for (Card card : newCards) {
+	    this.hand |= CardStack.bit(card);
+	}
+	return true;
+    }
+
+    @Override
+    public final Collection<Card> getCards() {
+	final CardStack cards = new CardStack();
+	cards.setCardMask(this.hand);
+	return cards.getCards();
+    }
+
+    /**
+     * Get the types of the cards of a color.
+     * 
+     * @param cards
+     *            Card bitmask
+     * @param color
+     *            Color ordinal
+     * @return Bitmask of type ordinals
+     */
+    private static int types(final int cards, final int color) {
+	int types = 0;
+	for (int rest = cards; rest != 0; rest &= rest - 1) {
+	    final int slot = Integer.numberOfTrailingZeros(rest);
+	    if (SLOT_COLORS[slot] == color) {
+		types |= 1 << SLOT_TYPES[slot];
+	    }
+	}
+	return types;
+    }
+
+    /**
+     * Order the colors by the cards held and seen on the table, so positions
+     * differing only by their colors get the same order.
+     */
+    private void orderColors() {
+	for (int color = 0; color < COLORS; color++) {
+	    final int key =
+		    (types(this.hand, color) << TYPES)
+			    | types(this.tableCards, color);
+	    this.colorKeys[color] = key;
+	    // insertion sort, highest key first
+	    int index = color;
+	    while ((index > 0)
+		    && (this.colorKeys[this.colorOrder[index - 1]] < key)) {
+		this.colorOrder[index] = this.colorOrder[index - 1];
+		index--;
+	    }
+	    this.colorOrder[index] = color;
+	}
+	for (int rank = 0; rank < COLORS; rank++) {
+	    this.colorRanks[this.colorOrder[rank]] = rank;
+	}
+    }
+
+    /**
+     * Relabel cards to the canonical color order.
+     * 
+     * @param cards
+     *            Card bitmask
+     * @return Relabeled card bitmask
+     */
+    private int canonical(final int cards) {
+	int canonical = 0;
+	for (int rest = cards; rest != 0; rest &= rest - 1) {
+	    final int slot = Integer.numberOfTrailingZeros(rest);
+	    canonical |=
+		    1 << SLOTS[(this.colorRanks[SLOT_COLORS[slot]] * TYPES)
+			    + SLOT_TYPES[slot]];
+	}
+	return canonical;
+    }
+
+    /**
+     * Get the card relabeled by {@link #canonical(int)} to a bit.
+     * 
+     * @param bit
+     *            Bit of the relabeled card
+     * @return Card
+     */
+    private Card actual(final int bit) {
+	final int slot = Integer.numberOfTrailingZeros(bit);
+	return CardStack.card(SLOTS[(this.colorOrder[SLOT_COLORS[slot]] * TYPES)
+		+ SLOT_TYPES[slot]]);
+    }
+
+    /**
+     * Move the values of all moves taken towards the outcome of the game.
+     * 
+     * @param result
+     *            Result of the game
+     */
+    private void learn(final GameResult result) {
+	if (this.rate > 0) {
+	    float outcome = 0;
+	    if (result.isLoser(((Table) this.table).seat(this))) {
+		outcome = -1;
+	    }
+	    for (int i = 0; i < this.takenCount; i++) {
+		this.values.update(this.taken[i], outcome, this.rate);
+	    }
+	}
+	this.takenCount = 0;
+    }
+
+    /** Game interaction function. */
+    private void play() {
+	if (this.values == null) {
+	    throw new IllegalStateException("No value table set for "
+		    + this.getName());
+	}
+	this.orderColors();
+	final int canonicalHand = this.canonical(this.hand);
+	final int canonicalTable = this.canonical(this.tableCards);
+	final long key =
+		state(canonicalHand, canonicalTable,
+			(this.turns - 1) / this.table.numberOfPlayers(),
+			this.closed) * MOVES;
+	// closing is only possible once
+	final int moves = this.closed ? PolicyTable.CLOSE : MOVES;
+	int move = 0;
+	if ((this.explore > 0) && (this.random.nextFloat() < this.explore)) {
+	    move = this.random.nextInt(moves);
+	} else {
+	    float best = this.values.get(key);
+	    for (int candidate = 1; candidate < moves; candidate++) {
+		final float value = this.values.get(key + candidate);
+		if (value > best) {
+		    best = value;
+		    move = candidate;
+		}
+	    }
+	}
+	if (this.rate > 0) {
+	    if (this.takenCount == this.taken.length) {
+		this.taken = Arrays.copyOf(this.taken, this.taken.length * 2);
+	    }
+	    this.taken[this.takenCount++] = key + move;
+	}
+
+	if (move == PolicyTable.CLOSE) {
+	    this.table.addInteraction(this, Table.Action.CLOSE, null);
+	    this.table.commitInteraction(this);
+	    return;
+	}
+	final Card pick =
+		this.actual(PolicyTable.pickBit(move, canonicalTable));
+	final Card drop = this.actual(PolicyTable.dropBit(move, canonicalHand));
+	this.table.addInteraction(this, Table.Action.CARD_PICK, pick);
+	this.table.addInteraction(this, Table.Action.CARD_DROP, drop);
+	if (this.table.commitInteraction(this) == null) {
+	    this.hand |= CardStack.bit(pick);
+	    this.hand &= ~CardStack.bit(drop);
+	}
+    }
+}
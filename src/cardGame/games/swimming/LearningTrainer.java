@@ -0,0 +1,191 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.IOException;
+
+import cardGame.out.Logger;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * Trains a {@link ValueTable} for {@link LearningPlayer}s by self-play. All
+ * seats are taken by learning players sharing the table. Training runs in
+ * epochs, each being a {@link Simulation} with multiple tables played in
+ * parallel. The table is updated by all of them at once without locking, so
+ * results may differ slightly between runs with multiple threads.<br/>
+ * 
+ * After each epoch the values are saved and the greedy player is rated
+ * against {@link AIPlayer}s.<br/>
+ * 
+ * Parameters are passed as <code>--name=value</code>:
+ * <ul>
+ * <li><code>out</code> file to save the values to (required)</li>
+ * <li><code>epochs</code> number of epochs (default 10)</li>
+ * <li><code>games</code> games per table and epoch (default 10000)</li>
+ * <li><code>tables</code> tables per epoch (default 16)</li>
+ * <li><code>players</code> number of players (default 4)</li>
+ * <li><code>explore</code> chance of a random move (default 0.1)</li>
+ * <li><code>rate</code> fraction of the distance to the outcome moved per
+ * game (default 0.05)</li>
+ * <li><code>capacity</code> slots for values, three quarters usable (default
+ * 16777216)</li>
+ * <li><code>evaluate</code> games against AI players after each epoch, 0 to
+ * skip (default 10000)</li>
+ * <li><code>seed</code> master seed (default: random)</li>
+ * <li><code>threads</code> number of threads (default: number of
+ * processors)</li>
+ * </ul>
+ * If the output file exists, training continues with it's values.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class LearningTrainer {
+    /** File to save the values to. */
+    private File out = null;
+    /** Number of epochs. */
+    private int epochs = 10;
+    /** Games per table and epoch. */
+    private int games = 10000;
+    /** Tables per epoch. */
+    private int tables = 16;
+    /** Number of players. */
+    private int players = 4;
+    /** Chance of a random move. */
+    private float explore = 0.1f;
+    /** Fraction of the distance to the outcome moved per game. */
+    private float rate = 0.05f;
+    /** Slots for values. */
+    private int capacity = 1 << 24;
+    /** Games against AI players after each epoch. */
+    private int evaluate = 10000;
+    /** Master seed. */
+    private long seed = SplitMixRandom.unseeded().nextLong();
+    /** Number of threads. */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Parse the command line parameters.
+     * 
+     * @param args
+     *            Parameters as <code>--name=value</code>
+     */
+    LearningTrainer(final String[] args) {
+	for (String arg : args) {
+	    final int split = arg.indexOf('=');
+	    if (!arg.startsWith("--") || (split < 0)) {
+		throw new IllegalArgumentException("Invalid parameter: " + arg);
+	    }
+	    final String name = arg.substring(2, split);
+	    final String value = arg.substring(split + 1);
+	    if (name.equals("out")) {
+		this.out = new File(value);
+	    } else if (name.equals("epochs")) {
+		this.epochs = Integer.parseInt(value);
+	    } else if (name.equals("games")) {
+		this.games = Integer.parseInt(value);
+	    } else if (name.equals("tables")) {
+		this.tables = Integer.parseInt(value);
+	    } else if (name.equals("players")) {
+		this.players = Integer.parseInt(value);
+	    } else if (name.equals("explore")) {
+		this.explore = Float.parseFloat(value);
+	    } else if (name.equals("rate")) {
+		this.rate = Float.parseFloat(value);
+	    } else if (name.equals("capacity")) {
+		this.capacity = Integer.parseInt(value);
+	    } else if (name.equals("evaluate")) {
+		this.evaluate = Integer.parseInt(value);
+	    } else if (name.equals("seed")) {
+		this.seed = Long.parseLong(value);
+	    } else if (name.equals("threads")) {
+		this.threads = Integer.parseInt(value);
+	    } else {
+		throw new IllegalArgumentException("Unknown parameter: " + arg);
+	    }
+	}
+	if (this.out == null) {
+	    throw new IllegalArgumentException("No output file given.");
+	}
+    }
+
+    /**
+     * Create a simulation.
+     * 
+     * @param mix
+     *            Strategy mix
+     * @param simulationGames
+     *            Games per table
+     * @param simulationTables
+     *            Number of tables
+     * @param simulationSeed
+     *            Master seed
+     * @return Simulation
+     */
+    private Simulation simulation(final String mix,
+	    final int simulationGames, final int simulationTables,
+	    final long simulationSeed) {
+	return new Simulation(new String[] { "--players=" + this.players,
+		"--mix=" + mix, "--games=" + simulationGames,
+		"--tables=" + simulationTables, "--seed=" + simulationSeed });
+    }
+
+    /**
+     * Run all epochs.
+     * 
+     * @throws IOException
+     *             If the values could not be read or saved
+     */
+    void train() throws IOException {
+	ValueTable values;
+	if (this.out.exists()) {
+	    values = ValueTable.load(this.out);
+	    Logger.print(String.format("Continuing with %d values of %s%n",
+		    values.size(), this.out));
+	} else {
+	    values = new ValueTable(this.capacity);
+	}
+	final SplitMixRandom random = new SplitMixRandom(this.seed);
+	for (int epoch = 0; epoch < this.epochs; epoch++) {
+	    final long start = System.nanoTime();
+	    final Simulation training =
+		    this.simulation("learning:" + this.players, this.games,
+			    this.tables, random.split(epoch).nextLong());
+	    training.setLearning(values, this.explore, this.rate);
+	    Tournament.play(training, this.threads);
+	    values.save(this.out);
+	    final StringBuilder report =
+		    new StringBuilder(String.format(
+			    "epoch %d: values=%d dropped=%d (%.1fs)", epoch,
+			    values.size(), values.dropped(),
+			    (System.nanoTime() - start) / 1e9));
+	    if (this.evaluate > 0) {
+		final Simulation evaluation =
+			this.simulation("learning:1", this.evaluate, 1,
+				this.seed);
+		evaluation.setLearning(values, 0, 0);
+		report.append(String.format(" lossRate=%.2f%% vs ai",
+			evaluation.playTable(0).lossRate(Strategy.LEARNING)
+				* 100));
+	    }
+	    Logger.print(report.append('\n').toString());
+	}
+    }
+
+    /**
+     * Run the trainer.
+     * 
+     * @param args
+     *            Parameters, see {@link LearningTrainer}
+     * @throws IOException
+     *             If the values could not be read or saved
+     */
+    public static void main(final String[] args) throws IOException {
+	Logger.setDefaultLevel(Logger.Level.OFF);
+	final LearningTrainer trainer = new LearningTrainer(args);
+	Logger.print(String.format(
+		"Training %d epochs of %d tables with %d games, seed %d%n",
+		trainer.epochs, trainer.tables, trainer.games, trainer.seed));
+	trainer.train();
+	Logger.flush();
+    }
+}
@@ -0,0 +1,742 @@
+package cardGame.games.swimming;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import cardGame.card.CardDeck.Card;
+import cardGame.event.EventHandler;
+import cardGame.metrics.Counter;
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+import cardGame.out.Logger;
+import cardGame.player.AnytimePlayer;
+import cardGame.player.CardPlayer;
+import cardGame.player.GeneralCardPlayer;
+import cardGame.player.SearchBudget;
+import cardGame.player.SearchReport;
+import cardGame.util.RandomSource;
+
+/**
+ * Computer player using information set Monte Carlo tree search. The cards of
+ * the other players are unknown, so each rollout deals them a random hand
+ * consistent with everything seen so far: cards picked from the table are
+ * known to be held by the picking player, the remaining hidden cards are drawn
+ * from all cards neither held nor lying on the table. The game is then played
+ * ahead on a {@link GameState}, choosing moves by UCB in the search tree and
+ * by a greedy policy below it. A move is rated by how often the player moving
+ * survives, i.e. does not hold the lowest hand at the end.<br/>
+ * 
+ * The rollout budget is split between a number of workers, each searching
+ * it's own tree on the shared search pool. The visits of the first moves are
+ * summed up over all trees. Trees and states are allocated once per budget and
+ * reused for every rollout.<br/>
+ * 
+ * The search is an anytime search: the nodes of the {@link SearchBudget} are
+ * the rollouts, and if the budget has a time limit, every worker stops at the
+ * deadline. The most visited move found until then is played.<br/>
+ * 
+ * Once the round got closed, the remaining lap is solved exactly by a
+ * {@link FinalLapSolver}. The tree search is only used, if the solver runs out
+ * of time.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+class MCTSPlayer extends GeneralCardPlayer implements AnytimePlayer {
+    /** Logger for this class. */
+    private static final Logger LOG = Logger.get("ai");
+    /** Time needed for a decision. */
+    private static final Histogram DECISION_NANOS = MetricsRegistry
+	    .global().histogram("mcts.decision.nanos");
+    /** Number of rollouts played. */
+    private static final Counter ROLLOUTS = MetricsRegistry.global().counter(
+	    "mcts.rollouts");
+    /** Time needed for searching a move, solving included. */
+    private static final Histogram SEARCH_NANOS = MetricsRegistry.global()
+	    .histogram("mcts.search.nanos");
+    /** Number of rollouts played for a decision. */
+    private static final Histogram DECISION_ROLLOUTS = MetricsRegistry
+	    .global().histogram("mcts.decision.rollouts");
+    /** Deepest tree level reached for a decision. */
+    private static final Histogram DECISION_DEPTH = MetricsRegistry.global()
+	    .histogram("mcts.decision.depth");
+    /** Number of decisions stopped by the deadline. */
+    private static final Counter DEADLINE_HITS = MetricsRegistry.global()
+	    .counter("mcts.deadline.hits");
+    /** Default number of rollouts per decision. */
+    static final int DEFAULT_ROLLOUTS = 2000;
+    /** Default time budget for solving the last lap in microseconds. */
+    static final int DEFAULT_SOLVER_BUDGET = 2000;
+    /** Number of rounds played ahead, if nobody closes. */
+    private static final int HORIZON_ROUNDS = 8;
+    /** Doubled hand points at which the rollout policy closes. */
+    private static final int CLOSE_POINTS = 52;
+    /** Probability of the rollout policy playing a random move. */
+    private static final float EXPLORE_MOVE = 0.1f;
+    /** UCB exploration constant. */
+    private static final float EXPLORATION = 0.7f;
+    /** Card bitmask of the players cards. */
+    private int hand;
+    /** Card bitmask of the cards on the table. */
+    private int tableCards;
+    /** Cards known to be held by each other player, by seat. */
+    private final int[] knownCards = new int[GameState.MAX_PLAYERS];
+    /** Seat of the player who closed the round, -1 if nobody did. */
+    private int closingSeat = -1;
+    /** Source of randomness, split for every worker. */
+    private final RandomSource random;
+    /** Number of decisions made, used to select a random stream for each. */
+    private long decisions = 0;
+    /** State the search starts from. */
+    private final GameState root = new GameState();
+    /** Buffer for the moves possible at the root. */
+    private final int[] rootMoves = new int[GameState.MAX_MOVES];
+    /** Limits of a single decision. */
+    private SearchBudget budget;
+    /** Workers searching in parallel. */
+    private List<Worker> workers;
+    /** Report of the last decision. */
+    private final SearchReport report = new SearchReport();
+    /** Solver for the last lap, null if disabled. */
+    private FinalLapSolver solver = new FinalLapSolver(DEFAULT_SOLVER_BUDGET);
+
+    /**
+     * Constructor. Searches with {@value #DEFAULT_ROLLOUTS} rollouts in a
+     * single thread.
+     * 
+     * @param newName
+     *            Players name
+     * @param newRandom
+     *            Source for the random decisions
+     */
+    MCTSPlayer(final String newName, final RandomSource newRandom) {
+	this(newName, newRandom, DEFAULT_ROLLOUTS, 1);
+    }
+
+    /**
+     * @param newName
+     *            Players name
+     * @param newRandom
+     *            Source for the random decisions
+     * @param rollouts
+     *            Number of rollouts per decision
+     * @param threads
+     *            Number of workers sharing the rollouts
+     */
+    MCTSPlayer(final String newName, final RandomSource newRandom,
+	    final int rollouts, final int threads) {
+	super(newName);
+	this.random = newRandom;
+	this.setBudget(new SearchBudget(rollouts, SearchBudget.UNLIMITED),
+		threads);
+    }
+
+    /**
+     * Set the search budget. The trees for all workers are allocated here.
+     * 
+     * @param newBudget
+     *            Rollouts and time per decision
+     * @param threads
+     *            Number of workers sharing the rollouts
+     */
+    final void setBudget(final SearchBudget newBudget, final int threads) {
+	if ((threads < 1) || (newBudget.nodes() > Integer.MAX_VALUE)) {
+	    throw new IllegalArgumentException(String.format(
+		    "Invalid search budget: %s, %d threads.", newBudget,
+		    threads));
+	}
+	final int perWorker =
+		(int) ((newBudget.nodes() + threads - 1) / threads);
+	this.budget = newBudget;
+	this.workers = new ArrayList<Worker>(threads);
+	for (int i = 0; i < threads; i++) {
+	    this.workers.add(new Worker(this.random.split(i), perWorker));
+	}
+    }
+
+    @Override
+    public final void setSearchBudget(final SearchBudget newBudget) {
+	this.setBudget(newBudget, this.workers.size());
+    }
+
+    @Override
+    public final SearchBudget getSearchBudget() {
+	return this.budget;
+    }
+
+    @Override
+    public final SearchReport lastSearch() {
+	return this.report;
+    }
+
+    /**
+     * Set the time budget for solving the last lap.
+     * 
+     * @param micros
+     *            Time budget in microseconds, 0 to always use the tree search
+     */
+    final void setSolverBudget(final int micros) {
+	if (micros > 0) {
+	    this.solver = new FinalLapSolver(micros);
+	} else {
+	    this.solver = null;
+	}
+    }
+
+    @Override
+    protected final void registerEvents() {
+	super.registerEvents();
+	this.subscribe(Table.Event.CARDS, new EventHandler<Collection<Card>>() {
+	    @Override
+	    public void handle(final Collection<Card> cards) {
+		// a new game has begun
+		MCTSPlayer.this.tableCards = 0;
+		for (Card card : cards) {
+		    MCTSPlayer.this.tableCards |= CardStack.bit(card);
+		}
+		for (int seat = 0; seat < GameState.MAX_PLAYERS; seat++) {
+		    MCTSPlayer.this.knownCards[seat] = 0;
+		}
+		MCTSPlayer.this.closingSeat = -1;
+	    }
+	});
+	this.subscribe(Table.Event.CARD_PICK, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		MCTSPlayer.this.tableCards &= ~CardStack.bit(card);
+		MCTSPlayer.this.knownCards[((Table) MCTSPlayer.this.table)
+			.currentSeat()] |= CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CARD_DROP, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		MCTSPlayer.this.tableCards |= CardStack.bit(card);
+		MCTSPlayer.this.knownCards[((Table) MCTSPlayer.this.table)
+			.currentSeat()] &= ~CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CLOSE_CALL, new EventHandler<CardPlayer>() {
+	    @Override
+	    public void handle(final CardPlayer player) {
+		MCTSPlayer.this.closingSeat =
+			((Table) MCTSPlayer.this.table).seat(player);
+	    }
+	});
+	this.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			if (player != MCTSPlayer.this) {
+			    return;
+			}
+			if (MetricsRegistry.isEnabled()) {
+			    final long start = System.nanoTime();
+			    MCTSPlayer.this.play();
+			    DECISION_NANOS.recordSince(start);
+			} else {
+			    MCTSPlayer.this.play();
+			}
+		    }
+		});
+    }
+
+    @Override
+    public final boolean setCards(final Collection<Card> newCards) {
+	this.hand = 0;
+	for (Card card : newCards) {
+	    this.hand |= CardStack.bit(card);
+	}
+	return true;
+    }
+
+    @Override
+    public final Collection<Card> getCards() {
+	final CardStack cards = new CardStack();
+	cards.setCardMask(this.hand);
+	return cards.getCards();
+    }
+
+    /**
+     * Search for the best move in the current situation.
+     * 
+     * @return Best move found
+     */
+    final int search() {
+	final long start = System.nanoTime();
+	final long deadline = this.budget.deadline(start);
+	final int players = this.table.numberOfPlayers();
+	final int seat = ((Table) this.table).currentSeat();
+	this.root.reset(players, seat, this.tableCards, this.closingSeat,
+		HORIZON_ROUNDS * players);
+	this.root.setHand(seat, this.hand);
+	// cards which may be hidden in other players hands
+	int unknown = CardStack.MASK_ALL & ~this.hand & ~this.tableCards;
+	for (int other = 0; other < players; other++) {
+	    if (other != seat) {
+		this.root.setHand(other, this.knownCards[other]);
+		unknown &= ~this.knownCards[other];
+	    }
+	}
+
+	final long decision = this.decisions++;
+	if ((this.closingSeat >= 0) && (this.solver != null)) {
+	    // leave half of the time to the tree search, if solving fails
+	    long solverDeadline = deadline;
+	    if (deadline != Long.MAX_VALUE) {
+		solverDeadline = start + ((deadline - start) / 2);
+	    }
+	    final int move =
+		    this.solver.solve(this.root, unknown, solverDeadline);
+	    if (move >= 0) {
+		this.report.record(this.solver.depth(),
+			this.solver.evaluated(), System.nanoTime() - start,
+			false);
+		SEARCH_NANOS.record(this.report.nanos());
+		LOG.log(Logger.Level.INFO, "<%s> Last lap survival: %s (%s)",
+			this, this.solver.survival(), this.report);
+		return move;
+	    }
+	}
+
+	for (Worker worker : this.workers) {
+	    worker.prepare(this.root, unknown, decision, deadline);
+	}
+	if (this.workers.size() == 1) {
+	    this.workers.get(0).call();
+	} else {
+	    runParallel(this.workers);
+	}
+	this.recordSearch(start);
+
+	// the most visited move over all trees wins
+	final int count = this.root.moves(this.rootMoves);
+	int bestMove = this.rootMoves[0];
+	long bestVisits = -1;
+	for (int i = 0; i < count; i++) {
+	    long visits = 0;
+	    for (Worker worker : this.workers) {
+		visits += worker.rootVisits(this.rootMoves[i]);
+	    }
+	    if (visits > bestVisits) {
+		bestVisits = visits;
+		bestMove = this.rootMoves[i];
+	    }
+	}
+	return bestMove;
+    }
+
+    /**
+     * Sum up the work of all workers into the report of this decision.
+     * 
+     * @param start
+     *            Start of the decision as given by {@link System#nanoTime()}
+     */
+    private void recordSearch(final long start) {
+	int depth = 0;
+	long rollouts = 0;
+	boolean deadlineHit = false;
+	for (Worker worker : this.workers) {
+	    depth = Math.max(depth, worker.maxDepth);
+	    rollouts += worker.rollouts;
+	    deadlineHit |= worker.rollouts < worker.iterations;
+	}
+	this.report.record(depth, rollouts, System.nanoTime() - start,
+		deadlineHit);
+	SEARCH_NANOS.record(this.report.nanos());
+	ROLLOUTS.add(rollouts);
+	DECISION_ROLLOUTS.record(rollouts);
+	DECISION_DEPTH.record(depth);
+	if (deadlineHit) {
+	    DEADLINE_HITS.increment();
+	}
+	LOG.log(Logger.Level.INFO, "<%s> Searched %s", this, this.report);
+    }
+
+    /**
+     * Run all workers on the search pool and wait for them to finish.
+     * 
+     * @param workers
+     *            Workers to run
+     */
+    private static void runParallel(final List<Worker> workers) {
+	try {
+	    for (Future<Void> future : SearchPool.EXECUTOR.invokeAll(workers)) {
+		future.get();
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new IllegalStateException("Interrupted while searching.", e);
+	} catch (ExecutionException e) {
+	    throw new IllegalStateException("Search failed.", e.getCause());
+	}
+    }
+
+    /** Game interaction function. */
+    private void play() {
+	final int move = this.search();
+	if (move == GameState.CLOSE) {
+	    LOG.log(Logger.Level.INFO, "<%s> Closing with %s", this,
+		    HandEvaluator.handValue(this.hand));
+	    this.table.addInteraction(this, Table.Action.CLOSE, null);
+	    if (this.table.commitInteraction(this) != null) {
+		LOG.log(Logger.Level.SYS, "<%s> I shouldn't be here!", this);
+	    }
+	    return;
+	}
+	final Card cardToPick = CardStack.card(GameState.pickSlot(move));
+	final Card cardToDrop = CardStack.card(GameState.dropSlot(move));
+	LOG.log(Logger.Level.INFO, "<%s> Pick: %s Drop: %s", this, cardToPick,
+		cardToDrop);
+	this.table.addInteraction(this, Table.Action.CARD_PICK, cardToPick);
+	this.table.addInteraction(this, Table.Action.CARD_DROP, cardToDrop);
+	if (this.table.commitInteraction(this) == null) {
+	    this.hand =
+		    (this.hand | CardStack.bit(cardToPick))
+			    & ~CardStack.bit(cardToDrop);
+	}
+    }
+
+    /**
+     * Get the n-th card of a card bitmask.
+     * 
+     * @param cards
+     *            Card bitmask
+     * @param n
+     *            Number of the card, starting at zero
+     * @return Bit of the card
+     */
+    private static int nthBit(final int cards, final int n) {
+	int mask = cards;
+	for (int i = 0; i < n; i++) {
+	    mask &= mask - 1;
+	}
+	return Integer.lowestOneBit(mask);
+    }
+
+    /** Thread pool shared by the workers of all players. */
+    private static final class SearchPool {
+	/** Executor running the workers. */
+	static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+		Runtime.getRuntime().availableProcessors(),
+		new ThreadFactory() {
+		    @Override
+		    public Thread newThread(final Runnable runnable) {
+			final Thread thread =
+				new Thread(runnable, "mcts-search");
+			thread.setDaemon(true);
+			return thread;
+		    }
+		});
+    }
+
+    /**
+     * Searches a single tree. The tree is stored in parallel arrays indexed by
+     * node, node 0 is the root. Children of a node are linked by
+     * {@link #nextSibling}. A node counts how often it was visited and how
+     * often it's move was possible when its parent was visited, which differs
+     * between rollouts as the hidden cards differ.
+     */
+    private static final class Worker implements Callable<Void> {
+	/** Source of randomness for this worker. */
+	private final RandomSource random;
+	/** Maximum number of rollouts per search. */
+	private final int iterations;
+	/** Time at which the search stops, see {@link System#nanoTime()}. */
+	private long deadline;
+	/** Number of rollouts played by the last search. */
+	private int rollouts;
+	/** Deepest tree level reached by the last search. */
+	private int maxDepth;
+	/** Move leading to a node. */
+	private final int[] move;
+	/** Seat of the player making the move leading to a node. */
+	private final int[] mover;
+	/** First child of a node, -1 if none. */
+	private final int[] firstChild;
+	/** Next sibling of a node, -1 if none. */
+	private final int[] nextSibling;
+	/** Number of visits of a node. */
+	private final int[] visits;
+	/** Number of times the move of a node was possible. */
+	private final int[] available;
+	/** Number of rollouts survived by the mover of a node. */
+	private final int[] wins;
+	/** Number of nodes in use. */
+	private int nodes;
+	/** State the search starts from, hidden cards not dealt yet. */
+	private final GameState start = new GameState();
+	/** State of the current rollout. */
+	private final GameState state = new GameState();
+	/** Cards which may be dealt to other players. */
+	private int unknown;
+	/** Nodes visited by the current rollout. */
+	private final int[] path;
+	/** Buffer for possible moves. */
+	private final int[] moves = new int[GameState.MAX_MOVES];
+	/** Buffer for possible moves without a node yet. */
+	private final int[] untried = new int[GameState.MAX_MOVES];
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param newRandom
+	 *            Source of randomness for this worker
+	 * @param newIterations
+	 *            Number of rollouts per search
+	 */
+	Worker(final RandomSource newRandom, final int newIterations) {
+	    this.random = newRandom;
+	    this.iterations = newIterations;
+	    // every rollout adds at most one node
+	    final int capacity = newIterations + 1;
+	    this.move = new int[capacity];
+	    this.mover = new int[capacity];
+	    this.firstChild = new int[capacity];
+	    this.nextSibling = new int[capacity];
+	    this.visits = new int[capacity];
+	    this.available = new int[capacity];
+	    this.wins = new int[capacity];
+	    this.path = new int[(HORIZON_ROUNDS * GameState.MAX_PLAYERS) + 1];
+	}
+
+	/**
+	 * Prepare a new search.
+	 * 
+	 * @param newStart
+	 *            State to start from, only known cards set for other
+	 *            players
+	 * @param newUnknown
+	 *            Cards which may be dealt to other players
+	 * @param decision
+	 *            Number of the decision, selects the random stream
+	 * @param newDeadline
+	 *            Time at which the search stops, see
+	 *            {@link System#nanoTime()}
+	 */
+	void prepare(final GameState newStart, final int newUnknown,
+		final long decision, final long newDeadline) {
+	    this.start.copyFrom(newStart);
+	    this.unknown = newUnknown;
+	    this.deadline = newDeadline;
+	    this.rollouts = 0;
+	    this.maxDepth = 0;
+	    this.random.selectStream(decision);
+	    this.nodes = 1;
+	    this.firstChild[0] = -1;
+	    this.nextSibling[0] = -1;
+	    this.visits[0] = 0;
+	}
+
+	/**
+	 * Get the number of visits of a move at the root.
+	 * 
+	 * @param rootMove
+	 *            Move to look up
+	 * @return Visits of the move, 0 if never tried
+	 */
+	int rootVisits(final int rootMove) {
+	    final int child = this.child(0, rootMove);
+	    if (child < 0) {
+		return 0;
+	    }
+	    return this.visits[child];
+	}
+
+	/**
+	 * Play rollouts until all are done or the deadline is reached. At least
+	 * one rollout is played, so there is always a move to suggest.
+	 */
+	@Override
+	public Void call() {
+	    while (this.rollouts < this.iterations) {
+		this.determinize();
+		this.rollout();
+		this.rollouts++;
+		// a rollout takes microseconds, so checking the time is cheap
+		if (System.nanoTime() >= this.deadline) {
+		    break;
+		}
+	    }
+	    return null;
+	}
+
+	/** Deal random hidden cards to the other players. */
+	private void determinize() {
+	    this.state.copyFrom(this.start);
+	    int left = this.unknown;
+	    for (int seat = 0; seat < this.state.players(); seat++) {
+		int cards = this.state.hand(seat);
+		while (Integer.bitCount(cards) < HandEvaluator.HAND_SIZE) {
+		    final int card =
+			    nthBit(left,
+				    this.random.nextInt(Integer.bitCount(left)));
+		    cards |= card;
+		    left &= ~card;
+		}
+		this.state.setHand(seat, cards);
+	    }
+	}
+
+	/**
+	 * Find the child of a node reached by a move.
+	 * 
+	 * @param node
+	 *            Parent node
+	 * @param childMove
+	 *            Move to look up
+	 * @return Child node, -1 if none
+	 */
+	private int child(final int node, final int childMove) {
+	    for (int child = this.firstChild[node]; child >= 0; child =
+		    this.nextSibling[child]) {
+		if (this.move[child] == childMove) {
+		    return child;
+		}
+	    }
+	    return -1;
+	}
+
+	/**
+	 * Add a child to a node.
+	 * 
+	 * @param node
+	 *            Parent node
+	 * @param childMove
+	 *            Move leading to the child
+	 * @param childMover
+	 *            Seat of the player making the move
+	 * @return New child node
+	 */
+	private int addChild(final int node, final int childMove,
+		final int childMover) {
+	    final int child = this.nodes++;
+	    this.move[child] = childMove;
+	    this.mover[child] = childMover;
+	    this.firstChild[child] = -1;
+	    this.nextSibling[child] = this.firstChild[node];
+	    this.firstChild[node] = child;
+	    this.visits[child] = 0;
+	    this.available[child] = 1;
+	    this.wins[child] = 0;
+	    return child;
+	}
+
+	/**
+	 * Select a child by UCB. Only children reachable by one of the given
+	 * moves are considered.
+	 * 
+	 * @param node
+	 *            Parent node
+	 * @param count
+	 *            Number of moves in {@link #moves}
+	 * @return Selected child
+	 */
+	private int select(final int node, final int count) {
+	    int best = -1;
+	    float bestValue = Float.NEGATIVE_INFINITY;
+	    for (int i = 0; i < count; i++) {
+		final int child = this.child(node, this.moves[i]);
+		final float value =
+			((float) this.wins[child] / this.visits[child])
+				+ (EXPLORATION * (float) Math.sqrt(Math
+					.log(this.available[child])
+					/ this.visits[child]));
+		if (value > bestValue) {
+		    bestValue = value;
+		    best = child;
+		}
+	    }
+	    return best;
+	}
+
+	/**
+	 * Walk down the tree, add a node, play the game to it's end and record
+	 * the result for all visited nodes.
+	 */
+	private void rollout() {
+	    int node = 0;
+	    int depth = 0;
+	    this.path[depth++] = node;
+	    while (!this.state.isOver()) {
+		final int count = this.state.moves(this.moves);
+		int untriedCount = 0;
+		for (int i = 0; i < count; i++) {
+		    final int child = this.child(node, this.moves[i]);
+		    if (child < 0) {
+			this.untried[untriedCount++] = this.moves[i];
+		    } else {
+			this.available[child]++;
+		    }
+		}
+		if (untriedCount > 0) {
+		    final int newMove =
+			    this.untried[this.random.nextInt(untriedCount)];
+		    node = this.addChild(node, newMove, this.state.toMove());
+		    this.state.apply(newMove);
+		    this.path[depth++] = node;
+		    break;
+		}
+		node = this.select(node, count);
+		this.state.apply(this.move[node]);
+		this.path[depth++] = node;
+	    }
+	    // the root is not counted
+	    this.maxDepth = Math.max(this.maxDepth, depth - 1);
+	    this.playOut();
+
+	    final int losers = this.state.loserMask();
+	    this.visits[0]++;
+	    for (int i = 1; i < depth; i++) {
+		final int visited = this.path[i];
+		this.visits[visited]++;
+		if ((losers & (1 << this.mover[visited])) == 0) {
+		    this.wins[visited]++;
+		}
+	    }
+	}
+
+	/** Play the current state to it's end using the rollout policy. */
+	private void playOut() {
+	    while (!this.state.isOver()) {
+		final int count = this.state.moves(this.moves);
+		if (this.random.nextFloat() < EXPLORE_MOVE) {
+		    this.state.apply(this.moves[this.random.nextInt(count)]);
+		    continue;
+		}
+		final int hand = this.state.hand(this.state.toMove());
+		int bestMove = this.moves[0];
+		int bestPoints = -1;
+		for (int i = 0; i < count; i++) {
+		    final int candidate = this.moves[i];
+		    int points;
+		    if (candidate == GameState.CLOSE) {
+			points = HandEvaluator.handPoints(hand);
+			if (points < CLOSE_POINTS) {
+			    continue;
+			}
+			// closing is the best thing to do with a good hand
+			bestMove = candidate;
+			break;
+		    }
+		    points =
+			    HandEvaluator.handPoints(hand
+				    ^ (1 << GameState.pickSlot(candidate))
+				    ^ (1 << GameState.dropSlot(candidate)));
+		    if (points > bestPoints) {
+			bestPoints = points;
+			bestMove = candidate;
+		    }
+		}
+		this.state.apply(bestMove);
+	    }
+	}
+    }
+}
@@ -0,0 +1,163 @@
+package cardGame.games.swimming;
+
+import java.util.Collection;
+
+import cardGame.card.CardDeck.Card;
+import cardGame.event.EventHandler;
+import cardGame.player.CardPlayer;
+import cardGame.player.GeneralCardPlayer;
+
+/**
+ * Computer player looking up every move in a precomputed {@link PolicyTable}.
+ * Deciding is a single read from the mapped table, which makes this the
+ * cheapest player for mass simulations.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+class PolicyPlayer extends GeneralCardPlayer {
+    /** Card bitmask of the players cards. */
+    private int hand;
+    /** Card bitmask of the cards on the table. */
+    private int tableCards;
+    /** True if the round was closed. */
+    private boolean closed;
+    /** Table of moves to play, shared by all policy players. */
+    private PolicyTable policy;
+
+    /**
+     * Constructor. A policy must be set by {@link #setPolicy(PolicyTable)}
+     * before playing.
+     * 
+     * @param newName
+     *            Players name
+     */
+    PolicyPlayer(final String newName) {
+	super(newName);
+    }
+
+    /**
+     * Set the table of moves to play.
+     * 
+     * @param newPolicy
+     *            Policy table
+     */
+    final void setPolicy(final PolicyTable newPolicy) {
+	this.policy = newPolicy;
+    }
+
+    @Override
+    protected final void registerEvents() {
+	super.registerEvents();
+	this.subscribe(Table.Event.CARDS, new EventHandler<Collection<Card>>() {
+	    @Override
+	    public void handle(final Collection<Card> cards) {
+		PolicyPlayer.this.tableCards = 0;
+		PolicyPlayer.this.closed = false;
+		for (Card card : cards) {
+		    PolicyPlayer.this.tableCards |= CardStack.bit(card);
+		}
+	    }
+	});
+	this.subscribe(Table.Event.CARD_PICK, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		PolicyPlayer.this.tableCards &= ~CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CARD_DROP, new EventHandler<Card>() {
+	    @Override
+	    public void handle(final Card card) {
+		PolicyPlayer.this.tableCards |= CardStack.bit(card);
+	    }
+	});
+	this.subscribe(Table.Event.CLOSE_CALL, new EventHandler<CardPlayer>() {
+	    @Override
+	    public void handle(final CardPlayer player) {
+		PolicyPlayer.this.closed = true;
+	    }
+	});
+	this.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			if (player == PolicyPlayer.this) {
+			    PolicyPlayer.this.play();
+			}
+		    }
+		});
+    }
+
+    @Override
+    public final boolean setCards(final Collection<Card> newCards) {
+	this.hand = 0;
+	for (Card card : newCards) {
+	    this.hand |= CardStack.bit(card);
+	}
+	return true;
+    }
+
+    @Override
+    public final Collection<Card> getCards() {
+	final CardStack cards = new CardStack();
+	cards.setCardMask(this.hand);
+	return cards.getCards();
+    }
+
+    /**
+     * Find the swap keeping the most points. Only used if the policy wants to
+     * close a round that is closed already.
+     * 
+     * @param hand
+     *            Card bitmask of the players hand
+     * @param table
+     *            Card bitmask of the table cards
+     * @return Swap move, see {@link PolicyTable}
+     */
+    private static int bestSwap(final int hand, final int table) {
+	int bestMove = 0;
+	int bestPoints = -1;
+	int move = 0;
+	for (int pick = table; pick != 0; pick &= pick - 1) {
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		final int points =
+			HandEvaluator.handPoints(hand
+				^ Integer.lowestOneBit(pick)
+				^ Integer.lowestOneBit(drop));
+		if (points > bestPoints) {
+		    bestPoints = points;
+		    bestMove = move;
+		}
+		move++;
+	    }
+	}
+	return bestMove;
+    }
+
+    /** Game interaction function. */
+    private void play() {
+	if (this.policy == null) {
+	    throw new IllegalStateException("No policy table set for "
+		    + this.getName());
+	}
+	int move = this.policy.move(this.hand, this.tableCards);
+	if (move == PolicyTable.CLOSE) {
+	    if (!this.closed) {
+		this.table.addInteraction(this, Table.Action.CLOSE, null);
+		this.table.commitInteraction(this);
+		return;
+	    }
+	    // the round is closed already, so swap instead
+	    move = bestSwap(this.hand, this.tableCards);
+	}
+	final int pick = PolicyTable.pickBit(move, this.tableCards);
+	final int drop = PolicyTable.dropBit(move, this.hand);
+	this.table.addInteraction(this, Table.Action.CARD_PICK,
+		CardStack.card(Integer.numberOfTrailingZeros(pick)));
+	this.table.addInteraction(this, Table.Action.CARD_DROP,
+		CardStack.card(Integer.numberOfTrailingZeros(drop)));
+	if (this.table.commitInteraction(this) == null) {
+	    this.hand = (this.hand | pick) & ~drop;
+	}
+    }
+}
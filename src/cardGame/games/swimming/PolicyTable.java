@@ -0,0 +1,186 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory-mapped table of precomputed moves. A player only sees his own three
+ * cards and the three cards on the table, so every situation he may face is
+ * one of {@value #POSITIONS} positions. The table stores the move to play for
+ * each of them in four bits, written by {@link PolicyTableGenerator}.<br/>
+ * 
+ * A position is indexed by the index of the hand (see
+ * {@link HandEvaluator#handIndex(int)}) times {@value #TABLES} plus the index
+ * of the table cards among the 29 cards not in the hand. Moves
+ * <code>0..8</code> swap the <code>move / 3</code>-th table card with the
+ * <code>move % 3</code>-th hand card, both counted in slot order.
+ * {@value #CLOSE} closes the round.<br/>
+ * 
+ * A table is read-only, so it may be shared by any number of players and
+ * threads.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+final class PolicyTable {
+    /** Marks a policy table file. */
+    static final int MAGIC = 0x53575054;
+    /** Version of the file format. */
+    static final int VERSION = 1;
+    /** Size of the file header in bytes. */
+    static final int HEADER_SIZE = 12;
+    /** Number of possible table hands for a given hand (29 choose 3). */
+    static final int TABLES = 3654;
+    /** Number of positions. */
+    static final int POSITIONS = HandEvaluator.HANDS * TABLES;
+    /** Size of a policy table file in bytes. */
+    static final int FILE_SIZE = HEADER_SIZE + (POSITIONS / 2);
+    /** Move closing the round. */
+    static final int CLOSE = 9;
+    /** Mapped moves, two positions per byte. */
+    private final ByteBuffer moves;
+
+    /**
+     * Constructor.
+     * 
+     * @param newMoves
+     *            Mapped file data
+     */
+    private PolicyTable(final ByteBuffer newMoves) {
+	this.moves = newMoves;
+    }
+
+    /**
+     * Map a policy table file.
+     * 
+     * @param file
+     *            File written by {@link PolicyTableGenerator}
+     * @return Mapped table
+     * @throws IOException
+     *             If the file could not be read or is no valid policy table
+     */
+    static PolicyTable open(final File file) throws IOException {
+	final RandomAccessFile tableFile = new RandomAccessFile(file, "r");
+	try {
+	    if (tableFile.length() != FILE_SIZE) {
+		throw new IOException(String.format(
+			"Policy table %s has %d bytes, expected %d.", file,
+			tableFile.length(), FILE_SIZE));
+	    }
+	    final ByteBuffer buffer =
+		    tableFile.getChannel().map(FileChannel.MapMode.READ_ONLY,
+			    0, FILE_SIZE);
+	    if ((buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION)
+		    || (buffer.getInt(8) != POSITIONS)) {
+		throw new IOException(String.format(
+			"%s is no policy table of version %d.", file, VERSION));
+	    }
+	    return new PolicyTable(buffer);
+	} finally {
+	    // the mapping stays valid after closing
+	    tableFile.close();
+	}
+    }
+
+    /**
+     * Get the index of a position.
+     * 
+     * @param hand
+     *            Card bitmask of the players hand
+     * @param table
+     *            Card bitmask of the table cards
+     * @return Position index
+     */
+    static int position(final int hand, final int table) {
+	// rank the table cards among the cards not in the hand
+	int ranked = 0;
+	for (int rest = table; rest != 0; rest &= rest - 1) {
+	    final int bit = Integer.lowestOneBit(rest);
+	    ranked |= 1 << Integer.bitCount((bit - 1) & ~hand);
+	}
+	return (HandEvaluator.handIndex(hand) * TABLES)
+		+ HandEvaluator.handIndex(ranked);
+    }
+
+    /**
+     * Get the byte offset of a position in the file.
+     * 
+     * @param position
+     *            Position index
+     * @return Offset of the byte holding the move
+     */
+    static int offset(final int position) {
+	return HEADER_SIZE + (position >>> 1);
+    }
+
+    /**
+     * Get the bit shift of a position inside it's byte.
+     * 
+     * @param position
+     *            Position index
+     * @return Shift of the four move bits
+     */
+    static int shift(final int position) {
+	return (position & 1) << 2;
+    }
+
+    /**
+     * Get the move to play.
+     * 
+     * @param hand
+     *            Card bitmask of the players hand
+     * @param table
+     *            Card bitmask of the table cards
+     * @return Move, see {@link PolicyTable}
+     */
+    int move(final int hand, final int table) {
+	final int position = position(hand, table);
+	return (this.moves.get(offset(position)) >>> shift(position)) & 0xf;
+    }
+
+    /**
+     * Get the n-th card of a card bitmask.
+     * 
+     * @param cards
+     *            Card bitmask
+     * @param n
+     *            Number of the card, starting at zero
+     * @return Bit of the card
+     */
+    static int nthBit(final int cards, final int n) {
+	int mask = cards;
+	for (int i = 0; i < n; i++) {
+	    mask &= mask - 1;
+	}
+	return Integer.lowestOneBit(mask);
+    }
+
+    /**
+     * Get the table card picked by a swap move.
+     * 
+     * @param move
+     *            Swap move
+     * @param table
+     *            Card bitmask of the table cards
+     * @return Bit of the picked card
+     */
+    static int pickBit(final int move, final int table) {
+	return nthBit(table, move / HandEvaluator.HAND_SIZE);
+    }
+
+    /**
+     * Get the hand card dropped by a swap move.
+     * 
+     * @param move
+     *            Swap move
+     * @param hand
+     *            Card bitmask of the players hand
+     * @return Bit of the dropped card
+     */
+    static int dropBit(final int move, final int hand) {
+	return nthBit(hand, move % HandEvaluator.HAND_SIZE);
+    }
+}
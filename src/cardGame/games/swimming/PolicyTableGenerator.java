@@ -0,0 +1,251 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import cardGame.out.Logger;
+
+/**
+ * Writes a {@link PolicyTable} by evaluating every position. Hands are rated
+ * by their points plus their potential: the points expected after one more
+ * swap with a random card not in the hand. In each position the swap leading
+ * to the best rated hand is chosen. The round gets closed instead, if the
+ * hand is worth at least {@value #CLOSE_POINTS} doubled points and no swap
+ * would raise the points.<br/>
+ * 
+ * Hands are split in halves on a {@link ForkJoinPool} until a single hand is
+ * left. The positions of a hand fill whole bytes, so workers never write to
+ * the same byte.<br/>
+ * 
+ * <code>PolicyTableGenerator &lt;file&gt; [threads]</code>
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+final class PolicyTableGenerator extends RecursiveAction {
+    /** */
+    private static final long serialVersionUID = 1L;
+    /** Doubled hand points at which the round gets closed. */
+    static final int CLOSE_POINTS = 52;
+    /** Card bitmask of every hand by hand index. */
+    private static final int[] HANDS = new int[HandEvaluator.HANDS];
+    /** Rating of every hand by hand index. */
+    private static final float[] RATINGS = new float[HandEvaluator.HANDS];
+
+    static {
+	final int cards = CardStack.CARDS.size();
+	for (int a = 0; a < cards; a++) {
+	    for (int b = a + 1; b < cards; b++) {
+		for (int c = b + 1; c < cards; c++) {
+		    final int hand = (1 << a) | (1 << b) | (1 << c);
+		    HANDS[HandEvaluator.handIndex(hand)] = hand;
+		}
+	    }
+	}
+	for (int index = 0; index < HandEvaluator.HANDS; index++) {
+	    RATINGS[index] = rate(HANDS[index]);
+	}
+    }
+
+    /** Mapped file to write to. */
+    private final MappedByteBuffer buffer;
+    /** First hand index to evaluate. */
+    private final int firstHand;
+    /** Hand index after the last one to evaluate. */
+    private final int endHand;
+
+    /**
+     * Constructor.
+     * 
+     * @param newBuffer
+     *            Mapped file to write to
+     * @param newFirstHand
+     *            First hand index to evaluate
+     * @param newEndHand
+     *            Hand index after the last one to evaluate
+     */
+    private PolicyTableGenerator(final MappedByteBuffer newBuffer,
+	    final int newFirstHand, final int newEndHand) {
+	this.buffer = newBuffer;
+	this.firstHand = newFirstHand;
+	this.endHand = newEndHand;
+    }
+
+    /**
+     * Rate a hand by it's points and the points expected after one more swap.
+     * 
+     * @param hand
+     *            Card bitmask of the hand
+     * @return Rating of the hand
+     */
+    private static float rate(final int hand) {
+	final int points = HandEvaluator.handPoints(hand);
+	final int others = CardStack.MASK_ALL & ~hand;
+	int expected = 0;
+	for (int rest = others; rest != 0; rest &= rest - 1) {
+	    final int card = Integer.lowestOneBit(rest);
+	    int best = points;
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		best =
+			Math.max(best, HandEvaluator.handPoints(hand ^ card
+				^ Integer.lowestOneBit(drop)));
+	    }
+	    expected += best;
+	}
+	return (points + ((float) expected / Integer.bitCount(others))) / 2;
+    }
+
+    /**
+     * Choose the move for a position.
+     * 
+     * @param hand
+     *            Card bitmask of the players hand
+     * @param table
+     *            Card bitmask of the table cards
+     * @return Move, see {@link PolicyTable}
+     */
+    static int evaluate(final int hand, final int table) {
+	int bestMove = 0;
+	int bestPoints = -1;
+	float bestRating = Float.NEGATIVE_INFINITY;
+	int move = 0;
+	for (int pick = table; pick != 0; pick &= pick - 1) {
+	    final int pickBit = Integer.lowestOneBit(pick);
+	    for (int drop = hand; drop != 0; drop &= drop - 1) {
+		final int swapped =
+			hand ^ pickBit ^ Integer.lowestOneBit(drop);
+		final int index = HandEvaluator.handIndex(swapped);
+		if (RATINGS[index] > bestRating) {
+		    bestRating = RATINGS[index];
+		    bestMove = move;
+		}
+		bestPoints =
+			Math.max(bestPoints,
+				HandEvaluator.handPoints(swapped));
+		move++;
+	    }
+	}
+	final int points = HandEvaluator.handPoints(hand);
+	if ((points >= CLOSE_POINTS) && (points >= bestPoints)) {
+	    return PolicyTable.CLOSE;
+	}
+	return bestMove;
+    }
+
+    /**
+     * Evaluate all positions of a hand.
+     * 
+     * @param handIndex
+     *            Index of the hand
+     */
+    private void evaluateHand(final int handIndex) {
+	final int hand = HANDS[handIndex];
+	final int others = CardStack.MASK_ALL & ~hand;
+	int position = handIndex * PolicyTable.TABLES;
+	// tables are ordered by their index, as are hands
+	for (int index = 0; index < PolicyTable.TABLES; index += 2) {
+	    final int low = evaluate(hand, expand(HANDS[index], others));
+	    final int high =
+		    evaluate(hand, expand(HANDS[index + 1], others));
+	    this.buffer.put(PolicyTable.offset(position),
+		    (byte) (low | (high << 4)));
+	    position += 2;
+	}
+    }
+
+    /**
+     * Map ranked cards back to card slots.
+     * 
+     * @param ranked
+     *            Card bitmask of ranks among the given cards
+     * @param cards
+     *            Card bitmask of the cards ranked
+     * @return Card bitmask of the ranked cards
+     */
+    private static int expand(final int ranked, final int cards) {
+	int expanded = 0;
+	for (int rest = ranked; rest != 0; rest &= rest - 1) {
+	    expanded |=
+		    PolicyTable.nthBit(cards,
+			    Integer.numberOfTrailingZeros(rest));
+	}
+	return expanded;
+    }
+
+    @Override
+    protected void compute() {
+	if ((this.endHand - this.firstHand) == 1) {
+	    this.evaluateHand(this.firstHand);
+	    return;
+	}
+	final int middle = (this.firstHand + this.endHand) >>> 1;
+	invokeAll(new PolicyTableGenerator(this.buffer, this.firstHand,
+		middle), new PolicyTableGenerator(this.buffer, middle,
+		this.endHand));
+    }
+
+    /**
+     * Generate a policy table file.
+     * 
+     * @param file
+     *            File to write
+     * @param threads
+     *            Number of threads to use
+     * @throws IOException
+     *             If the file could not be written
+     */
+    static void generate(final File file, final int threads)
+	    throws IOException {
+	final RandomAccessFile tableFile = new RandomAccessFile(file, "rw");
+	try {
+	    tableFile.setLength(0);
+	    final MappedByteBuffer buffer =
+		    tableFile.getChannel().map(FileChannel.MapMode.READ_WRITE,
+			    0, PolicyTable.FILE_SIZE);
+	    final ForkJoinPool pool = new ForkJoinPool(threads);
+	    try {
+		pool.invoke(new PolicyTableGenerator(buffer, 0,
+			HandEvaluator.HANDS));
+	    } finally {
+		pool.shutdown();
+	    }
+	    // write the header last, so incomplete files get rejected
+	    buffer.putInt(0, PolicyTable.MAGIC);
+	    buffer.putInt(4, PolicyTable.VERSION);
+	    buffer.putInt(8, PolicyTable.POSITIONS);
+	    buffer.force();
+	} finally {
+	    tableFile.close();
+	}
+    }
+
+    /**
+     * Generate a policy table file.
+     * 
+     * @param args
+     *            Target file and optionally the number of threads
+     * @throws IOException
+     *             If the file could not be written
+     */
+    public static void main(final String[] args) throws IOException {
+	if (args.length < 1) {
+	    throw new IllegalArgumentException(
+		    "Usage: PolicyTableGenerator <file> [threads]");
+	}
+	int threads = Runtime.getRuntime().availableProcessors();
+	if (args.length > 1) {
+	    threads = Integer.parseInt(args[1]);
+	}
+	final long start = System.nanoTime();
+	generate(new File(args[0]), threads);
+	Logger.print(String.format("%d positions written to %s in %.1fs%n",
+		PolicyTable.POSITIONS, args[0],
+		(System.nanoTime() - start) / 1e9));
+	Logger.flush();
+    }
+}
@@ -0,0 +1,111 @@
+package cardGame.games.swimming;
+
+import java.util.Collection;
+
+import cardGame.card.CardDeck.Card;
+import cardGame.event.EventHandler;
+import cardGame.player.CardPlayer;
+import cardGame.player.GeneralCardPlayer;
+import cardGame.util.RandomSource;
+
+/**
+ * Computer player without any strategy. It swaps a random table card with a
+ * random own card and closes the round as soon as it holds a good hand. Useful
+ * as baseline opponent in simulations.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+class RandomPlayer extends GeneralCardPlayer {
+    /** Hand value at which the player closes the round. */
+    private static final float CLOSE_VALUE = 25;
+    /** Players cards. */
+    private final CardStack cardStack = new CardStack();
+    /** Source for the random decisions. */
+    private final RandomSource random;
+    /** Number of games played, used to select a random stream per game. */
+    private long game = 0;
+
+    /**
+     * @param newName
+     *            Players name
+     * @param newRandom
+     *            Source for the random decisions
+     */
+    RandomPlayer(final String newName, final RandomSource newRandom) {
+	super(newName);
+	this.random = newRandom;
+    }
+
+    @Override
+    protected final void registerEvents() {
+	super.registerEvents();
+	this.subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			if (player == RandomPlayer.this) {
+			    RandomPlayer.this.play();
+			}
+		    }
+		});
+    }
+
+    @Override
+    public final boolean setCards(final Collection<Card> newCards) {
+	// decisions of each game only depend on the game number
+	this.random.selectStream(this.game++);
+	this.cardStack.setCards(newCards);
+	return true;
+    }
+
+    @Override
+    public final Collection<Card> getCards() {
+	return this.cardStack.getCards();
+    }
+
+    /**
+     * Get the n-th card of a card bitmask.
+     * 
+     * @param cards
+     *            Card bitmask
+     * @param n
+     *            Number of the card, starting at zero
+     * @return Card
+     */
+    private static Card nthCard(final int cards, final int n) {
+	int mask = cards;
+	for (int i = 0; i < n; i++) {
+	    mask &= mask - 1;
+	}
+	return CardStack.card(Integer.numberOfTrailingZeros(mask));
+    }
+
+    /** Game interaction function. */
+    private void play() {
+	final Table table = (Table) this.table;
+	final int hand = this.cardStack.getCardMask();
+	if (HandEvaluator.handValue(hand) >= CLOSE_VALUE) {
+	    table.addInteraction(this, Table.Action.CLOSE, null);
+	    if (table.commitInteraction(this) == null) {
+		return;
+	    }
+	}
+
+	int tableCards = 0;
+	for (Card card : table.currentCards()) {
+	    tableCards |= CardStack.bit(card);
+	}
+	final Card cardToPick =
+		nthCard(tableCards,
+			this.random.nextInt(Integer.bitCount(tableCards)));
+	final Card cardToDrop =
+		nthCard(hand, this.random.nextInt(Integer.bitCount(hand)));
+	table.addInteraction(this, Table.Action.CARD_PICK, cardToPick);
+	table.addInteraction(this, Table.Action.CARD_DROP, cardToDrop);
+	if (table.commitInteraction(this) == null) {
+	    this.cardStack.removeCard(cardToDrop);
+	    this.cardStack.addCard(cardToPick);
+	}
+    }
+}
@@ -0,0 +1,409 @@
+package cardGame.games.swimming;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import cardGame.card.CardDeck;
+import cardGame.event.EventHandler;
+import cardGame.metrics.MetricsRegistry;
+import cardGame.out.Logger;
+import cardGame.out.SegmentWriter;
+import cardGame.player.CardPlayer;
+import cardGame.player.PlayerNames;
+import cardGame.player.SearchBudget;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
+
+/**
+ * Headless batch simulation of swimming games. Runs without any user
+ * interaction or per round output and reports the throughput at the end.<br/>
+ * 
+ * Parameters are passed as <code>--name=value</code>:
+ * <ul>
+ * <li><code>players</code> number of players (default 4)</li>
+ * <li><code>games</code> number of games to play (default 100000)</li>
+ * <li><code>rounds</code> maximum rounds per game (default 40)</li>
+ * <li><code>seed</code> master seed (default: random)</li>
+ * <li><code>mix</code> strategy mix as comma separated
+ * <code>strategy:count</code> list, e.g. <code>ai:3,random:1</code>. Seats
+ * not covered by the mix play {@link Strategy#AI}.</li>
+ * <li><code>tables</code> number of tables (default 1). Each table plays the
+ * given number of games. Multiple tables are played in parallel by a
+ * {@link Tournament}.</li>
+ * <li><code>threads</code> number of threads used for multiple tables
+ * (default: number of processors)</li>
+ * <li><code>journal</code> directory to record all games to. Each table
+ * writes it's own {@link GameJournal} segments named
+ * <code>table-&lt;number&gt;</code>. (default: no recording)</li>
+ * <li><code>metrics</code> record timing metrics and print them at the end.
+ * If the value is greater than zero, they are also printed every given number
+ * of seconds. (default: no timings)</li>
+ * <li><code>rollouts</code> number of rollouts per decision of a
+ * {@link Strategy#MCTS} player (default
+ * {@value MCTSPlayer#DEFAULT_ROLLOUTS})</li>
+ * <li><code>search-threads</code> number of threads sharing the rollouts of a
+ * single decision (default 1)</li>
+ * <li><code>move-budget</code> microseconds after which a
+ * {@link Strategy#MCTS} player plays the best move found so far, 0 to only
+ * limit the rollouts (default 0)</li>
+ * <li><code>solver-budget</code> microseconds a {@link Strategy#MCTS} player
+ * may spend on solving the last lap exactly, 0 to disable (default
+ * {@value MCTSPlayer#DEFAULT_SOLVER_BUDGET})</li>
+ * <li><code>policy</code> {@link PolicyTable} file used by
+ * {@link Strategy#POLICY} players, see {@link PolicyTableGenerator}</li>
+ * <li><code>values</code> {@link ValueTable} file used by
+ * {@link Strategy#LEARNING} players, see {@link LearningTrainer}</li>
+ * <li><code>bias</code> {@link AIPlayer.Bias} profile for all
+ * {@link Strategy#AI} players as comma separated <code>bias=value</code>
+ * list, e.g. as written by {@link BiasTuner} (default: no biases)</li>
+ * <li><code>decision-cache</code> number of decisions cached in a
+ * {@link DecisionCache} shared by all {@link Strategy#AI} players of all
+ * tables, 0 to disable (default 0)</li>
+ * </ul>
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class Simulation {
+    /** Number of players. */
+    private int players = 4;
+    /** Number of games to play. */
+    private int games = 100000;
+    /** Maximum number of rounds per game. */
+    private int maxRounds = 40;
+    /** Master seed. */
+    private long seed = SplitMixRandom.unseeded().nextLong();
+    /** Strategy for each seat. */
+    private Strategy[] seatStrategies;
+    /** Number of tables. */
+    private int tables = 1;
+    /** Number of threads used for playing multiple tables. */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /** Directory to record the games to, null if not recording. */
+    private File journal = null;
+    /** Seconds between metrics reports, -1 for no timings. */
+    private int metricsInterval = -1;
+    /** Number of rollouts per decision of searching players. */
+    private int rollouts = MCTSPlayer.DEFAULT_ROLLOUTS;
+    /** Number of threads sharing the rollouts of a decision. */
+    private int searchThreads = 1;
+    /** Time limit of a decision of searching players in microseconds. */
+    private long moveBudget = SearchBudget.UNLIMITED;
+    /** Time budget for solving the last lap in microseconds. */
+    private int solverBudget = MCTSPlayer.DEFAULT_SOLVER_BUDGET;
+    /** Moves for policy players, null if not loaded. */
+    private PolicyTable policy = null;
+    /** Values for learning players, null if not loaded. */
+    private ValueTable values = null;
+    /** Chance of a random move of learning players. */
+    private float explore = 0;
+    /** Learning rate of learning players, 0 to not learn. */
+    private float learningRate = 0;
+    /** Decisions shared by all AI players, null if not caching. */
+    private DecisionCache decisionCache = null;
+    /** Bias profile for AI players by seat. */
+    private final List<Map<AIPlayer.Bias, Float>> seatBias;
+    /** Size of a journal segment in bytes. */
+    private static final int JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Parse the command line parameters.
+     * 
+     * @param args
+     *            Parameters as <code>--name=value</code>
+     */
+    Simulation(final String[] args) {
+	String mix = "";
+	String bias = "";
+	for (String arg : args) {
+	    final int split = arg.indexOf('=');
+	    if (!arg.startsWith("--") || (split < 0)) {
+		throw new IllegalArgumentException("Invalid parameter: " + arg);
+	    }
+	    final String name = arg.substring(2, split);
+	    final String value = arg.substring(split + 1);
+	    if (name.equals("players")) {
+		this.players = Integer.parseInt(value);
+	    } else if (name.equals("games")) {
+		this.games = Integer.parseInt(value);
+	    } else if (name.equals("rounds")) {
+		this.maxRounds = Integer.parseInt(value);
+	    } else if (name.equals("seed")) {
+		this.seed = Long.parseLong(value);
+	    } else if (name.equals("mix")) {
+		mix = value;
+	    } else if (name.equals("tables")) {
+		this.tables = Integer.parseInt(value);
+		if (this.tables < 1) {
+		    throw new IllegalArgumentException(
+			    "At least one table is needed: " + arg);
+		}
+	    } else if (name.equals("threads")) {
+		this.threads = Integer.parseInt(value);
+	    } else if (name.equals("journal")) {
+		this.journal = new File(value);
+	    } else if (name.equals("metrics")) {
+		this.metricsInterval = Integer.parseInt(value);
+	    } else if (name.equals("rollouts")) {
+		this.rollouts = Integer.parseInt(value);
+	    } else if (name.equals("search-threads")) {
+		this.searchThreads = Integer.parseInt(value);
+	    } else if (name.equals("move-budget")) {
+		this.moveBudget = Long.parseLong(value);
+	    } else if (name.equals("solver-budget")) {
+		this.solverBudget = Integer.parseInt(value);
+	    } else if (name.equals("policy")) {
+		try {
+		    this.policy = PolicyTable.open(new File(value));
+		} catch (IOException e) {
+		    throw new IllegalArgumentException(
+			    "Unable to load policy table.", e);
+		}
+	    } else if (name.equals("values")) {
+		try {
+		    this.values = ValueTable.load(new File(value));
+		} catch (IOException e) {
+		    throw new IllegalArgumentException(
+			    "Unable to load value table.", e);
+		}
+	    } else if (name.equals("bias")) {
+		bias = value;
+	    } else if (name.equals("decision-cache")) {
+		final int entries = Integer.parseInt(value);
+		if (entries > 0) {
+		    this.decisionCache = new DecisionCache("ai", entries);
+		}
+	    } else {
+		throw new IllegalArgumentException("Unknown parameter: " + arg);
+	    }
+	}
+	this.seatStrategies = parseMix(mix, this.players);
+	if (this.plays(Strategy.POLICY) && (this.policy == null)) {
+	    throw new IllegalArgumentException(
+		    "Usage: --mix=policy:<count> --policy=<file>");
+	}
+	this.seatBias =
+		new ArrayList<Map<AIPlayer.Bias, Float>>(this.players);
+	for (int seat = 0; seat < this.players; seat++) {
+	    this.seatBias.add(AIPlayer.Bias.parse(bias));
+	}
+    }
+
+    /**
+     * Parse a strategy mix.
+     * 
+     * @param mix
+     *            Comma separated <code>strategy:count</code> list
+     * @param players
+     *            Number of players
+     * @return Strategy for each seat
+     */
+    static Strategy[] parseMix(final String mix, final int players) {
+	final List<Strategy> strategies = new ArrayList<Strategy>(players);
+	for (String part : mix.split(",")) {
+	    if (part.isEmpty()) {
+		continue;
+	    }
+	    final String[] entry = part.split(":");
+	    final Strategy strategy =
+		    Strategy.valueOf(entry[0].trim().toUpperCase());
+	    int count = 1;
+	    if (entry.length > 1) {
+		count = Integer.parseInt(entry[1].trim());
+	    }
+	    for (int i = 0; i < count; i++) {
+		strategies.add(strategy);
+	    }
+	}
+	if (strategies.size() > players) {
+	    throw new IllegalArgumentException(String.format(
+		    "Strategy mix has %d players, but only %d play.",
+		    strategies.size(), players));
+	}
+	while (strategies.size() < players) {
+	    strategies.add(Strategy.AI);
+	}
+	return strategies.toArray(new Strategy[players]);
+    }
+
+    /**
+     * Check, if a strategy is played at any seat.
+     * 
+     * @param strategy
+     *            Strategy to look for
+     * @return True if at least one seat plays the strategy
+     */
+    private boolean plays(final Strategy strategy) {
+	for (Strategy seatStrategy : this.seatStrategies) {
+	    if (seatStrategy == strategy) {
+		return true;
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Get the number of tables to play.
+     * 
+     * @return Number of tables
+     */
+    int getTables() {
+	return this.tables;
+    }
+
+    /**
+     * Set the bias profile of the AI player at a seat.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @param bias
+     *            Biases to set, others keep their default value
+     */
+    void setSeatBias(final int seat, final Map<AIPlayer.Bias, Float> bias) {
+	this.seatBias.set(seat, bias);
+    }
+
+    /**
+     * Let learning players learn while playing.
+     * 
+     * @param newValues
+     *            Values to play by and to update
+     * @param newExplore
+     *            Chance of a random move, 0-1
+     * @param newLearningRate
+     *            Fraction of the distance to the outcome moved per game, 0-1
+     */
+    void setLearning(final ValueTable newValues, final float newExplore,
+	    final float newLearningRate) {
+	this.values = newValues;
+	this.explore = newExplore;
+	this.learningRate = newLearningRate;
+    }
+
+    /**
+     * Setup a table with players and play all games on it. Everything
+     * happening at the table depends only on the master seed and the table
+     * number, so tables may be played in any order and on any thread.
+     * 
+     * @param tableNumber
+     *            Number of the table
+     * @return Statistics of all games played at the table
+     */
+    SimulationStats playTable(final int tableNumber) {
+	final RandomSource random =
+		new SplitMixRandom(this.seed).split(tableNumber);
+	final GameLogic game = new GameLogic();
+	final Table table = new Table(CardDeck.Deck.SKAT, random.split(0));
+	final PlayerNames names = new PlayerNames(random.split(1));
+	final SimulationStats stats = new SimulationStats();
+	game.setTable(table);
+	// the journal must see each turn start before the players do
+	GameJournal gameJournal = null;
+	if (this.journal != null) {
+	    gameJournal =
+		    new GameJournal(table, new SegmentWriter(this.journal,
+			    "table-" + tableNumber, JOURNAL_SEGMENT_SIZE));
+	}
+	for (int seat = 0; seat < this.players; seat++) {
+	    final CardPlayer player =
+		    this.seatStrategies[seat].createPlayer(names.next(),
+			    random.split(2 + seat));
+	    if (player instanceof MCTSPlayer) {
+		((MCTSPlayer) player).setBudget(new SearchBudget(this.rollouts,
+			this.moveBudget), this.searchThreads);
+		((MCTSPlayer) player).setSolverBudget(this.solverBudget);
+	    } else if (player instanceof PolicyPlayer) {
+		((PolicyPlayer) player).setPolicy(this.policy);
+	    } else if (player instanceof LearningPlayer) {
+		((LearningPlayer) player).setValues(this.values);
+		((LearningPlayer) player).setTraining(this.explore,
+			this.learningRate);
+	    } else if (player instanceof AIPlayer) {
+		((AIPlayer) player).setBias(this.seatBias.get(seat));
+		((AIPlayer) player).setDecisionCache(this.decisionCache);
+	    }
+	    try {
+		table.addPlayer(player);
+	    } catch (Exception e) {
+		throw new IllegalStateException(e);
+	    }
+	}
+	game.setInteractive(false);
+	game.setNumberOfGamesToPlay(this.games);
+	game.setMaxRoundsToPlay(this.maxRounds);
+	table.getEventBus().subscribe(GameLogic.Event.GAME_OVER,
+		new EventHandler<GameResult>() {
+		    @Override
+		    public void handle(final GameResult result) {
+			stats.add(result, Simulation.this.seatStrategies);
+		    }
+		});
+
+	game.start();
+	table.dispose();
+	if (gameJournal != null) {
+	    try {
+		gameJournal.close();
+	    } catch (IOException e) {
+		throw new IllegalStateException("Unable to close journal.", e);
+	    }
+	}
+	return stats;
+    }
+
+    /**
+     * Run a headless simulation.
+     * 
+     * @param args
+     *            Parameters, see {@link Simulation}
+     */
+    public static void main(final String[] args) {
+	Logger.setDefaultLevel(Logger.Level.OFF);
+	final Simulation simulation = new Simulation(args);
+	// the trainer passes it's values later on, so not checked on parsing
+	if (simulation.plays(Strategy.LEARNING)
+		&& (simulation.values == null)) {
+	    throw new IllegalArgumentException(
+		    "Usage: --mix=learning:<count> --values=<file>");
+	}
+	Logger.print(String.format(
+		"Simulating %d tables with %d games, %d players, seed %d%n",
+		simulation.tables, simulation.games, simulation.players,
+		simulation.seed));
+	ScheduledExecutorService metricsReport = null;
+	if (simulation.metricsInterval >= 0) {
+	    MetricsRegistry.setEnabled(true);
+	    if (simulation.metricsInterval > 0) {
+		metricsReport =
+			MetricsRegistry.global().report(
+				simulation.metricsInterval, TimeUnit.SECONDS);
+	    }
+	}
+	final long start = System.nanoTime();
+	SimulationStats stats;
+	if (simulation.tables == 1) {
+	    stats = simulation.playTable(0);
+	} else {
+	    stats = Tournament.play(simulation, simulation.threads);
+	}
+	Logger.print(stats.report(System.nanoTime() - start));
+	if (simulation.decisionCache != null) {
+	    Logger.print(String.format(
+		    "decision cache: %d entries, %.2f%% hits%n",
+		    simulation.decisionCache.capacity(),
+		    simulation.decisionCache.hitRate() * 100));
+	}
+	if (metricsReport != null) {
+	    metricsReport.shutdown();
+	}
+	if (simulation.metricsInterval >= 0) {
+	    Logger.print(MetricsRegistry.global().snapshot());
+	}
+	Logger.flush();
+    }
+}
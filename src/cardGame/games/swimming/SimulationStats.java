@@ -0,0 +1,135 @@
+package cardGame.games.swimming;
+
+/**
+ * Aggregated results of simulated games. Statistics of multiple simulations
+ * may be combined using {@link #merge(SimulationStats)}.
+ */
+final class SimulationStats {
+    /** Number of games played. */
+    private long games;
+    /** Number of player turns taken. */
+    private long turns;
+    /** Number of rounds played. */
+    private long rounds;
+    /** Number of games ended by a player closing the round. */
+    private long closedGames;
+    /** Number of games played by each strategy, counted once per seat. */
+    private final long[] strategyGames = new long[Strategy.values().length];
+    /** Number of games lost by each strategy, counted once per seat. */
+    private final long[] strategyLosses = new long[Strategy.values().length];
+    /** Number of games lost by each seat. */
+    private final long[] seatLosses = new long[GameState.MAX_PLAYERS];
+
+    /**
+     * Record the result of a game.
+     * 
+     * @param result
+     *            Result of the game
+     * @param seatStrategies
+     *            Strategy used by each seat
+     */
+    void add(final GameResult result, final Strategy[] seatStrategies) {
+	this.games++;
+	this.turns += result.getTurns();
+	this.rounds += result.getRounds();
+	if (result.getClosingSeat() >= 0) {
+	    this.closedGames++;
+	}
+	for (int seat = 0; seat < seatStrategies.length; seat++) {
+	    final int strategy = seatStrategies[seat].ordinal();
+	    this.strategyGames[strategy]++;
+	    if (result.isLoser(seat)) {
+		this.strategyLosses[strategy]++;
+		this.seatLosses[seat]++;
+	    }
+	}
+    }
+
+    /**
+     * Add the statistics of another simulation to this one.
+     * 
+     * @param other
+     *            Statistics to add
+     */
+    void merge(final SimulationStats other) {
+	this.games += other.games;
+	this.turns += other.turns;
+	this.rounds += other.rounds;
+	this.closedGames += other.closedGames;
+	for (int i = 0; i < this.strategyGames.length; i++) {
+	    this.strategyGames[i] += other.strategyGames[i];
+	    this.strategyLosses[i] += other.strategyLosses[i];
+	}
+	for (int i = 0; i < this.seatLosses.length; i++) {
+	    this.seatLosses[i] += other.seatLosses[i];
+	}
+    }
+
+    /**
+     * Get the number of games played.
+     * 
+     * @return Number of games
+     */
+    long getGames() {
+	return this.games;
+    }
+
+    /**
+     * Get the number of player turns taken.
+     * 
+     * @return Number of turns
+     */
+    long getTurns() {
+	return this.turns;
+    }
+
+    /**
+     * Get the rate of games lost by a strategy.
+     * 
+     * @param strategy
+     *            Strategy to check
+     * @return Lost games per seat and game or NaN, if the strategy didn't
+     *         play
+     */
+    double lossRate(final Strategy strategy) {
+	return this.strategyLosses[strategy.ordinal()]
+		/ (double) this.strategyGames[strategy.ordinal()];
+    }
+
+    /**
+     * Get the rate of games lost by a seat.
+     * 
+     * @param seat
+     *            Seat to check
+     * @return Lost games per game or NaN, if no game was played
+     */
+    double seatLossRate(final int seat) {
+	return this.seatLosses[seat] / (double) this.games;
+    }
+
+    /**
+     * Get a summary of these statistics.
+     * 
+     * @param nanos
+     *            Time taken to simulate the games in nanoseconds
+     * @return Multi line summary
+     */
+    String report(final long nanos) {
+	final double seconds = nanos / 1e9;
+	final StringBuilder report = new StringBuilder();
+	report.append(String.format(
+		"games=%d turns=%d rounds=%d closed=%d time=%.3fs%n",
+		this.games, this.turns, this.rounds, this.closedGames, seconds));
+	report.append(String.format("games/sec=%.0f turns/sec=%.0f%n",
+		this.games / seconds, this.turns / seconds));
+	for (Strategy strategy : Strategy.values()) {
+	    if (this.strategyGames[strategy.ordinal()] > 0) {
+		report.append(String.format("%s: seats=%d lost=%d (%.2f%%)%n",
+			strategy, this.strategyGames[strategy.ordinal()],
+			this.strategyLosses[strategy.ordinal()],
+			this.lossRate(strategy) * 100));
+	    }
+	}
+	return report.toString();
+    }
+}
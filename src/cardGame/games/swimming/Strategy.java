@@ -0,0 +1,61 @@
+package cardGame.games.swimming;
+
+import cardGame.player.CardPlayer;
+import cardGame.util.RandomSource;
+
+/** Computer player strategies available for simulations. */
+enum Strategy {
+    /** Heuristic player, see {@link AIPlayer}. */
+    AI {
+	@Override
+	CardPlayer createPlayer(final String name, final RandomSource random) {
+	    return new AIPlayer(name);
+	}
+    },
+    /** Random player, see {@link RandomPlayer}. */
+    RANDOM {
+	@Override
+	CardPlayer createPlayer(final String name, final RandomSource random) {
+	    return new RandomPlayer(name, random);
+	}
+    },
+    /** Searching player, see {@link MCTSPlayer}. */
+    MCTS {
+	@Override
+	CardPlayer createPlayer(final String name, final RandomSource random) {
+	    return new MCTSPlayer(name, random);
+	}
+    },
+    /**
+     * Player looking up it's moves, see {@link PolicyPlayer}. Needs a
+     * {@link PolicyTable} to be set.
+     */
+    POLICY {
+	@Override
+	CardPlayer createPlayer(final String name, final RandomSource random) {
+	    return new PolicyPlayer(name);
+	}
+    },
+    /**
+     * Player choosing moves by learned values, see {@link LearningPlayer}.
+     * Needs a {@link ValueTable} to be set.
+     */
+    LEARNING {
+	@Override
+	CardPlayer createPlayer(final String name, final RandomSource random) {
+	    return new LearningPlayer(name, random);
+	}
+    };
+
+    /**
+     * Create a new player using this strategy.
+     * 
+     * @param name
+     *            Name of the player
+     * @param random
+     *            Source of randomness for the player. Deterministic
+     *            strategies may ignore it.
+     * @return New player
+     */
+    abstract CardPlayer createPlayer(String name, RandomSource random);
+}
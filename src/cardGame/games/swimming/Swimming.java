@@ -1,20 +1,49 @@
 package cardGame.games.swimming;
 
 import cardGame.card.CardDeck;
+import cardGame.event.ObserverDispatcher;
+import cardGame.out.Logger;
+import cardGame.player.PlayerNames;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
 
 public class Swimming {
 
-    public static void main(String[] args) {
+    /**
+     * Play some games with computer players. Log levels may be set by the
+     * system property <code>cardGame.log</code>, see
+     * {@link Logger#configure(String)}.
+     * 
+     * @param args
+     *            Optional seed as first argument to make the games
+     *            reproducible
+     * @throws InterruptedException
+     *             If interrupted while waiting for the log to be written
+     */
+    public static void main(String[] args) throws InterruptedException {
+	Logger.configure(System.getProperty("cardGame.log", ""));
+	RandomSource random;
+	if (args.length > 0) {
+	    random = new SplitMixRandom(Long.parseLong(args[0]));
+	} else {
+	    random = SplitMixRandom.unseeded();
+	}
 	GameLogic game = new GameLogic();
-	Table table = new Table(CardDeck.Deck.SKAT);
+	Table table = new Table(CardDeck.Deck.SKAT, random.split(0));
+	PlayerNames names = new PlayerNames(random.split(1));
+	ObserverDispatcher observers =
+		new ObserverDispatcher(1024,
+			ObserverDispatcher.BackPressure.BLOCK, 1);
 
 	game.setTable(table);
+	TableLog.observe(observers);
+	observers.attach(table.getEventBus(), TableLog.EVENTS);
 
 	try {
-	    table.addPlayer(new AIPlayer());
-	    table.addPlayer(new AIPlayer());
-	    table.addPlayer(new AIPlayer());
-	    table.addPlayer(new AIPlayer());
+	    table.addPlayer(new AIPlayer(names.next()));
+	    table.addPlayer(new AIPlayer(names.next()));
+	    table.addPlayer(new AIPlayer(names.next()));
+	    table.addPlayer(new AIPlayer(names.next()));
 	} catch (Exception e) {
 	    // TODO Auto-generated catch block
 	    e.printStackTrace();
@@ -24,6 +53,9 @@ public class Swimming {
 	game.setMaxRoundsToPlay(40);
 
 	game.start();
+	table.dispose();
+	observers.close();
+	Logger.flush();
     }
 
 }
@@ -1,21 +1,24 @@
 package cardGame.games.swimming;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.List;
 
 import cardGame.card.CardDeck.Card;
 import cardGame.card.CardDeck.Deck;
 import cardGame.event.CardGameEvent;
-import cardGame.event.EventBus;
-import cardGame.event.EventReceiver;
-import cardGame.out.Debug;
+import cardGame.event.EventChannel;
+import cardGame.event.EventHandler;
+import cardGame.metrics.Histogram;
+import cardGame.metrics.MetricsRegistry;
+import cardGame.out.Logger;
 import cardGame.player.CardPlayer;
 import cardGame.table.GeneralGameTable;
 import cardGame.table.TableAction;
+import cardGame.util.RandomSource;
+import cardGame.util.SplitMixRandom;
 
 /**
  * <code>GameTable</code> implementation for playing the swimming game.
@@ -23,18 +26,35 @@ import cardGame.table.TableAction;
  * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
  * 
  */
-public class Table extends GeneralGameTable implements EventReceiver {
+public class Table extends GeneralGameTable {
+    /** Logger for this class. */
+    private static final Logger LOG = Logger.get("table");
+    /** Time needed for committing interactions. */
+    private static final Histogram COMMIT_NANOS = MetricsRegistry.global()
+	    .histogram("table.commit.nanos");
     /** Cards currently on the table. */
     private final EnumSet<Card> tableCards = EnumSet.noneOf(Card.class);
     /** Reference to the current playing player. */
     private CardPlayer currentPlayer;
     /** Number of Cards initially passed to the user. */
     private static final byte INITIAL_CARDS_AMOUNT = 3;
+    /** Bare card values by {@link Card#ordinal()}. */
+    private static final byte[] CARD_VALUES = new byte[Card.values().length];
+
+    static {
+	for (Card card : Card.values()) {
+	    CARD_VALUES[card.ordinal()] = calculateCardValue(card);
+	}
+    }
     /** True if the current round was closed. Prevents closing a second time. */
     private boolean roundClosed = false;
     /** Interactions stored by a player. */
     private final EnumMap<Action, Object> interactions =
 	    new EnumMap<Action, Object>(Action.class);
+    /** Card bitmask of the cards held by each player, indexed by seat. */
+    private final int[] playerHands;
+    /** Channel for events emitted by this table. */
+    private final EventChannel<Event> eventChannel;
 
     /**
      * Possible interactions with the table. These actions may be fired with an
@@ -62,10 +82,15 @@ public class Table extends GeneralGameTable implements EventReceiver {
 
     /** Events emitted by this table. */
     public enum Event implements CardGameEvent {
+	/**
+	 * A player got his cards for a new game.<br/>
+	 * Data: <code>Player</code> who got the cards
+	 */
+	DEAL,
 	/**
 	 * Current cards on the table.<br/>
-	 * Data: <code>Collection&lt;Card&gt;</code> with the cards currently
-	 * available
+	 * Data: unmodifiable <code>Collection&lt;Card&gt;</code> with the cards
+	 * currently available
 	 */
 	CARDS,
 	/**
@@ -86,73 +111,134 @@ public class Table extends GeneralGameTable implements EventReceiver {
     }
 
     /**
+     * Constructor. Games on this table will not be reproducible.
+     * 
      * @param deck
      *            The type of cards played on this table
      */
     Table(final Deck deck) {
-	super(deck);
-	EventBus.INSTANCE.registerEventReceiver(this,
-		GameLogic.Event.NEXTPLAYER);
+	this(deck, SplitMixRandom.unseeded());
+    }
+
+    /**
+     * @param deck
+     *            The type of cards played on this table
+     * @param random
+     *            Source of randomness for this table
+     */
+    Table(final Deck deck, final RandomSource random) {
+	super(deck, random);
+	this.eventChannel = this.getEventBus().channel(Event.class);
+	this.getEventBus().subscribe(GameLogic.Event.NEXTPLAYER,
+		new EventHandler<CardPlayer>() {
+		    @Override
+		    public void handle(final CardPlayer player) {
+			Table.this.currentPlayer = player;
+			Table.this.interactions.clear();
+		    }
+		});
 	// CHECKSTYLE:OFF
 	this.playersMin = 2;
 	this.playersMax = 9;
 	// CHECKSTYLE:ON
+	this.playerHands = new int[this.playersMax];
     }
 
     /**
-     * Deal out cards for a player. Use this only, if the player is not the one
-     * who starts the game. In this case use
-     * {@link Table#dealInitialCards(CardPlayer)}.
+     * Record the cards a player holds.
      * 
      * @param player
-     *            Player who should receive the cards
+     *            Player holding the cards
+     * @param cards
+     *            Cards the player holds
      */
-    final void dealCards(final CardPlayer player) {
-	List<Card> cards = new ArrayList<Card>(INITIAL_CARDS_AMOUNT);
-	for (int i = 0; i < INITIAL_CARDS_AMOUNT; i++) {
-	    cards.add(this.dealCard());
+    private void setHand(final CardPlayer player, final Card[] cards) {
+	int hand = 0;
+	for (Card card : cards) {
+	    hand |= CardStack.bit(card);
 	}
-	player.setCards(cards);
+	this.playerHands[this.seatOf(player)] = hand;
     }
 
     /**
-     * Set an initial set of cards for the beginning player. This will also set
-     * the initial state (cards, etc.) for the table.
+     * Get the seat of a player.
      * 
      * @param player
-     *            Player who should receive the cards
+     *            Player whose seat to get
+     * @return Seat of the player
      */
-    final void dealInitialCards(final CardPlayer player) {
+    final int seat(final CardPlayer player) {
+	return this.seatOf(player);
+    }
+
+    /**
+     * Get the seat of the player whose turn it is. The table learns about a
+     * new turn before any player, so this is already up to date while players
+     * handle the events of the turn.
+     * 
+     * @return Seat of the current player
+     */
+    final int currentSeat() {
+	return this.seatOf(this.currentPlayer);
+    }
+
+    /**
+     * Get the cards a player is currently holding.
+     * 
+     * @param seat
+     *            Seat of the player
+     * @return Card bitmask of the players cards
+     */
+    final int handMask(final int seat) {
+	return this.playerHands[seat];
+    }
+
+    /**
+     * Deal out the cards for a new game. All hands are taken from the stack at
+     * once. The starting player gets offered the first hand. If he rejects it,
+     * it will be placed on the table and he gets the second one. Otherwise the
+     * second hand goes to the table. All other players get one of the
+     * remaining hands. This will also set the initial state (cards, etc.) for
+     * the table.
+     * 
+     * @param startingPlayer
+     *            Player who starts the game
+     */
+    final void dealGame(final CardPlayer startingPlayer) {
 	// setup a new game
 	this.tableCards.clear();
 	this.roundClosed = false;
 
-	List<Card> cards = new ArrayList<Card>(INITIAL_CARDS_AMOUNT);
-	for (int i = 0; i < INITIAL_CARDS_AMOUNT; i++) {
-	    cards.add(this.dealCard());
-	}
-	if (!player.setCards(cards)) {
+	// one hand for each player and one for the table
+	final Card[][] hands =
+		this.dealHands(this.numberOfPlayers() + 1,
+			INITIAL_CARDS_AMOUNT);
+	if (!startingPlayer.setCards(Arrays.asList(hands[0]))) {
 	    // ..he rejected the first set, so he must accept the second
-	    // set.
-	    // The first set remains on the table..
-	    this.tableCards.addAll(cards);
-	    // .. the new goes to the player
-	    cards.clear();
-	    for (int i = 0; i < INITIAL_CARDS_AMOUNT; i++) {
-		cards.add(this.dealCard());
-	    }
-	    player.setCards(cards);
+	    // set. The first set remains on the table..
+	    Collections.addAll(this.tableCards, hands[0]);
+	    startingPlayer.setCards(Arrays.asList(hands[1]));
+	    this.setHand(startingPlayer, hands[1]);
 	} else {
-	    // .. he accepted the first set, so get a second one for the
+	    // .. he accepted the first set, so the second one goes to the
 	    // table.
-	    cards.clear();
-	    for (int i = 0; i < INITIAL_CARDS_AMOUNT; i++) {
-		cards.add(this.dealCard());
+	    this.setHand(startingPlayer, hands[0]);
+	    Collections.addAll(this.tableCards, hands[1]);
+	}
+	this.eventChannel.fire(Event.DEAL, startingPlayer);
+	// pass a snapshot, receivers may look at it after the game went on
+	this.eventChannel.fire(Event.CARDS,
+		Collections.unmodifiableSet(EnumSet.copyOf(this.tableCards)));
+
+	int hand = 2;
+	for (CardPlayer player : this.player()) {
+	    if (!player.equals(startingPlayer)) {
+		player.setCards(Arrays.asList(hands[hand]));
+		this.setHand(player, hands[hand]);
+		this.eventChannel.fire(Event.DEAL, player);
+		hand++;
 	    }
-	    this.tableCards.addAll(cards);
 	}
-	EventBus.INSTANCE.fireEvent(Event.CARDS,
-		Collections.unmodifiableSet(this.tableCards));
     }
 
     /**
@@ -184,6 +270,23 @@ public class Table extends GeneralGameTable implements EventReceiver {
     @Override
     public final Enum<? extends TableAction> commitInteraction(
 	    final CardPlayer player) {
+	if (!MetricsRegistry.isEnabled()) {
+	    return this.commit(player);
+	}
+	final long start = System.nanoTime();
+	final Enum<? extends TableAction> failed = this.commit(player);
+	COMMIT_NANOS.recordSince(start);
+	return failed;
+    }
+
+    /**
+     * Commit the stored interactions of a player.
+     * 
+     * @param player
+     *            Player who commits his interactions
+     * @return The failing action, if any or null if all actions went ok
+     */
+    private Enum<? extends TableAction> commit(final CardPlayer player) {
 	boolean actionDone = false;
 	this.legitimatePlayer(player);
 
@@ -191,23 +294,32 @@ public class Table extends GeneralGameTable implements EventReceiver {
 		&& (this.interactions.containsKey(Action.CARD_PICK))) {
 	    Card pickCard = (Card) this.interactions.get(Action.CARD_PICK);
 	    Card dropCard = (Card) this.interactions.get(Action.CARD_DROP);
+	    final int seat = this.seatOf(player);
 
+	    // only cards held may be dropped
+	    if ((this.playerHands[seat] & CardStack.bit(dropCard)) == 0) {
+		return Action.CARD_DROP;
+	    }
 	    // try pick
 	    if (this.tableCards.remove(pickCard)) {
-		EventBus.INSTANCE.fireEvent(Event.CARD_PICK, pickCard);
+		this.eventChannel.fire(Event.CARD_PICK, pickCard);
 	    } else {
 		// failed
 		return Action.CARD_PICK;
 	    }
 	    // try drop
 	    if (this.tableCards.add(dropCard)) {
-		EventBus.INSTANCE.fireEvent(Event.CARD_DROP, dropCard);
+		this.eventChannel.fire(Event.CARD_DROP, dropCard);
 	    } else {
 		// failed
 		return Action.CARD_DROP;
 	    }
 
-	    Debug.printfn(Debug.Level.INFO, "Table <%s> drop:%s pick:%s",
+	    this.playerHands[seat] =
+		    (this.playerHands[seat] | CardStack.bit(pickCard))
+			    & ~CardStack.bit(dropCard);
+
+	    LOG.log(Logger.Level.INFO, "Table <%s> drop:%s pick:%s",
 		    player, dropCard, pickCard);
 
 	    this.interactions.remove(Action.CARD_PICK);
@@ -224,10 +336,10 @@ public class Table extends GeneralGameTable implements EventReceiver {
 	    switch (action) {
 	    case CLOSE:
 		if (!this.roundClosed) {
-		    Debug.printfn(Debug.Level.INFO,
+		    LOG.log(Logger.Level.INFO,
 			    "Table <%s> Closed the round!", player);
 		    this.roundClosed = true;
-		    EventBus.INSTANCE.fireEvent(Event.CLOSE_CALL, player);
+		    this.eventChannel.fire(Event.CLOSE_CALL, player);
 		    actionDone = true;
 		}
 		break;
@@ -238,21 +350,6 @@ public class Table extends GeneralGameTable implements EventReceiver {
 	return null;
     }
 
-    @Override
-    public final void handleEvent(final CardGameEvent event, final Object data) {
-	Class<? extends CardGameEvent> eventClass = event.getClass();
-	if (eventClass.equals(GameLogic.Event.class)) {
-	    switch ((GameLogic.Event) event) {
-	    case NEXTPLAYER:
-		this.currentPlayer = (CardPlayer) data;
-		this.interactions.clear();
-		break;
-	    default:
-		break;
-	    }
-	}
-    }
-
     /**
      * Get the bare rating of a card according to the rules of the game.
      * 
@@ -261,6 +358,18 @@ public class Table extends GeneralGameTable implements EventReceiver {
      * @return Value of the card
      */
     public static int getCardValue(final Card card) {
+	return CARD_VALUES[card.ordinal()];
+    }
+
+    /**
+     * Calculate the bare rating of a card according to the rules of the game.
+     * Only used to fill the {@link #CARD_VALUES} lookup table.
+     * 
+     * @param card
+     *            Card to rate
+     * @return Value of the card
+     */
+    private static byte calculateCardValue(final Card card) {
 	int cardValue = card.getType().ordinal();
 	// CHECKSTYLE:OFF
 	if (cardValue < 5) {
@@ -271,7 +380,7 @@ public class Table extends GeneralGameTable implements EventReceiver {
 	if (cardValue < 8) {
 	    // card ordinal counting begin at 2, so add this as offset
 	    // ordinal(5)=7, ordinal(6)=8, ordinal(7)=9
-	    return cardValue + 2;
+	    return (byte) (cardValue + 2);
 	} else if (cardValue < 12) {
 	    // ordinal(8)=10, ordinal(9)=J, ordinal(10)=Q, ordinal(11)=K
 	    return 10;
@@ -0,0 +1,63 @@
+package cardGame.games.swimming;
+
+import java.util.Collection;
+
+import cardGame.card.CardDeck.Card;
+import cardGame.event.CardGameEvent;
+import cardGame.event.EventReceiver;
+import cardGame.event.ObserverDispatcher;
+import cardGame.out.Logger;
+import cardGame.table.GeneralGameTable;
+
+/**
+ * Logs what's happening at the table. Meant to be run as an observer of an
+ * {@link ObserverDispatcher}, so the logging doesn't slow down the game.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+final class TableLog implements EventReceiver {
+    /** Logger for this class. */
+    private static final Logger LOG = Logger.get("table");
+    /** Events this log is interested in. */
+    static final CardGameEvent[] EVENTS = new CardGameEvent[] {
+	    GeneralGameTable.Event.CLOSED,
+	    GeneralGameTable.Event.PLAYER_JOINED,
+	    GeneralGameTable.Event.PLAYER_LEFT,
+	    GeneralGameTable.Event.DISPOSED, Table.Event.CARDS };
+
+    /**
+     * Log all table events to the given dispatcher.
+     * 
+     * @param dispatcher
+     *            Dispatcher the table events are published to
+     */
+    static void observe(final ObserverDispatcher dispatcher) {
+	dispatcher.addObserver(new TableLog(), EVENTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleEvent(final CardGameEvent event, final Object data) {
+	if (!LOG.isEnabled(Logger.Level.INFO)) {
+	    return;
+	}
+	if (event == GeneralGameTable.Event.CLOSED) {
+	    LOG.log(Logger.Level.INFO, "Table is now closed.");
+	} else if (event == GeneralGameTable.Event.PLAYER_JOINED) {
+	    LOG.log(Logger.Level.INFO, "Player '%s' joined the table.",
+		    data);
+	} else if (event == GeneralGameTable.Event.PLAYER_LEFT) {
+	    LOG.log(Logger.Level.INFO, "Player '%s' left the table.",
+		    data);
+	} else if (event == GeneralGameTable.Event.DISPOSED) {
+	    LOG.log(Logger.Level.INFO, "Table is disposed.");
+	} else if (event == Table.Event.CARDS) {
+	    StringBuffer cardString = new StringBuffer();
+	    for (Card card : (Collection<Card>) data) {
+		cardString.append(card);
+	    }
+	    LOG.log(Logger.Level.INFO, "Table cards: %s", cardString);
+	}
+    }
+}
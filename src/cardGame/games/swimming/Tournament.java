@@ -0,0 +1,90 @@
+package cardGame.games.swimming;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays the tables of a {@link Simulation} in parallel on a work-stealing
+ * {@link ForkJoinPool}. The range of tables is split in halves until a single
+ * table is left, which is then played by the current worker thread. Every
+ * table has it's own event bus and random source, so tables share no state.
+ * The statistics of all tables are merged back along the split tree. As the
+ * results of each table depend only on the master seed and the table number,
+ * the merged result is the same for every run with the same seed.
+ */
+final class Tournament extends RecursiveTask<SimulationStats> {
+    /** */
+    private static final long serialVersionUID = 1L;
+    /** Simulation providing the table setup. */
+    private final Simulation simulation;
+    /** First table to play. */
+    private final int firstTable;
+    /** Table after the last one to play. */
+    private final int endTable;
+
+    /**
+     * Constructor.
+     * 
+     * @param newSimulation
+     *            Simulation providing the table setup
+     * @param newFirstTable
+     *            First table to play
+     * @param newEndTable
+     *            Table after the last one to play
+     */
+    private Tournament(final Simulation newSimulation,
+	    final int newFirstTable, final int newEndTable) {
+	this.simulation = newSimulation;
+	this.firstTable = newFirstTable;
+	this.endTable = newEndTable;
+    }
+
+    /**
+     * Create a task playing all tables of a simulation, e.g. to play multiple
+     * simulations on a shared pool.
+     * 
+     * @param simulation
+     *            Simulation providing the table setup
+     * @return Task returning the merged statistics of all tables
+     */
+    static Tournament of(final Simulation simulation) {
+	return new Tournament(simulation, 0, simulation.getTables());
+    }
+
+    /**
+     * Play all tables of a simulation.
+     * 
+     * @param simulation
+     *            Simulation providing the table setup
+     * @param threads
+     *            Number of threads to use
+     * @return Merged statistics of all tables
+     */
+    static SimulationStats play(final Simulation simulation, final int threads) {
+	final ForkJoinPool pool = new ForkJoinPool(threads);
+	try {
+	    return pool.invoke(of(simulation));
+	} finally {
+	    pool.shutdown();
+	}
+    }
+
+    @Override
+    protected SimulationStats compute() {
+	if (this.endTable <= this.firstTable) {
+	    return new SimulationStats();
+	}
+	if ((this.endTable - this.firstTable) == 1) {
+	    return this.simulation.playTable(this.firstTable);
+	}
+	final int middle = (this.firstTable + this.endTable) >>> 1;
+	final Tournament left =
+		new Tournament(this.simulation, this.firstTable, middle);
+	final Tournament right =
+		new Tournament(this.simulation, middle, this.endTable);
+	left.fork();
+	final SimulationStats stats = right.compute();
+	stats.merge(left.join());
+	return stats;
+    }
+}
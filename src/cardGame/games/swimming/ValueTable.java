@@ -0,0 +1,244 @@
+package cardGame.games.swimming;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing map from long keys to float values, used to store the
+ * learned values of a {@link LearningPlayer}. Keys and values are kept in
+ * primitive arrays, so neither lookups nor updates allocate.<br/>
+ * 
+ * The table may be updated by any number of threads without locking. Keys
+ * are claimed by compare-and-set on an empty slot and never move afterwards,
+ * values are updated by compare-and-set on their bits. The capacity is fixed,
+ * once the table is three quarters full new keys are dropped.<br/>
+ * 
+ * Missing keys have the value 0.
+ */
+final class ValueTable {
+    /** Marks a value table file. */
+    static final int MAGIC = 0x53575154;
+    /** Version of the file format. */
+    static final int VERSION = 1;
+    /** Multiplier spreading keys, derived from the golden ratio. */
+    private static final long HASH = 0x9e3779b97f4a7c15L;
+    /** Marks an empty slot. Keys are stored incremented by one. */
+    private static final long EMPTY = 0;
+    /** Stored keys, {@link #EMPTY} for empty slots. */
+    private final AtomicLongArray keys;
+    /** Bits of the stored values. */
+    private final AtomicIntegerArray values;
+    /** Number of bits used to index a slot. */
+    private final int bits;
+    /** Number of keys stored at most. */
+    private final int maxSize;
+    /** Number of keys stored. */
+    private final AtomicInteger size = new AtomicInteger();
+    /** Number of keys dropped, because the table was full. */
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            Number of slots, rounded up to a power of two
+     */
+    ValueTable(final int capacity) {
+	final int leading = Integer.numberOfLeadingZeros(capacity - 1);
+	this.bits = Math.max(1, Integer.SIZE - leading);
+	this.keys = new AtomicLongArray(1 << this.bits);
+	this.values = new AtomicIntegerArray(1 << this.bits);
+	this.maxSize = (int) ((3L << this.bits) >>> 2);
+    }
+
+    /**
+     * Get the slot to start probing at.
+     * 
+     * @param stored
+     *            Stored key
+     * @return Slot index
+     */
+    private int hash(final long stored) {
+	return (int) ((stored * HASH) >>> (Long.SIZE - this.bits));
+    }
+
+    /**
+     * Find the slot of a key.
+     * 
+     * @param stored
+     *            Stored key
+     * @return Slot index or -1, if the key is not stored
+     */
+    private int find(final long stored) {
+	final int mask = this.keys.length() - 1;
+	for (int slot = this.hash(stored);; slot = (slot + 1) & mask) {
+	    final long key = this.keys.get(slot);
+	    if (key == stored) {
+		return slot;
+	    }
+	    if (key == EMPTY) {
+		return -1;
+	    }
+	}
+    }
+
+    /**
+     * Find or claim the slot of a key.
+     * 
+     * @param stored
+     *            Stored key
+     * @return Slot index or -1, if the table is full
+     */
+    private int claim(final long stored) {
+	final int mask = this.keys.length() - 1;
+	for (int slot = this.hash(stored);; slot = (slot + 1) & mask) {
+	    long key = this.keys.get(slot);
+	    if (key == EMPTY) {
+		if (this.size.get() >= this.maxSize) {
+		    this.dropped.incrementAndGet();
+		    return -1;
+		}
+		if (this.keys.compareAndSet(slot, EMPTY, stored)) {
+		    this.size.incrementAndGet();
+		    return slot;
+		}
+		// another thread claimed the slot first
+		key = this.keys.get(slot);
+	    }
+	    if (key == stored) {
+		return slot;
+	    }
+	}
+    }
+
+    /**
+     * Get the value of a key.
+     * 
+     * @param key
+     *            Key to look up, not negative
+     * @return Stored value or 0, if the key is not stored
+     */
+    float get(final long key) {
+	final int slot = this.find(key + 1);
+	if (slot < 0) {
+	    return 0;
+	}
+	return Float.intBitsToFloat(this.values.get(slot));
+    }
+
+    /**
+     * Move the value of a key towards a target.
+     * 
+     * @param key
+     *            Key to update, not negative
+     * @param target
+     *            Value to move to
+     * @param rate
+     *            Fraction of the distance to move, 0-1
+     * @return True, if the key could be stored
+     */
+    boolean update(final long key, final float target, final float rate) {
+	final int slot = this.claim(key + 1);
+	if (slot < 0) {
+	    return false;
+	}
+	while (true) {
+	    final int current = this.values.get(slot);
+	    final float value = Float.intBitsToFloat(current);
+	    final float updated = value + (rate * (target - value));
+	    if (this.values.compareAndSet(slot, current,
+		    Float.floatToIntBits(updated))) {
+		return true;
+	    }
+	}
+    }
+
+    /**
+     * Get the number of stored keys.
+     * 
+     * @return Number of keys
+     */
+    int size() {
+	return this.size.get();
+    }
+
+    /**
+     * Get the number of keys not stored, because the table was full.
+     * 
+     * @return Number of dropped keys
+     */
+    int dropped() {
+	return this.dropped.get();
+    }
+
+    /**
+     * Write all stored keys and values to a file. The table should not be
+     * updated while saving.
+     * 
+     * @param file
+     *            File to write
+     * @throws IOException
+     *             If the file could not be written
+     */
+    void save(final File file) throws IOException {
+	final DataOutputStream out =
+		new DataOutputStream(new BufferedOutputStream(
+			new FileOutputStream(file)));
+	try {
+	    out.writeInt(MAGIC);
+	    out.writeInt(VERSION);
+	    out.writeInt(this.keys.length());
+	    out.writeInt(this.size());
+	    for (int slot = 0; slot < this.keys.length(); slot++) {
+		final long key = this.keys.get(slot);
+		if (key != EMPTY) {
+		    out.writeLong(key - 1);
+		    out.writeInt(this.values.get(slot));
+		}
+	    }
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Read a table written by {@link #save(File)}.
+     * 
+     * @param file
+     *            File to read
+     * @return Table with all keys and values of the file
+     * @throws IOException
+     *             If the file could not be read or is no valid value table
+     */
+    static ValueTable load(final File file) throws IOException {
+	final DataInputStream in =
+		new DataInputStream(new BufferedInputStream(
+			new FileInputStream(file)));
+	try {
+	    if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+		throw new IOException(String.format(
+			"%s is no value table of version %d.", file, VERSION));
+	    }
+	    final ValueTable table = new ValueTable(in.readInt());
+	    final int entries = in.readInt();
+	    for (int i = 0; i < entries; i++) {
+		final long key = in.readLong();
+		final float value = Float.intBitsToFloat(in.readInt());
+		// a rate of one stores the value as it is
+		table.update(key, value, 1);
+	    }
+	    return table;
+	} finally {
+	    in.close();
+	}
+    }
+}
@@ -0,0 +1,46 @@
+package cardGame.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A monotonically increasing count. Each thread adds to it's own stripe, the
+ * stripes are only summed up when reading.
+ */
+public final class Counter {
+    /** Counts by stripe. */
+    private final AtomicLongArray stripes = new AtomicLongArray(Stripes.COUNT
+	    * Stripes.PADDING);
+
+    /** Constructor. Use {@link MetricsRegistry#counter(String)}. */
+    Counter() {
+	// intentionally left blank
+    }
+
+    /** Add one. */
+    public void increment() {
+	this.stripes.getAndIncrement(Stripes.current() * Stripes.PADDING);
+    }
+
+    /**
+     * Add a value.
+     * 
+     * @param value
+     *            Value to add
+     */
+    public void add(final long value) {
+	this.stripes.getAndAdd(Stripes.current() * Stripes.PADDING, value);
+    }
+
+    /**
+     * Get the current count.
+     * 
+     * @return Sum of all stripes
+     */
+    public long get() {
+	long sum = 0;
+	for (int i = 0; i < Stripes.COUNT; i++) {
+	    sum += this.stripes.get(i * Stripes.PADDING);
+	}
+	return sum;
+    }
+}
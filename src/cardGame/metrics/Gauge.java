@@ -0,0 +1,43 @@
+package cardGame.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** A value that may go up and down, e.g. the number of active tables. */
+public final class Gauge {
+    /** Current value. */
+    private final AtomicLong value = new AtomicLong();
+
+    /** Constructor. Use {@link MetricsRegistry#gauge(String)}. */
+    Gauge() {
+	// intentionally left blank
+    }
+
+    /**
+     * Set the value.
+     * 
+     * @param newValue
+     *            New value
+     */
+    public void set(final long newValue) {
+	this.value.set(newValue);
+    }
+
+    /**
+     * Add to the value.
+     * 
+     * @param delta
+     *            Value to add, may be negative
+     */
+    public void add(final long delta) {
+	this.value.addAndGet(delta);
+    }
+
+    /**
+     * Get the current value.
+     * 
+     * @return Current value
+     */
+    public long get() {
+	return this.value.get();
+    }
+}
@@ -0,0 +1,125 @@
+package cardGame.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of non-negative values, e.g. latencies in nanoseconds. Values
+ * are counted in log-linear buckets: each power of two is split into eight
+ * linear buckets, so a bucket is at most 12.5% wide relative to it's values.
+ * Values below 16 are counted exactly.<br/>
+ * 
+ * Recording is a few shifts and an atomic add on the stripe of the current
+ * thread, without any allocation.
+ */
+public final class Histogram {
+    /** Bits used for the linear part of a bucket. */
+    private static final int SUB_BITS = 3;
+    /** Linear buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Values below this are counted exactly. */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    /** Number of buckets needed to cover all positive long values. */
+    static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+    /** Offset of the count in a stripe. */
+    private static final int COUNT = BUCKETS;
+    /** Offset of the sum in a stripe. */
+    private static final int SUM = BUCKETS + 1;
+    /** Offset of the maximum in a stripe. */
+    private static final int MAX = BUCKETS + 2;
+    /** Size of a stripe, rounded up to whole cache lines. */
+    private static final int STRIPE_SIZE = ((MAX / Stripes.PADDING) + 1)
+	    * Stripes.PADDING;
+    /** Buckets, count, sum and maximum by stripe. */
+    private final AtomicLongArray stripes = new AtomicLongArray(Stripes.COUNT
+	    * STRIPE_SIZE);
+
+    /** Constructor. Use {@link MetricsRegistry#histogram(String)}. */
+    Histogram() {
+	// intentionally left blank
+    }
+
+    /**
+     * Get the bucket of a value.
+     * 
+     * @param value
+     *            Value to count, negative values are counted as zero
+     * @return Bucket index
+     */
+    static int bucket(final long value) {
+	if (value < LINEAR_LIMIT) {
+	    return (int) Math.max(0, value);
+	}
+	final int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+	final int sub =
+		(int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+	return ((exponent - SUB_BITS + 1) * SUB_BUCKETS) + sub;
+    }
+
+    /**
+     * Get the smallest value counted in a bucket.
+     * 
+     * @param bucket
+     *            Bucket index
+     * @return Lower bound of the bucket
+     */
+    static long lowerBound(final int bucket) {
+	if (bucket < LINEAR_LIMIT) {
+	    return bucket;
+	}
+	final int exponent = (bucket / SUB_BUCKETS) + SUB_BITS - 1;
+	final long sub = bucket % SUB_BUCKETS;
+	return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Record a value.
+     * 
+     * @param value
+     *            Value to record
+     */
+    public void record(final long value) {
+	final int offset = Stripes.current() * STRIPE_SIZE;
+	this.stripes.getAndIncrement(offset + bucket(value));
+	this.stripes.getAndIncrement(offset + COUNT);
+	this.stripes.getAndAdd(offset + SUM, value);
+	long max;
+	while (value > (max = this.stripes.get(offset + MAX))) {
+	    if (this.stripes.compareAndSet(offset + MAX, max, value)) {
+		break;
+	    }
+	}
+    }
+
+    /**
+     * Record the time passed since a start time.
+     * 
+     * @param startNanos
+     *            Start time as given by {@link System#nanoTime()}
+     */
+    public void recordSince(final long startNanos) {
+	this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Take a snapshot of all values recorded so far. Values recorded while
+     * the snapshot is taken may be partially included.
+     * 
+     * @return Snapshot of the distribution
+     */
+    public HistogramSnapshot snapshot() {
+	final long[] buckets = new long[BUCKETS];
+	long count = 0;
+	long sum = 0;
+	long max = 0;
+	for (int stripe = 0; stripe < Stripes.COUNT; stripe++) {
+	    final int offset = stripe * STRIPE_SIZE;
+	    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+		buckets[bucket] += this.stripes.get(offset + bucket);
+	    }
+	    count += this.stripes.get(offset + COUNT);
+	    sum += this.stripes.get(offset + SUM);
+	    max = Math.max(max, this.stripes.get(offset + MAX));
+	}
+	return new HistogramSnapshot(buckets, count, sum, max);
+    }
+}
@@ -0,0 +1,98 @@
+package cardGame.metrics;
+
+/** Values of a {@link Histogram} at a point in time. */
+public final class HistogramSnapshot {
+    /** Counts by bucket. */
+    private final long[] buckets;
+    /** Number of recorded values. */
+    private final long count;
+    /** Sum of all recorded values. */
+    private final long sum;
+    /** Largest recorded value. */
+    private final long max;
+
+    /**
+     * Constructor.
+     * 
+     * @param newBuckets
+     *            Counts by bucket
+     * @param newCount
+     *            Number of recorded values
+     * @param newSum
+     *            Sum of all recorded values
+     * @param newMax
+     *            Largest recorded value
+     */
+    HistogramSnapshot(final long[] newBuckets, final long newCount,
+	    final long newSum, final long newMax) {
+	this.buckets = newBuckets;
+	this.count = newCount;
+	this.sum = newSum;
+	this.max = newMax;
+    }
+
+    /**
+     * Get the number of recorded values.
+     * 
+     * @return Number of values
+     */
+    public long getCount() {
+	return this.count;
+    }
+
+    /**
+     * Get the mean of all recorded values.
+     * 
+     * @return Mean value, 0 if nothing was recorded
+     */
+    public double getMean() {
+	if (this.count == 0) {
+	    return 0;
+	}
+	return (double) this.sum / this.count;
+    }
+
+    /**
+     * Get the largest recorded value.
+     * 
+     * @return Maximum value
+     */
+    public long getMax() {
+	return this.max;
+    }
+
+    /**
+     * Get the value below which the given fraction of values lies. The value
+     * is accurate up to the width of a bucket.
+     * 
+     * @param fraction
+     *            Fraction between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return Upper bound of the bucket containing the percentile
+     */
+    public long percentile(final double fraction) {
+	if (this.count == 0) {
+	    return 0;
+	}
+	final long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+	long seen = 0;
+	for (int bucket = 0; bucket < this.buckets.length; bucket++) {
+	    seen += this.buckets[bucket];
+	    if (seen >= rank) {
+		if (bucket + 1 == this.buckets.length) {
+		    return this.max;
+		}
+		return Math.min(this.max, Histogram.lowerBound(bucket + 1) - 1);
+	    }
+	}
+	return this.max;
+    }
+
+    @Override
+    public String toString() {
+	return String.format(
+		"count=%d mean=%.1f p50=%d p90=%d p99=%d p999=%d max=%d",
+		this.count, this.getMean(), this.percentile(0.5),
+		this.percentile(0.9), this.percentile(0.99),
+		this.percentile(0.999), this.max);
+    }
+}
@@ -0,0 +1,185 @@
+package cardGame.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import cardGame.out.Logger;
+
+/**
+ * Named {@link Counter}s, {@link Gauge}s and {@link Histogram}s. Metrics are
+ * created on first access and live as long as the registry. Instrumented code
+ * should look up it's metrics once and keep them in static fields, as all
+ * recording methods are allocation-free and safe to use from any thread.<br/>
+ * 
+ * Timing is only worth it's cost while somebody looks at the numbers, so
+ * instrumented code should check {@link #isEnabled()} before reading the
+ * clock.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class MetricsRegistry {
+    /** Registry used by the game code. */
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    /** If false, instrumented code skips recording timings. */
+    private static volatile boolean enabled = false;
+    /** Counters by name. */
+    private final ConcurrentMap<String, Counter> counters =
+	    new ConcurrentHashMap<String, Counter>();
+    /** Gauges by name. */
+    private final ConcurrentMap<String, Gauge> gauges =
+	    new ConcurrentHashMap<String, Gauge>();
+    /** Histograms by name. */
+    private final ConcurrentMap<String, Histogram> histograms =
+	    new ConcurrentHashMap<String, Histogram>();
+
+    /**
+     * Get the registry used by the game code.
+     * 
+     * @return Global registry
+     */
+    public static MetricsRegistry global() {
+	return GLOBAL;
+    }
+
+    /**
+     * Check if timings should be recorded.
+     * 
+     * @return True, if timings should be recorded
+     */
+    public static boolean isEnabled() {
+	return enabled;
+    }
+
+    /**
+     * Turn recording of timings on or off.
+     * 
+     * @param newEnabled
+     *            True to record timings
+     */
+    public static void setEnabled(final boolean newEnabled) {
+	enabled = newEnabled;
+    }
+
+    /**
+     * Get a counter.
+     * 
+     * @param name
+     *            Name of the counter
+     * @return Counter with the given name
+     */
+    public Counter counter(final String name) {
+	Counter counter = this.counters.get(name);
+	if (counter == null) {
+	    counter = new Counter();
+	    final Counter existing = this.counters.putIfAbsent(name, counter);
+	    if (existing != null) {
+		counter = existing;
+	    }
+	}
+	return counter;
+    }
+
+    /**
+     * Get a gauge.
+     * 
+     * @param name
+     *            Name of the gauge
+     * @return Gauge with the given name
+     */
+    public Gauge gauge(final String name) {
+	Gauge gauge = this.gauges.get(name);
+	if (gauge == null) {
+	    gauge = new Gauge();
+	    final Gauge existing = this.gauges.putIfAbsent(name, gauge);
+	    if (existing != null) {
+		gauge = existing;
+	    }
+	}
+	return gauge;
+    }
+
+    /**
+     * Get a histogram.
+     * 
+     * @param name
+     *            Name of the histogram
+     * @return Histogram with the given name
+     */
+    public Histogram histogram(final String name) {
+	Histogram histogram = this.histograms.get(name);
+	if (histogram == null) {
+	    histogram = new Histogram();
+	    final Histogram existing =
+		    this.histograms.putIfAbsent(name, histogram);
+	    if (existing != null) {
+		histogram = existing;
+	    }
+	}
+	return histogram;
+    }
+
+    /**
+     * Render the current values of all metrics, one per line and sorted by
+     * name.
+     * 
+     * @return All metrics as text
+     */
+    public String snapshot() {
+	final Map<String, String> lines = new TreeMap<String, String>();
+	for (Map.Entry<String, Counter> entry : this.counters.entrySet()) {
+	    lines.put(entry.getKey(),
+		    String.format("count=%d", entry.getValue().get()));
+	}
+	for (Map.Entry<String, Gauge> entry : this.gauges.entrySet()) {
+	    lines.put(entry.getKey(),
+		    String.format("value=%d", entry.getValue().get()));
+	}
+	for (Map.Entry<String, Histogram> entry : this.histograms.entrySet()) {
+	    lines.put(entry.getKey(), entry.getValue().snapshot().toString());
+	}
+	final StringBuilder snapshot = new StringBuilder();
+	for (Map.Entry<String, String> line : lines.entrySet()) {
+	    snapshot.append(String.format("%-24s %s%n", line.getKey(),
+		    line.getValue()));
+	}
+	return snapshot.toString();
+    }
+
+    /**
+     * Print a snapshot of all metrics on a fixed interval until the returned
+     * executor gets shut down.
+     * 
+     * @param interval
+     *            Time between two snapshots
+     * @param unit
+     *            Unit of the interval
+     * @return Executor printing the snapshots
+     */
+    public ScheduledExecutorService report(final long interval,
+	    final TimeUnit unit) {
+	final ScheduledExecutorService executor =
+		Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		    @Override
+		    public Thread newThread(final Runnable runnable) {
+			final Thread thread =
+				new Thread(runnable, "metrics-report");
+			thread.setDaemon(true);
+			return thread;
+		    }
+		});
+	executor.scheduleAtFixedRate(new Runnable() {
+	    @Override
+	    public void run() {
+		Logger.print(MetricsRegistry.this.snapshot());
+	    }
+	}, interval, interval, unit);
+	return executor;
+    }
+}
@@ -0,0 +1,34 @@
+package cardGame.metrics;
+
+/**
+ * Maps threads to stripes. Metrics keep one slot per stripe, so threads
+ * recording at the same time mostly update different slots.
+ */
+final class Stripes {
+    /** Number of stripes, a power of two. */
+    static final int COUNT = Math.min(64,
+	    Integer.highestOneBit(Runtime.getRuntime().availableProcessors()
+		    * 2 - 1) * 2);
+    /** Mask for mapping a thread to a stripe. */
+    private static final int MASK = COUNT - 1;
+    /**
+     * Number of array entries between two stripes. Keeps stripes on
+     * different cache lines.
+     */
+    static final int PADDING = 8;
+
+    /** Constructor. Only static access. */
+    private Stripes() {
+	// intentionally left blank
+    }
+
+    /**
+     * Get the stripe of the current thread.
+     * 
+     * @return Stripe of the current thread
+     */
+    static int current() {
+	final long id = Thread.currentThread().getId();
+	return (int) (id ^ (id >>> 7)) & MASK;
+    }
+}
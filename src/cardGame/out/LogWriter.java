@@ -0,0 +1,102 @@
+package cardGame.out;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes text to an output stream on a background thread. Messages are
+ * collected in a bounded queue and written in batches through a buffered
+ * writer, which is flushed whenever the queue runs empty. Writers block, if
+ * the queue is full, so no message gets lost.
+ */
+final class LogWriter {
+    /** Messages waiting to be written. */
+    private final BlockingQueue<String> queue;
+    /** Buffered output. */
+    private final Writer out;
+    /** Number of messages queued so far. */
+    private final AtomicLong queued = new AtomicLong();
+    /** Number of messages written and flushed so far. */
+    private volatile long written = 0;
+
+    /**
+     * Constructor. This will start the writer thread.
+     * 
+     * @param capacity
+     *            Maximum number of waiting messages
+     * @param stream
+     *            Stream to write to
+     */
+    LogWriter(final int capacity, final OutputStream stream) {
+	this.queue = new ArrayBlockingQueue<String>(capacity);
+	this.out = new BufferedWriter(new OutputStreamWriter(stream));
+	final Thread thread = new Thread(new Runnable() {
+	    @Override
+	    public void run() {
+		LogWriter.this.drain();
+	    }
+	}, "log-writer");
+	thread.setDaemon(true);
+	thread.start();
+    }
+
+    /**
+     * Queue a message for writing.
+     * 
+     * @param text
+     *            Message to write
+     */
+    void write(final String text) {
+	this.queued.incrementAndGet();
+	try {
+	    this.queue.put(text);
+	} catch (InterruptedException e) {
+	    this.queued.decrementAndGet();
+	    Thread.currentThread().interrupt();
+	}
+    }
+
+    /** Write queued messages until the program ends. */
+    private void drain() {
+	final List<String> batch = new ArrayList<String>();
+	while (true) {
+	    try {
+		batch.add(this.queue.take());
+	    } catch (InterruptedException e) {
+		return;
+	    }
+	    this.queue.drainTo(batch);
+	    try {
+		for (String text : batch) {
+		    this.out.write(text);
+		}
+		this.out.flush();
+	    } catch (IOException e) {
+		e.printStackTrace();
+	    }
+	    this.written += batch.size();
+	    batch.clear();
+	}
+    }
+
+    /** Wait until all messages queued so far have been written. */
+    void flush() {
+	final long target = this.queued.get();
+	while (this.written < target) {
+	    try {
+		Thread.sleep(1);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return;
+	    }
+	}
+    }
+}
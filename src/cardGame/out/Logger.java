@@ -0,0 +1,294 @@
+package cardGame.out;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Level based logging for a subsystem (e.g. <code>game</code>,
+ * <code>table</code>, <code>ai</code>). The level of each subsystem may be
+ * changed at any time, subsystems without their own level use the default
+ * level.<br/>
+ * 
+ * Messages are only formatted, if their level is enabled. Use the
+ * parameterized methods for simple messages and a {@link MessageSupplier} or
+ * {@link #isEnabled(Level)} for messages that are expensive to build. Enabled
+ * messages are written by a background thread, so the caller only pays for
+ * formatting them.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class Logger {
+    /** Logging levels. */
+    public enum Level {
+	/** All kinds of messages. */
+	TALK,
+	/** Modest level, informational messages. */
+	INFO,
+	/** Only facts to trace what's going on. */
+	SYS,
+	/** Just small status. */
+	CORE,
+	/** Nothing gets logged. */
+	OFF;
+    }
+
+    /** Maximum number of messages waiting to be written. */
+    private static final int QUEUE_SIZE = 8192;
+    /** Loggers by subsystem. */
+    private static final ConcurrentMap<String, Logger> LOGGERS =
+	    new ConcurrentHashMap<String, Logger>();
+    /** Writer for all messages. */
+    private static final LogWriter WRITER = new LogWriter(QUEUE_SIZE,
+	    System.out);
+    /** Level used by subsystems without their own level. */
+    private static volatile Level defaultLevel = Level.INFO;
+    /** Name of the subsystem. */
+    private final String subsystem;
+    /** Level of the subsystem, null to use the default. */
+    private volatile Level level = null;
+
+    static {
+	Runtime.getRuntime().addShutdownHook(new Thread() {
+	    @Override
+	    public void run() {
+		WRITER.flush();
+	    }
+	});
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param newSubsystem
+     *            Name of the subsystem
+     */
+    private Logger(final String newSubsystem) {
+	this.subsystem = newSubsystem;
+    }
+
+    /**
+     * Get the logger of a subsystem.
+     * 
+     * @param subsystem
+     *            Name of the subsystem
+     * @return Logger for the subsystem
+     */
+    public static Logger get(final String subsystem) {
+	Logger logger = LOGGERS.get(subsystem);
+	if (logger == null) {
+	    logger = new Logger(subsystem);
+	    final Logger existing = LOGGERS.putIfAbsent(subsystem, logger);
+	    if (existing != null) {
+		logger = existing;
+	    }
+	}
+	return logger;
+    }
+
+    /**
+     * Set the level used by all subsystems without their own level.
+     * 
+     * @param newLevel
+     *            Minimal level of messages to log
+     */
+    public static void setDefaultLevel(final Level newLevel) {
+	defaultLevel = newLevel;
+    }
+
+    /**
+     * Set the level of a single subsystem.
+     * 
+     * @param subsystem
+     *            Name of the subsystem
+     * @param newLevel
+     *            Minimal level of messages to log or null, to use the
+     *            default level
+     */
+    public static void setLevel(final String subsystem, final Level newLevel) {
+	get(subsystem).level = newLevel;
+    }
+
+    /**
+     * Set levels from a comma separated list of <code>subsystem=LEVEL</code>
+     * entries. An entry without subsystem sets the default level, e.g.
+     * <code>CORE,ai=TALK</code>.
+     * 
+     * @param levels
+     *            Levels to set
+     */
+    public static void configure(final String levels) {
+	for (String entry : levels.split(",")) {
+	    final String trimmed = entry.trim();
+	    if (trimmed.isEmpty()) {
+		continue;
+	    }
+	    final int split = trimmed.indexOf('=');
+	    if (split < 0) {
+		setDefaultLevel(Level.valueOf(trimmed.toUpperCase()));
+	    } else {
+		setLevel(trimmed.substring(0, split).trim(), Level
+			.valueOf(trimmed.substring(split + 1).trim()
+				.toUpperCase()));
+	    }
+	}
+    }
+
+    /**
+     * Write text as is, regardless of any level. Used for the regular output
+     * of a program, so it stays in order with logged messages.
+     * 
+     * @param text
+     *            Text to write
+     */
+    public static void print(final String text) {
+	WRITER.write(text);
+    }
+
+    /** Wait until all messages logged so far have been written. */
+    public static void flush() {
+	WRITER.flush();
+    }
+
+    /**
+     * Check if messages of a level will be logged.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @return True, if messages of this level will be logged
+     */
+    public boolean isEnabled(final Level messageLevel) {
+	Level current = this.level;
+	if (current == null) {
+	    current = defaultLevel;
+	}
+	return messageLevel.ordinal() >= current.ordinal();
+    }
+
+    /**
+     * Write a message. The level has already been checked.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param message
+     *            Message to write
+     */
+    private void write(final Level messageLevel, final CharSequence message) {
+	WRITER.write(new StringBuilder(message.length() + 16).append('[')
+		.append(messageLevel).append(':').append(this.subsystem)
+		.append("] ").append(message).append('\n').toString());
+    }
+
+    /**
+     * Log a message.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param message
+     *            Message to log
+     */
+    public void log(final Level messageLevel, final String message) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel, message);
+	}
+    }
+
+    /**
+     * Log a message built by a supplier.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param supplier
+     *            Builds the message, only called if the level is enabled
+     */
+    public void log(final Level messageLevel, final MessageSupplier supplier) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel, supplier.get());
+	}
+    }
+
+    /**
+     * Log a format string message.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param format
+     *            Format string
+     * @param argument
+     *            Format string argument
+     */
+    public void log(final Level messageLevel, final String format,
+	    final Object argument) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel, String.format(format, argument));
+	}
+    }
+
+    /**
+     * Log a format string message.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param format
+     *            Format string
+     * @param argument1
+     *            First format string argument
+     * @param argument2
+     *            Second format string argument
+     */
+    public void log(final Level messageLevel, final String format,
+	    final Object argument1, final Object argument2) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel,
+		    String.format(format, argument1, argument2));
+	}
+    }
+
+    /**
+     * Log a format string message.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param format
+     *            Format string
+     * @param argument1
+     *            First format string argument
+     * @param argument2
+     *            Second format string argument
+     * @param argument3
+     *            Third format string argument
+     */
+    public void log(final Level messageLevel, final String format,
+	    final Object argument1, final Object argument2,
+	    final Object argument3) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel,
+		    String.format(format, argument1, argument2, argument3));
+	}
+    }
+
+    /**
+     * Log a format string message.
+     * 
+     * @param messageLevel
+     *            Message level
+     * @param format
+     *            Format string
+     * @param argument1
+     *            First format string argument
+     * @param argument2
+     *            Second format string argument
+     * @param argument3
+     *            Third format string argument
+     * @param argument4
+     *            Fourth format string argument
+     */
+    public void log(final Level messageLevel, final String format,
+	    final Object argument1, final Object argument2,
+	    final Object argument3, final Object argument4) {
+	if (this.isEnabled(messageLevel)) {
+	    this.write(messageLevel, String.format(format, argument1,
+		    argument2, argument3, argument4));
+	}
+    }
+}
@@ -0,0 +1,14 @@
+package cardGame.out;
+
+/**
+ * Builds a log message. Used for messages that are expensive to build, as
+ * the supplier only gets called if the message will be logged.
+ */
+public interface MessageSupplier {
+    /**
+     * Build the message.
+     * 
+     * @return The message to log
+     */
+    CharSequence get();
+}
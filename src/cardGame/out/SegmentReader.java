@@ -0,0 +1,108 @@
+package cardGame.out;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads records written by a {@link SegmentWriter}. Segments are mapped one
+ * after another and read in the order they were written.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class SegmentReader {
+    /** Directory segments are stored in. */
+    private final File directory;
+    /** Name prefix of the segment files. */
+    private final String prefix;
+    /** Number of the current segment. */
+    private int segment = -1;
+    /** Mapped data of the current segment. */
+    private MappedByteBuffer buffer = null;
+
+    /**
+     * Constructor.
+     * 
+     * @param newDirectory
+     *            Directory the segments are stored in
+     * @param newPrefix
+     *            Name prefix of the segment files
+     */
+    public SegmentReader(final File newDirectory, final String newPrefix) {
+	this.directory = newDirectory;
+	this.prefix = newPrefix;
+    }
+
+    /**
+     * Map the next segment.
+     * 
+     * @return False, if there's no next segment
+     * @throws IOException
+     *             If the segment could not be read
+     */
+    private boolean nextSegment() throws IOException {
+	final File file =
+		SegmentWriter.segmentFile(this.directory, this.prefix,
+			this.segment + 1);
+	if (!file.isFile()) {
+	    return false;
+	}
+	this.segment++;
+	final RandomAccessFile segmentFile = new RandomAccessFile(file, "r");
+	try {
+	    this.buffer =
+		    segmentFile.getChannel().map(FileChannel.MapMode.READ_ONLY,
+			    0, segmentFile.length());
+	} finally {
+	    // the mapping stays valid after closing
+	    segmentFile.close();
+	}
+	return true;
+    }
+
+    /**
+     * Read the tag of the next record.
+     * 
+     * @return Tag of the next record or zero, if all records have been read
+     * @throws IOException
+     *             If a segment could not be read
+     */
+    public int nextTag() throws IOException {
+	while ((this.buffer == null) || !this.buffer.hasRemaining()
+		|| (this.buffer.get(this.buffer.position()) == 0)) {
+	    if (!this.nextSegment()) {
+		return 0;
+	    }
+	}
+	return this.buffer.get() & 0xFF;
+    }
+
+    /**
+     * Read an unsigned varint.
+     * 
+     * @return Value read
+     */
+    public long getVarint() {
+	long value = 0;
+	int shift = 0;
+	byte current;
+	do {
+	    current = this.buffer.get();
+	    value |= (long) (current & 0x7F) << shift;
+	    shift += 7;
+	} while (current < 0);
+	return value;
+    }
+
+    /**
+     * Get the number of the current segment.
+     * 
+     * @return Segment number, -1 if nothing has been read yet
+     */
+    public int getSegment() {
+	return this.segment;
+    }
+}
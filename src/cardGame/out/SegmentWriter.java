@@ -0,0 +1,185 @@
+package cardGame.out;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends binary records to memory-mapped segment files. Each segment is
+ * mapped at it's full size when it gets created, so writing a record is just
+ * a store to memory. A new segment is started, if a record would not fit into
+ * the current one, so records never span segments.<br/>
+ * 
+ * Segments are named <code>prefix-000000.seg</code>,
+ * <code>prefix-000001.seg</code> and so on. A zero byte marks the end of the
+ * data in a segment, so record types must not be zero. The last segment is
+ * truncated to it's used size on {@link #close()}.<br/>
+ * 
+ * Numbers are written as unsigned LEB128 varints. A writer is not
+ * thread-safe.
+ * 
+ * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
+ * 
+ */
+public final class SegmentWriter {
+    /** Suffix of segment files. */
+    public static final String SUFFIX = ".seg";
+    /** Directory segments are stored in. */
+    private final File directory;
+    /** Name prefix of the segment files. */
+    private final String prefix;
+    /** Size of a segment in bytes. */
+    private final int segmentSize;
+    /** Number of the current segment. */
+    private int segment = -1;
+    /** File of the current segment. */
+    private RandomAccessFile file = null;
+    /** Mapped data of the current segment. */
+    private MappedByteBuffer buffer = null;
+
+    /**
+     * Constructor. The first segment gets created on the first record.
+     * 
+     * @param newDirectory
+     *            Directory to store the segments in
+     * @param newPrefix
+     *            Name prefix of the segment files
+     * @param newSegmentSize
+     *            Size of a segment in bytes
+     */
+    public SegmentWriter(final File newDirectory, final String newPrefix,
+	    final int newSegmentSize) {
+	if (newSegmentSize <= 0) {
+	    throw new IllegalArgumentException(
+		    "Segment size must be positive.");
+	}
+	this.directory = newDirectory;
+	this.prefix = newPrefix;
+	this.segmentSize = newSegmentSize;
+    }
+
+    /**
+     * Get the file of a segment.
+     * 
+     * @param directory
+     *            Directory the segments are stored in
+     * @param prefix
+     *            Name prefix of the segment files
+     * @param segment
+     *            Number of the segment
+     * @return File of the segment
+     */
+    public static File segmentFile(final File directory, final String prefix,
+	    final int segment) {
+	return new File(directory, String.format("%s-%06d%s", prefix, segment,
+		SUFFIX));
+    }
+
+    /**
+     * Make sure the given number of bytes fit into the current segment. Starts
+     * a new segment, if needed. Must be called before writing a record.
+     * 
+     * @param bytes
+     *            Maximum size of the record
+     * @throws IOException
+     *             If a new segment could not be created
+     */
+    public void reserve(final int bytes) throws IOException {
+	if (bytes >= this.segmentSize) {
+	    throw new IllegalArgumentException(String.format(
+		    "Record of %d bytes exceeds segment size of %d.", bytes,
+		    this.segmentSize));
+	}
+	// keep one byte for the end marker
+	if ((this.buffer == null) || (this.buffer.remaining() <= bytes)) {
+	    this.roll();
+	}
+    }
+
+    /**
+     * Close the current segment and start a new one.
+     * 
+     * @throws IOException
+     *             If a new segment could not be created
+     */
+    private void roll() throws IOException {
+	this.closeSegment();
+	this.segment++;
+	if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+	    throw new IOException("Unable to create directory "
+		    + this.directory);
+	}
+	this.file =
+		new RandomAccessFile(segmentFile(this.directory, this.prefix,
+			this.segment), "rw");
+	this.file.setLength(0);
+	this.buffer =
+		this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+			this.segmentSize);
+    }
+
+    /**
+     * Truncate the current segment to it's used size and close it.
+     * 
+     * @throws IOException
+     *             If closing fails
+     */
+    private void closeSegment() throws IOException {
+	if (this.file == null) {
+	    return;
+	}
+	final int used = this.buffer.position();
+	this.buffer.force();
+	this.buffer = null;
+	this.file.setLength(used);
+	this.file.close();
+	this.file = null;
+    }
+
+    /**
+     * Write a single byte.
+     * 
+     * @param value
+     *            Byte to write
+     */
+    public void putByte(final int value) {
+	this.buffer.put((byte) value);
+    }
+
+    /**
+     * Write an unsigned varint. Seven bits are stored per byte, the highest
+     * bit marks if more bytes follow.
+     * 
+     * @param value
+     *            Value to write, treated as unsigned
+     */
+    public void putVarint(final long value) {
+	long rest = value;
+	while ((rest & ~0x7FL) != 0) {
+	    this.buffer.put((byte) ((rest & 0x7F) | 0x80));
+	    rest >>>= 7;
+	}
+	this.buffer.put((byte) rest);
+    }
+
+    /**
+     * Get the number of the current segment.
+     * 
+     * @return Segment number, -1 if nothing has been written yet
+     */
+    public int getSegment() {
+	return this.segment;
+    }
+
+    /**
+     * Flush and close the current segment.
+     * 
+     * @throws IOException
+     *             If closing fails
+     */
+    public void close() throws IOException {
+	this.closeSegment();
+    }
+}
@@ -0,0 +1,32 @@
+package cardGame.player;
+
+/**
+ * A player searching for it's moves, which is able to stop at any time and
+ * play the best move found so far. The search of a move is bounded by a
+ * {@link SearchBudget}: a wall-clock deadline keeps interactive games
+ * responsive, while batch runs may give a larger budget to play stronger.
+ */
+public interface AnytimePlayer extends CardPlayer {
+    /**
+     * Set the budget for each following move.
+     * 
+     * @param budget
+     *            Limits of a single move
+     */
+    void setSearchBudget(final SearchBudget budget);
+
+    /**
+     * Get the budget used for each move.
+     * 
+     * @return Limits of a single move
+     */
+    SearchBudget getSearchBudget();
+
+    /**
+     * Get the report of the last move searched. The report is overwritten by
+     * the next move.
+     * 
+     * @return Report of the last search
+     */
+    SearchReport lastSearch();
+}
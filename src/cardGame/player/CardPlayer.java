@@ -3,7 +3,6 @@ package cardGame.player;
 import java.util.Collection;
 
 import cardGame.card.CardDeck.Card;
-import cardGame.event.EventReceiver;
 import cardGame.table.GameTable;
 
 /**
@@ -13,7 +12,7 @@ import cardGame.table.GameTable;
  * @author <a href="mailto:code@jens-bertram.net">Jens Bertram</a>
  * 
  */
-public interface CardPlayer extends EventReceiver {
+public interface CardPlayer {
     /**
      * Cards passed to the player from the table. Player may respond with false,
      * to indicate rejecting the card set. It's up to the game rules if this is
@@ -47,4 +46,10 @@ public interface CardPlayer extends EventReceiver {
      *            Table this player is playing at
      */
     void setTable(final GameTable table);
+
+    /**
+     * Leave the table this player is playing on. The player stops receiving
+     * any events of the table.
+     */
+    void leaveTable();
 }
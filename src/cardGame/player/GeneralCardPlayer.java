@@ -1,51 +1,69 @@
 package cardGame.player;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
-import cardGame.event.EventBus;
+import cardGame.event.CardGameEvent;
+import cardGame.event.EventHandler;
+import cardGame.event.Subscription;
 import cardGame.table.GameTable;
-import cardGame.table.GeneralGameTable;
-import cardGame.util.Util;
+import cardGame.util.SplitMixRandom;
 
 public abstract class GeneralCardPlayer implements CardPlayer {
-    /** List of predefined player names. */
-    private static List<String> playerNames = new ArrayList<String>(
-	    Arrays.asList("Bob", "Alice", "Carol", "Dave", "Ted", "Eve",
-		    "Oscar", "Peggy", "Victor"));
+    /** Names picker used, if no name is given. */
+    private static final PlayerNames PLAYER_NAMES = new PlayerNames(
+	    SplitMixRandom.unseeded());
     /** Name for this player. */
     protected String name;
     /** Table this player is playing at. */
     protected GameTable table;
+    /** Event subscriptions made at the current table. */
+    private final List<Subscription> subscriptions =
+	    new ArrayList<Subscription>();
 
     /**
-     * Empty constructor. This will choose a random players name. This will also
-     * register a receiver for {@link GeneralGameTable#Event} events.
+     * Empty constructor. This will choose a random players name.
      */
     public GeneralCardPlayer() {
-	this.name =
-		playerNames.remove(Util.getRandomInt(playerNames.size() - 1));
-	this.registerTableEvents();
+	synchronized (PLAYER_NAMES) {
+	    this.name = PLAYER_NAMES.next();
+	}
     }
 
     /**
-     * Constructor. This will also register a receiver for
-     * {@link GeneralGameTable#Event} events.
+     * Constructor.
      * 
      * @param newName
      *            Players name
      */
     public GeneralCardPlayer(final String newName) {
 	this.name = newName;
-	this.registerTableEvents();
     }
 
-    /** Register for table events. */
-    private void registerTableEvents() {
-	// TODO: reduce event listeners
-	EventBus.INSTANCE.registerEventReceiver(this,
-		GeneralGameTable.Event.values());
+    /**
+     * Register for the events of the table this player is sitting at. Players
+     * should override this to subscribe handlers for the events they need
+     * using {@link #subscribe(CardGameEvent, EventHandler)}.
+     */
+    protected void registerEvents() {
+	// no events needed by default
+    }
+
+    /**
+     * Subscribe a handler to an event of the current table. The handler is
+     * removed, if the player leaves the table.
+     * 
+     * @param <T>
+     *            Type of the data associated with the event
+     * @param event
+     *            Event to handle
+     * @param handler
+     *            Handler for the event
+     */
+    protected final <T> void subscribe(final CardGameEvent event,
+	    final EventHandler<T> handler) {
+	this.subscriptions.add(this.table.getEventBus().subscribe(event,
+		handler));
     }
 
     @Override
@@ -60,6 +78,19 @@ public abstract class GeneralCardPlayer implements CardPlayer {
 
     @Override
     public final void setTable(final GameTable newTable) {
+	if (this.table != null) {
+	    this.leaveTable();
+	}
 	this.table = newTable;
+	this.registerEvents();
+    }
+
+    @Override
+    public final void leaveTable() {
+	for (Subscription subscription : this.subscriptions) {
+	    subscription.cancel();
+	}
+	this.subscriptions.clear();
+	this.table = null;
     }
 }
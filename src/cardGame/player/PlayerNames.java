@@ -0,0 +1,40 @@
+package cardGame.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cardGame.util.RandomSource;
+
+/** Picks random unique names for players from a predefined list. */
+public class PlayerNames {
+    /** List of predefined player names. */
+    private static final List<String> NAMES = Arrays.asList("Bob", "Alice",
+	    "Carol", "Dave", "Ted", "Eve", "Oscar", "Peggy", "Victor");
+    /** Names not picked yet. */
+    private final List<String> names = new ArrayList<String>(NAMES);
+    /** Source for picking names. */
+    private final RandomSource random;
+
+    /**
+     * Constructor.
+     * 
+     * @param newRandom
+     *            Source used for picking names
+     */
+    public PlayerNames(final RandomSource newRandom) {
+	this.random = newRandom;
+    }
+
+    /**
+     * Pick a random name. Each name will only be picked once.
+     * 
+     * @return Random player name
+     */
+    public final String next() {
+	if (this.names.isEmpty()) {
+	    throw new IllegalStateException("No player names left.");
+	}
+	return this.names.remove(this.random.nextInt(this.names.size()));
+    }
+}
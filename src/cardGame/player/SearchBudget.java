@@ -0,0 +1,78 @@
+package cardGame.player;
+
+/**
+ * Limits the work a searching player may spend on a single move. The search
+ * stops as soon as one of the limits is reached and the best move found so
+ * far is played. What counts as a node is up to the search, e.g. a rollout
+ * of a tree search.<br/>
+ * 
+ * Budgets are immutable, so they may be shared by any number of players.
+ */
+public final class SearchBudget {
+    /** Value marking a limit as unbounded. */
+    public static final long UNLIMITED = 0;
+    /** Maximum number of nodes per move. */
+    private final long nodes;
+    /** Maximum wall-clock time per move in nanoseconds, 0 if unbounded. */
+    private final long nanos;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxNodes
+     *            Maximum number of nodes per move, at least one
+     * @param maxMicros
+     *            Maximum wall-clock time per move in microseconds,
+     *            {@link #UNLIMITED} to only limit the nodes
+     */
+    public SearchBudget(final long maxNodes, final long maxMicros) {
+	if ((maxNodes < 1) || (maxMicros < 0)) {
+	    throw new IllegalArgumentException(String.format(
+		    "Invalid search budget: %d nodes, %d microseconds.",
+		    maxNodes, maxMicros));
+	}
+	this.nodes = maxNodes;
+	this.nanos = maxMicros * 1000;
+    }
+
+    /**
+     * Get the maximum number of nodes per move.
+     * 
+     * @return Number of nodes
+     */
+    public long nodes() {
+	return this.nodes;
+    }
+
+    /**
+     * Get the maximum wall-clock time per move.
+     * 
+     * @return Time in microseconds, {@link #UNLIMITED} if unbounded
+     */
+    public long micros() {
+	return this.nanos / 1000;
+    }
+
+    /**
+     * Get the time at which a move must be committed.
+     * 
+     * @param startNanos
+     *            Start of the move as given by {@link System#nanoTime()}
+     * @return Deadline comparable to {@link System#nanoTime()},
+     *         {@link Long#MAX_VALUE} if the time is unbounded
+     */
+    public long deadline(final long startNanos) {
+	if (this.nanos == UNLIMITED) {
+	    return Long.MAX_VALUE;
+	}
+	return startNanos + this.nanos;
+    }
+
+    @Override
+    public String toString() {
+	if (this.nanos == UNLIMITED) {
+	    return String.format("%d nodes", this.nodes);
+	}
+	return String.format("%d nodes or %dus", this.nodes, this.micros());
+    }
+}
@@ -0,0 +1,80 @@
+package cardGame.player;
+
+/**
+ * Describes the search done for a single move. A searching player keeps one
+ * report and overwrites it with every move, so reading it does not allocate.
+ */
+public final class SearchReport {
+    /** Deepest level of the search reached. */
+    private int depth;
+    /** Number of nodes visited. */
+    private long nodes;
+    /** Wall-clock time of the search in nanoseconds. */
+    private long nanos;
+    /** True if the search was stopped by the deadline. */
+    private boolean deadlineHit;
+
+    /**
+     * Store the results of a search.
+     * 
+     * @param newDepth
+     *            Deepest level of the search reached
+     * @param newNodes
+     *            Number of nodes visited
+     * @param newNanos
+     *            Wall-clock time of the search in nanoseconds
+     * @param newDeadlineHit
+     *            True if the search was stopped by the deadline
+     */
+    public void record(final int newDepth, final long newNodes,
+	    final long newNanos, final boolean newDeadlineHit) {
+	this.depth = newDepth;
+	this.nodes = newNodes;
+	this.nanos = newNanos;
+	this.deadlineHit = newDeadlineHit;
+    }
+
+    /**
+     * Get the deepest level of the search reached.
+     * 
+     * @return Depth in moves from the current position
+     */
+    public int depth() {
+	return this.depth;
+    }
+
+    /**
+     * Get the number of nodes visited.
+     * 
+     * @return Number of nodes
+     */
+    public long nodes() {
+	return this.nodes;
+    }
+
+    /**
+     * Get the wall-clock time of the search.
+     * 
+     * @return Time in nanoseconds
+     */
+    public long nanos() {
+	return this.nanos;
+    }
+
+    /**
+     * Check, if the search was stopped by the deadline before using up it's
+     * nodes.
+     * 
+     * @return True if the deadline was hit
+     */
+    public boolean deadlineHit() {
+	return this.deadlineHit;
+    }
+
+    @Override
+    public String toString() {
+	return String.format("depth=%d nodes=%d time=%dus%s", this.depth,
+		this.nodes, this.nanos / 1000, this.deadlineHit ? " (deadline)"
+			: "");
+    }
+}
@@ -3,6 +3,7 @@ package cardGame.table;
 import java.util.List;
 
 import cardGame.card.CardDeck;
+import cardGame.event.EventBus;
 import cardGame.player.CardPlayer;
 import cardGame.util.LoopIterator;
 
@@ -36,6 +37,14 @@ public interface GameTable {
      */
     void close();
 
+    /**
+     * Dispose the table after the last game. All players leave the table and
+     * every handler is removed from the tables event bus, so nothing of the
+     * game stays referenced by the table. A disposed table cannot be used
+     * anymore.
+     */
+    void dispose();
+
     /**
      * Get an extended (looping) iterator over all players currently at the
      * table.
@@ -51,6 +60,17 @@ public interface GameTable {
      */
     CardDeck.Card dealCard();
 
+    /**
+     * Deal out cards for multiple hands at once.
+     * 
+     * @param hands
+     *            Number of hands to deal
+     * @param cardsEach
+     *            Number of cards per hand
+     * @return Cards for each hand
+     */
+    CardDeck.Card[][] dealHands(int hands, int cardsEach);
+
     /**
      * Get the number of players on this table.
      * 
@@ -95,4 +115,11 @@ public interface GameTable {
      * @return Players currently attending to the table
      */
     List<CardPlayer> player();
+
+    /**
+     * Get the bus transporting all events of the game happening at this table.
+     * 
+     * @return Event bus of this table
+     */
+    EventBus getEventBus();
 }
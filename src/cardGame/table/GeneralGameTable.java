@@ -8,8 +8,12 @@ import cardGame.card.CardDeck;
 import cardGame.card.CardStack;
 import cardGame.event.CardGameEvent;
 import cardGame.event.EventBus;
+import cardGame.event.EventChannel;
+import cardGame.metrics.Gauge;
+import cardGame.metrics.MetricsRegistry;
 import cardGame.player.CardPlayer;
 import cardGame.util.LoopIterator;
+import cardGame.util.RandomSource;
 
 /**
  * A game table where a card game is happening. This is a generic implementation
@@ -17,6 +21,9 @@ import cardGame.util.LoopIterator;
  */
 public abstract class GeneralGameTable implements GameTable {
     // CHECKSTYLE:OFF
+    /** Number of tables not disposed yet. */
+    private static final Gauge ACTIVE_TABLES = MetricsRegistry.global()
+	    .gauge("tables.active");
     /** Minimum number of players needed. */
     protected int playersMin = 2;
     /** Maximum number of players allowed. */
@@ -25,6 +32,17 @@ public abstract class GeneralGameTable implements GameTable {
 
     /** {@link CardStack} with all cards available on this table. */
     private final CardStack tableCards;
+    /** Source of randomness for this table. */
+    private final RandomSource random;
+    /** Number of the current game, starting at zero. */
+    private long game = 0;
+    /** Bus for all events of the game happening at this table. */
+    private final EventBus eventBus = new EventBus();
+    /** True, if the table has been disposed. */
+    private boolean disposed = false;
+    /** Channel for events emitted by the table. */
+    private final EventChannel<Event> eventChannel = this.eventBus
+	    .channel(Event.class);
 
     /** Events emitted by the table. */
     // TODO: describe parameters
@@ -34,7 +52,9 @@ public abstract class GeneralGameTable implements GameTable {
 	/** A player joined the table. */
 	PLAYER_JOINED,
 	/** A player left the table. */
-	PLAYER_LEFT;
+	PLAYER_LEFT,
+	/** Table is disposed. This is the last event fired by the table. */
+	DISPOSED;
     }
 
     /** List of players playing on this table. */
@@ -46,21 +66,34 @@ public abstract class GeneralGameTable implements GameTable {
      * 
      * @param deck
      *            The {@link CardDeck} used by the game on this table
+     * @param newRandom
+     *            Source of randomness for this table. The source will be
+     *            reset to the stream of the current game number at the start
+     *            of every game, so each game depends only on the seed of the
+     *            source and the game number.
      */
-    protected GeneralGameTable(final CardDeck.Deck deck) {
-	this.tableCards = new CardStack(deck);
+    protected GeneralGameTable(final CardDeck.Deck deck,
+	    final RandomSource newRandom) {
+	this.random = newRandom;
+	this.random.selectStream(this.game);
+	this.tableCards = new CardStack(deck, this.random);
 	this.tableCards.full();
+	ACTIVE_TABLES.add(1);
     }
 
     @Override
     public final void addPlayer(final CardPlayer newPlayer) throws Exception {
+	if (this.disposed) {
+	    throw new TableException(
+		    TableException.TableExceptions.TABLE_DISPOSED);
+	}
 	if (this.player.size() >= this.playersMax) {
 	    throw new TableException(
 		    TableException.TableExceptions.TABLE_CLOSED_PLAYER_REJECTED);
 	}
 	this.player.add(newPlayer);
 	newPlayer.setTable(this);
-	EventBus.INSTANCE.fireEvent(Event.PLAYER_JOINED, newPlayer);
+	this.eventChannel.fire(Event.PLAYER_JOINED, newPlayer);
     }
 
     @Override
@@ -69,14 +102,30 @@ public abstract class GeneralGameTable implements GameTable {
 	if (!this.player.remove(playerToRemove)) {
 	    throw new IllegalArgumentException("Player not found.");
 	}
-	EventBus.INSTANCE.fireEvent(Event.PLAYER_LEFT, playerToRemove);
+	playerToRemove.leaveTable();
+	this.eventChannel.fire(Event.PLAYER_LEFT, playerToRemove);
     }
 
     @Override
     public final void close() {
 	// fixate the players list
 	this.player = Collections.unmodifiableList(this.player);
-	EventBus.INSTANCE.fireEvent(GeneralGameTable.Event.CLOSED, null);
+	this.eventChannel.fire(Event.CLOSED, null);
+    }
+
+    @Override
+    public final void dispose() {
+	if (this.disposed) {
+	    return;
+	}
+	this.disposed = true;
+	ACTIVE_TABLES.add(-1);
+	this.eventChannel.fire(Event.DISPOSED, null);
+	for (CardPlayer seatPlayer : this.player) {
+	    seatPlayer.leaveTable();
+	}
+	this.player = Collections.emptyList();
+	this.eventBus.clear();
     }
 
     @Override
@@ -84,6 +133,11 @@ public abstract class GeneralGameTable implements GameTable {
 	return Collections.unmodifiableList(this.player);
     }
 
+    @Override
+    public final EventBus getEventBus() {
+	return this.eventBus;
+    }
+
     @Override
     public final LoopIterator<CardPlayer> playerLoopIterator() {
 	return new LoopIterator<CardPlayer>(this.player);
@@ -94,6 +148,29 @@ public abstract class GeneralGameTable implements GameTable {
 	return this.tableCards.getRandomCard();
     }
 
+    @Override
+    public final CardDeck.Card[][] dealHands(final int hands,
+	    final int cardsEach) {
+	return this.tableCards.dealHands(hands, cardsEach);
+    }
+
+    /**
+     * Get the seat of a player. The seat is the position of the player in the
+     * list of players attending to this table.
+     * 
+     * @param seatPlayer
+     *            Player whose seat to get
+     * @return Seat of the player
+     */
+    protected final int seatOf(final CardPlayer seatPlayer) {
+	for (int seat = 0; seat < this.player.size(); seat++) {
+	    if (this.player.get(seat).equals(seatPlayer)) {
+		return seat;
+	    }
+	}
+	throw new IllegalArgumentException("Player not found.");
+    }
+
     @Override
     public final int numberOfPlayers() {
 	return this.player.size();
@@ -101,6 +178,8 @@ public abstract class GeneralGameTable implements GameTable {
 
     @Override
     public final void startNewGame() {
+	this.game++;
+	this.random.selectStream(this.game);
 	// re-fill card stack
 	this.tableCards.full();
     }
@@ -18,6 +18,8 @@ public class TableException extends Exception {
 	 * was already set as being closed.
 	 */
 	TABLE_CLOSED_PLAYER_REJECTED("Table is closed! No more player allowed."), //
+	/** The {@link Table} was disposed and can't be used anymore. */
+	TABLE_DISPOSED("The table is disposed."), //
 	/** All games are played, none is left. */
 	NO_GAME_LEFT("All games played. Theres no game left.");
 
@@ -0,0 +1,54 @@
+package cardGame.util;
+
+/**
+ * Source of pseudo random numbers. Each source is meant to be used by a single
+ * thread only. Independent sources for other threads, tables or games are
+ * derived using {@link #split(long)}. All numbers generated by a source are
+ * fully determined by it's seed and the selected stream, so every game can be
+ * regenerated from the master seed and the stream indices used to reach it.
+ */
+public interface RandomSource {
+    /**
+     * Get a random int in the range <code>0..bound-1</code>.
+     * 
+     * @param bound
+     *            Upper bound (exclusive). Must be positive.
+     * @return Random int
+     */
+    int nextInt(final int bound);
+
+    /**
+     * Get a random long.
+     * 
+     * @return Random long
+     */
+    long nextLong();
+
+    /**
+     * Get a random float in the range <code>0..1</code> (exclusive).
+     * 
+     * @return Random float
+     */
+    float nextFloat();
+
+    /**
+     * Derive a new independent source. The derived source depends only on the
+     * seed of this source and the given stream index. Calling this does not
+     * advance this source.
+     * 
+     * @param stream
+     *            Index of the stream to derive
+     * @return New source for the given stream
+     */
+    RandomSource split(final long stream);
+
+    /**
+     * Reset this source to the beginning of the given stream. Afterwards this
+     * source generates the same numbers as a source returned by
+     * {@link #split(long)} for the same stream.
+     * 
+     * @param stream
+     *            Index of the stream to select
+     */
+    void selectStream(final long stream);
+}
@@ -0,0 +1,93 @@
+package cardGame.util;
+
+/**
+ * {@link RandomSource} implementation based on the SplitMix64 algorithm (the
+ * algorithm behind <code>java.util.SplittableRandom</code>). It has a single
+ * long of state, doesn't synchronize and derives streams by mixing the seed
+ * with the stream index.
+ */
+public final class SplitMixRandom implements RandomSource {
+    /** Odd constant derived from the golden ratio. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /** Seed this source was created with. */
+    private final long seed;
+    /** Current generator state. */
+    private long state;
+
+    /**
+     * Constructor.
+     * 
+     * @param newSeed
+     *            Seed for this source
+     */
+    public SplitMixRandom(final long newSeed) {
+	this.seed = newSeed;
+	this.state = newSeed;
+    }
+
+    /**
+     * Create a source seeded from the current time. Use this only if the
+     * results don't need to be reproducible.
+     * 
+     * @return New unseeded source
+     */
+    public static SplitMixRandom unseeded() {
+	return new SplitMixRandom(mix64(System.nanoTime()
+		^ Thread.currentThread().getId()));
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     * 
+     * @param value
+     *            Value to mix
+     * @return Mixed value
+     */
+    private static long mix64(final long value) {
+	long z = value;
+	z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+	z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+	return z ^ (z >>> 31);
+    }
+
+    /**
+     * Calculate the seed of a stream.
+     * 
+     * @param stream
+     *            Stream index
+     * @return Seed for the stream
+     */
+    private long streamSeed(final long stream) {
+	return mix64(this.seed + mix64((stream + 1) * GOLDEN_GAMMA));
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+	if (bound <= 0) {
+	    throw new IllegalArgumentException("Bound must be positive.");
+	}
+	// multiply-shift range reduction, bias is negligible for small bounds
+	return (int) (((this.nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    public long nextLong() {
+	this.state += GOLDEN_GAMMA;
+	return mix64(this.state);
+    }
+
+    @Override
+    public float nextFloat() {
+	return (this.nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public RandomSource split(final long stream) {
+	return new SplitMixRandom(this.streamSeed(stream));
+    }
+
+    @Override
+    public void selectStream(final long stream) {
+	this.state = this.streamSeed(stream);
+    }
+}